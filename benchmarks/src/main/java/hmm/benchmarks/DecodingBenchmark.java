@@ -0,0 +1,81 @@
+package hmm.benchmarks;
+
+import hmm.algorithms.Algorithms;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
+import hmm.estimation.Estimation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Benchmark decoding dan estimasi pada model sintetis.
+ * Jalankan dengan -prof gc untuk melihat alokasi per operasi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodingBenchmark {
+    @Param({"16", "256"})
+    public int states;
+
+    @Param({"26"})
+    public int alphabet;
+
+    @Param({"0.1", "1.0"})
+    public double density;
+
+    @Param({"10000"})
+    public int length;
+
+    private Model model;
+    private ExperimentData data;
+    private List<List<Map.Entry<Double, Double>>> forwardBackward;
+    private PosteriorMatrix posterior;
+    private List<Integer> viterbiPath;
+
+    @Setup
+    public void setup() {
+        model = SyntheticModels.generate(states, alphabet, density, 42L);
+        data = SyntheticModels.sample(model, length, 7L);
+        forwardBackward = Algorithms.calcForwardBackwardProbabilities(model, data);
+        posterior = Algorithms.calcScaledForwardBackward(model, data);
+        viterbiPath = Algorithms.findMostProbableStateSequence(model, data);
+    }
+
+    @Benchmark
+    public List<Integer> findMostProbableStateSequence() {
+        return Algorithms.findMostProbableStateSequence(model, data);
+    }
+
+    @Benchmark
+    public List<List<Map.Entry<Double, Double>>> calcForwardBackwardProbabilities() {
+        return Algorithms.calcForwardBackwardProbabilities(model, data);
+    }
+
+    @Benchmark
+    public List<Integer> getMostProbableStates() {
+        return Estimation.getMostProbableStates(forwardBackward);
+    }
+
+    @Benchmark
+    public List<Integer> getMostProbableStatesFromMatrix() {
+        return Estimation.getMostProbableStates(posterior);
+    }
+
+    @Benchmark
+    public int[][] combineConfusionMatrix() {
+        return Estimation.combineConfusionMatrix(data, viterbiPath, model);
+    }
+}
@@ -0,0 +1,71 @@
+package hmm.benchmarks;
+
+import hmm.algorithms.Algorithms;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Membandingkan kernel transisi padat SIMD (jdk.incubator.vector) dengan versi skalar.
+ * Implementasi dipilih sekali per JVM, jadi setiap varian berjalan di fork dengan opsi JVM sendiri.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DenseKernelBenchmark {
+    @Param({"128", "512"})
+    public int states;
+
+    @Param({"26"})
+    public int alphabet;
+
+    @Param({"1.0"})
+    public double density;
+
+    @Param({"2000"})
+    public int length;
+
+    private Model model;
+    private ExperimentData data;
+
+    @Setup
+    public void setup() {
+        model = SyntheticModels.generate(states, alphabet, density, 42L);
+        data = SyntheticModels.sample(model, length, 7L);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+    public List<Integer> viterbiVector() {
+        return Algorithms.findMostProbableStateSequence(model, data);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dhmm.vector=false"})
+    public List<Integer> viterbiScalar() {
+        return Algorithms.findMostProbableStateSequence(model, data);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+    public PosteriorMatrix forwardBackwardVector() {
+        return Algorithms.calcScaledForwardBackward(model, data);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dhmm.vector=false"})
+    public PosteriorMatrix forwardBackwardScalar() {
+        return Algorithms.calcScaledForwardBackward(model, data);
+    }
+}
@@ -0,0 +1,62 @@
+package hmm.benchmarks;
+
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Benchmark parsing file teks .model dan .data dari memori (tanpa I/O disk).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+    @Param({"64"})
+    public int states;
+
+    @Param({"26"})
+    public int alphabet;
+
+    @Param({"1.0"})
+    public double density;
+
+    @Param({"100000"})
+    public int length;
+
+    private Model model;
+    private byte[] modelText;
+    private byte[] dataText;
+
+    @Setup
+    public void setup() {
+        model = SyntheticModels.generate(states, alphabet, density, 42L);
+        modelText = SyntheticModels.toModelText(model);
+        dataText = SyntheticModels.toDataText(model, SyntheticModels.sample(model, length, 7L));
+    }
+
+    @Benchmark
+    public Model readModel() throws IOException {
+        Model parsed = new Model();
+        parsed.readModel(new ByteArrayInputStream(modelText));
+        return parsed;
+    }
+
+    @Benchmark
+    public ExperimentData readExperimentData() throws IOException {
+        ExperimentData parsed = new ExperimentData();
+        parsed.readExperimentData(model, new ByteArrayInputStream(dataText));
+        return parsed;
+    }
+}
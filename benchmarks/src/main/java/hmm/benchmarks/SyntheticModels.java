@@ -0,0 +1,190 @@
+package hmm.benchmarks;
+
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Generator model dan urutan observasi sintetis untuk benchmark.
+ * Model selalu memiliki state 'B' (begin) di indeks 0 dan 'E' (end) di indeks terakhir,
+ * dengan state tersembunyi S1..Sn di antaranya.
+ */
+public class SyntheticModels {
+    /// probabilitas transisi ke state end dari setiap state tersembunyi
+    static final double END_PROBABILITY = 0.001;
+
+    /**
+     * Membuat model acak.
+     *
+     * @param hiddenStates Jumlah state tersembunyi (tanpa begin/end).
+     * @param alphabetSize Jumlah simbol emisi; maksimal 26 jika model akan ditulis sebagai teks.
+     * @param density      Fraksi state tersembunyi yang menjadi tujuan transisi dari setiap state (0, 1].
+     * @param seed         Seed generator acak.
+     */
+    public static Model generate(int hiddenStates, int alphabetSize, double density, long seed) {
+        if (hiddenStates < 1 || alphabetSize < 1 || density <= 0.0 || density > 1.0) {
+            throw new IllegalArgumentException("Invalid synthetic model parameters: states=" + hiddenStates
+                    + ", alphabet=" + alphabetSize + ", density=" + density);
+        }
+        Random random = new Random(seed);
+        int nstates = hiddenStates + 2;
+
+        Model model = new Model();
+        model.alphabetSize = alphabetSize;
+        model.stateNameToIndex = new HashMap<>();
+        model.stateIndexToName = new ArrayList<>(nstates);
+        for (int i = 0; i < nstates; ++i) {
+            String name = i == 0 ? "B" : i == nstates - 1 ? "E" : "S" + i;
+            model.stateNameToIndex.put(name, i);
+            model.stateIndexToName.add(name);
+        }
+
+        // bagian: transisi (begin ke semua state, lainnya ke sebagian state sesuai density)
+        model.transitionProb = new double[nstates][nstates];
+        fillRandomRow(model.transitionProb[0], 1, hiddenStates, hiddenStates, 1.0, random);
+        int fanOut = Math.max(1, (int) Math.round(density * hiddenStates));
+        for (int i = 1; i <= hiddenStates; ++i) {
+            fillRandomRow(model.transitionProb[i], 1, hiddenStates, fanOut, 1.0 - END_PROBABILITY, random);
+            model.transitionProb[i][nstates - 1] = END_PROBABILITY;
+        }
+
+        // bagian: emisi (state begin/end tidak mengemisikan simbol)
+        model.stateSymbolProb = new double[nstates][alphabetSize];
+        for (int i = 1; i <= hiddenStates; ++i) {
+            fillRandomRow(model.stateSymbolProb[i], 0, alphabetSize, alphabetSize, 1.0, random);
+        }
+        return model;
+    }
+
+    // Mengisi `count` kolom acak di [from, from + width) dengan bobot acak yang dinormalisasi ke `total`
+    private static void fillRandomRow(double[] row, int from, int width, int count, double total, Random random) {
+        int[] columns = new int[width];
+        for (int k = 0; k < width; ++k) {
+            columns[k] = from + k;
+        }
+        for (int k = 0; k < count; ++k) {
+            int pick = k + random.nextInt(width - k);
+            int tmp = columns[k];
+            columns[k] = columns[pick];
+            columns[pick] = tmp;
+        }
+
+        double sum = 0.0;
+        for (int k = 0; k < count; ++k) {
+            row[columns[k]] = 0.05 + random.nextDouble();
+            sum += row[columns[k]];
+        }
+        for (int k = 0; k < count; ++k) {
+            row[columns[k]] *= total / sum;
+        }
+    }
+
+    /**
+     * Mengambil sampel urutan sepanjang length dari model (transisi ke end diabaikan).
+     */
+    public static ExperimentData sample(Model model, int length, long seed) {
+        Random random = new Random(seed);
+        int nstates = model.stateIndexToName.size();
+        int[] states = new int[length];
+        int[] symbols = new int[length];
+
+        int state = draw(model.transitionProb[0], 0, nstates - 1, random);
+        for (int t = 0; t < length; ++t) {
+            states[t] = state;
+            symbols[t] = draw(model.stateSymbolProb[state], 0, model.alphabetSize, random);
+            state = draw(model.transitionProb[state], 0, nstates - 1, random);
+        }
+
+        ExperimentData data = new ExperimentData();
+        data.setColumns(null, states, symbols);
+        return data;
+    }
+
+    private static int draw(double[] prob, int from, int to, Random random) {
+        double total = 0.0;
+        for (int k = from; k < to; ++k) {
+            total += prob[k];
+        }
+        double target = random.nextDouble() * total;
+        int last = from;
+        for (int k = from; k < to; ++k) {
+            if (prob[k] > 0.0) {
+                last = k;
+                target -= prob[k];
+                if (target < 0.0) {
+                    return k;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Menulis model dalam format teks .model.
+     */
+    public static byte[] toModelText(Model model) {
+        checkTextAlphabet(model.alphabetSize);
+        int nstates = model.stateIndexToName.size();
+        StringBuilder transitions = new StringBuilder();
+        int ntransitions = 0;
+        for (int i = 0; i < nstates; ++i) {
+            for (int j = 0; j < nstates; ++j) {
+                if (model.transitionProb[i][j] > 0.0) {
+                    transitions.append(model.stateIndexToName.get(i)).append(' ')
+                            .append(model.stateIndexToName.get(j)).append(' ')
+                            .append(model.transitionProb[i][j]).append('\n');
+                    ++ntransitions;
+                }
+            }
+        }
+        StringBuilder emissions = new StringBuilder();
+        int nemissions = 0;
+        for (int i = 0; i < nstates; ++i) {
+            for (int k = 0; k < model.alphabetSize; ++k) {
+                if (model.stateSymbolProb[i][k] > 0.0) {
+                    emissions.append(model.stateIndexToName.get(i)).append(' ')
+                            .append((char) ('a' + k)).append(' ')
+                            .append(model.stateSymbolProb[i][k]).append('\n');
+                    ++nemissions;
+                }
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(nstates).append('\n').append(String.join(" ", model.stateIndexToName)).append('\n');
+        text.append(model.alphabetSize).append('\n');
+        text.append(ntransitions).append('\n').append(transitions);
+        text.append(nemissions).append('\n').append(emissions);
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Menulis urutan dalam format teks .data.
+     */
+    public static byte[] toDataText(Model model, ExperimentData data) {
+        checkTextAlphabet(model.alphabetSize);
+        StringBuilder text = new StringBuilder(data.size() * 12);
+        text.append(data.size()).append('\n');
+        for (int t = 0; t < data.size(); ++t) {
+            text.append(data.time(t)).append('\t')
+                    .append(model.stateIndexToName.get(data.state(t))).append('\t')
+                    .append((char) ('a' + data.symbol(t))).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void checkTextAlphabet(int alphabetSize) {
+        if (alphabetSize > 26) {
+            throw new IllegalArgumentException("Text format supports at most 26 symbols (a-z), got " + alphabetSize);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hmm.benchmarks;
+
+import hmm.algorithms.Algorithms;
+import hmm.algorithms.DecoderWorkspace;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Decoding urutan pendek seperti pada jalur request-serving: entry point List dibandingkan dengan
+ * entry point DecoderWorkspace + int[] path. Jalankan dengan -prof gc; varian workspace harus
+ * menunjukkan gc.alloc.rate.norm mendekati 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkspaceBenchmark {
+    @Param({"16", "128"})
+    public int states;
+
+    @Param({"26"})
+    public int alphabet;
+
+    @Param({"0.1"})
+    public double density;
+
+    @Param({"100"})
+    public int length;
+
+    private CompiledModel compiled;
+    private ExperimentData data;
+    private DecoderWorkspace workspace;
+    private int[] path;
+
+    @Setup
+    public void setup() {
+        Model model = SyntheticModels.generate(states, alphabet, density, 42L);
+        compiled = CompiledModel.compile(model);
+        data = SyntheticModels.sample(model, length, 7L);
+        workspace = new DecoderWorkspace();
+        path = new int[length];
+    }
+
+    @Benchmark
+    public List<Integer> viterbiList() {
+        return Algorithms.findMostProbableStateSequence(compiled, data);
+    }
+
+    @Benchmark
+    public double viterbiWorkspace() {
+        return Algorithms.findMostProbableStateSequence(compiled, data, workspace, path);
+    }
+
+    @Benchmark
+    public double posteriorWorkspace() {
+        return Algorithms.findPosteriorStateSequence(compiled, data, workspace, path);
+    }
+}
@@ -0,0 +1,79 @@
+package hmm.algorithms;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Implementasi SIMD DenseOps dengan jdk.incubator.vector (JDK 17+).
+ * dot memakai fused multiply-add per lane, sehingga hasilnya bisa berbeda beberapa ulp dari
+ * versi skalar karena urutan penjumlahan berbeda. argmaxSum tetap memilih indeks pertama
+ * yang mencapai maksimum, sama seperti versi skalar (kecuali jika ada NaN, yang tidak muncul
+ * dari probabilitas yang valid).
+ * Dimuat secara reflektif oleh DenseOps.load().
+ */
+final class VectorDenseOps implements DenseOps {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double dot(double[] matrix, int offset, double[] vector, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int step = SPECIES.length();
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += step) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, matrix, offset + i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, vector, i);
+            acc = a.fma(b, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            sum += matrix[offset + i] * vector[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int argmaxSum(double[] matrix, int offset, double[] vector, int length) {
+        // bagian: nilai maksimum (lane-wise, lalu reduksi)
+        DoubleVector best = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int step = SPECIES.length();
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += step) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, matrix, offset + i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, vector, i);
+            best = best.max(a.add(b));
+        }
+        double max = best.reduceLanes(VectorOperators.MAX);
+        for (int k = i; k < length; ++k) {
+            max = Math.max(max, matrix[offset + k] + vector[k]);
+        }
+        if (!(max > Double.NEGATIVE_INFINITY)) {
+            return -1;
+        }
+
+        // bagian: indeks pertama yang mencapai maksimum (penjumlahan lane identik dengan skalar).
+        // Dua sapuan ini lebih cepat daripada melacak indeks per lane dengan blend.
+        for (i = 0; i < upper; i += step) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, matrix, offset + i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, vector, i);
+            VectorMask<Double> hit = a.add(b).compare(VectorOperators.EQ, max);
+            if (hit.anyTrue()) {
+                return i + hit.firstTrue();
+            }
+        }
+        for (; i < length; ++i) {
+            if (matrix[offset + i] + vector[i] == max) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+package hmm;
+
+import hmm.data.BinaryFormat;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Mengkonversi file model dan data teks ke format biner (lihat BinaryFormat).
+ */
+public class BinaryConverter {
+
+    private static void showUsage(String programName) {
+        System.err.println("Usage: java " + programName + " model path_to_model output_path");
+        System.err.println("       java " + programName + " data path_to_model path_to_data [path_to_data ...] output_path");
+    }
+
+    private static Model readTextModel(String path) throws IOException {
+        Model model = new Model();
+        try (InputStream modelStream = new FileInputStream(path)) {
+            model.readModel(modelStream);
+        }
+        return model;
+    }
+
+    public static void main(String[] args) {
+        // bagian: periksa argumen
+        boolean modelMode = args.length == 3 && args[0].equals("model");
+        boolean dataMode = args.length >= 4 && args[0].equals("data");
+        if (!modelMode && !dataMode) {
+            showUsage("hmm.BinaryConverter");
+            System.exit(1);
+        }
+
+        Path output = Paths.get(args[args.length - 1]);
+        try {
+            Model model = readTextModel(args[1]);
+            if (modelMode) {
+                BinaryFormat.writeModel(model, output);
+                System.out.println("Wrote model with " + model.stateIndexToName.size() + " states to " + output);
+            } else {
+                // bagian: setiap file data menjadi satu urutan dalam file biner
+                List<ExperimentData> sequences = new ArrayList<>();
+                long totalSteps = 0;
+                for (int i = 2; i < args.length - 1; ++i) {
+                    ExperimentData data = new ExperimentData();
+                    try (InputStream dataStream = new FileInputStream(args[i])) {
+                        data.readExperimentData(model, dataStream);
+                    }
+                    sequences.add(data);
+                    totalSteps += data.size();
+                }
+                BinaryFormat.writeExperimentData(model, sequences, output);
+                System.out.println("Wrote " + sequences.size() + " sequence(s), " + totalSteps + " steps to " + output);
+            }
+        } catch (FileNotFoundException e) {
+            System.err.println("ERROR: File not found. Details: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: Problem with model or data format/content. Details: " + e.getMessage());
+            System.exit(1);
+        } catch (NoSuchElementException e) {
+            System.err.println("ERROR: Unexpected end of file or incorrect format in model/data file. Details: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("ERROR: Fatal IO problem while converting files. Details: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
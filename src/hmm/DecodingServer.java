@@ -0,0 +1,231 @@
+package hmm;
+
+import hmm.metrics.Metrics;
+import hmm.server.DecodingService;
+import hmm.server.ModelCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Mode server: JVM tetap hidup dan melayani request decoding berbentuk JSON per baris (NDJSON),
+ * sehingga startup JVM, pembacaan model dan warm-up JIT hanya dibayar sekali.
+ * Tanpa --port, request dibaca dari stdin dan response ditulis ke stdout; dengan --port, server
+ * mendengarkan di loopback dan setiap koneksi memakai protokol yang sama. Setiap request dijalankan
+ * di virtual thread (Java 21+, selain itu thread pool biasa), jadi response dapat keluar tidak berurutan;
+ * cocokkan lewat field "id". Lihat DecodingService untuk format request.
+ */
+public class DecodingServer {
+
+    // Jumlah request yang sedang diproses per stream; pembacaan request berikutnya menunggu jika penuh
+    private static final int MAX_IN_FLIGHT = 256;
+
+    private static void showUsage(String programName) {
+        System.err.println("Usage: java " + programName + " [--port port] [--cache-weight cells] [--preload path_to_model ...]");
+    }
+
+    public static void main(String[] args) {
+        // bagian: periksa argumen
+        int port = -1;
+        long cacheWeight = DecodingService.DEFAULT_CACHE_WEIGHT;
+        List<String> preload = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--cache-weight") && i + 1 < args.length) {
+                    cacheWeight = Long.parseLong(args[++i]);
+                } else if (args[i].equals("--preload") && i + 1 < args.length) {
+                    preload.add(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            showUsage("hmm.DecodingServer");
+            System.exit(1);
+        }
+
+        // MBean selalu didaftarkan agar metrik dapat diaktifkan lewat JMX tanpa restart
+        if (!"false".equals(System.getProperty("hmm.metrics.jmx"))) {
+            Metrics.registerMBeans();
+        }
+
+        DecodingService service = new DecodingService(new ModelCache(cacheWeight));
+        for (String modelPath : preload) {
+            try {
+                service.preload(modelPath);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("ERROR: Model " + modelPath + " could not be loaded. Details: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        ExecutorService executor = newRequestExecutor();
+        CountDownLatch stopped = new CountDownLatch(1);
+        service.setShutdownHook(stopped::countDown);
+
+        // bagian: jalankan stream request di thread daemon; thread utama menunggu EOF atau shutdown
+        Thread acceptor;
+        if (port < 0) {
+            acceptor = new Thread(() -> {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                serve(in, out, service, executor);
+                stopped.countDown();
+            }, "hmm-stdin");
+        } else {
+            ServerSocket serverSocket;
+            try {
+                serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                System.err.println("ERROR: Cannot listen on port " + port + ". Details: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+            System.err.println("Listening on " + serverSocket.getLocalSocketAddress());
+            service.setShutdownHook(() -> {
+                stopped.countDown();
+                try {
+                    serverSocket.close();
+                } catch (IOException ignored) {
+                    // accept() berhenti dengan SocketException
+                }
+            });
+            acceptor = new Thread(() -> acceptLoop(serverSocket, service, executor), "hmm-accept");
+        }
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        try {
+            stopped.await();
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.flush();
+        System.exit(0);
+    }
+
+    /**
+     * Executor virtual thread (satu thread per task) jika JVM mendukungnya (Java 21+). Pada JVM lama
+     * dipakai cached thread pool, bukan ForkJoinPool: task pembaca koneksi memblokir di readLine,
+     * dan di pool berukuran tetap task tersebut dapat menghabiskan semua worker.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static void acceptLoop(ServerSocket serverSocket, DecodingService service, ExecutorService executor) {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Warning: accept failed. Details: " + e.getMessage());
+                }
+                continue;
+            }
+
+            try {
+                executor.submit(() -> {
+                    try (Socket connection = socket) {
+                        BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                        Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+                        serve(in, out, service, executor);
+                    } catch (IOException e) {
+                        System.err.println("Warning: connection failed. Details: " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return; // server sedang berhenti
+            }
+        }
+    }
+
+    /**
+     * Membaca request per baris sampai EOF, menjalankan setiap request di executor dan menulis
+     * response-nya (satu baris per response). Kembali setelah semua response ditulis.
+     */
+    private static void serve(BufferedReader in, Writer out, DecodingService service, ExecutorService executor) {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                final String request = line;
+                inFlight.acquire();
+                try {
+                    executor.submit(() -> {
+                        try {
+                            write(out, service.handle(request));
+                        } catch (Throwable e) {
+                            // Termasuk Error (mis. StackOverflowError): tanpa ini Future menelannya dan
+                            // klien tidak pernah menerima response untuk baris ini
+                            System.err.println("ERROR: Request failed outside the service. Details: " + e);
+                            write(out, DecodingService.failure(e));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    break; // server sedang berhenti
+                }
+            }
+            // Tunggu semua request dari stream ini selesai sebelum stream ditutup
+            inFlight.acquire(MAX_IN_FLIGHT);
+        } catch (IOException e) {
+            System.err.println("Warning: reading requests failed. Details: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(Writer out, String response) {
+        synchronized (out) {
+            try {
+                out.write(response);
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("Warning: writing response failed. Details: " + e.getMessage());
+            }
+        }
+    }
+}
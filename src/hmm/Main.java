@@ -1,17 +1,24 @@
 package hmm;
 
 import hmm.algorithms.Algorithms;
+import hmm.data.BinaryFormat;
+import hmm.data.CompiledModel;
+import hmm.data.ContinuousData;
 import hmm.data.ExperimentData;
+import hmm.data.LabeledSequence;
+import hmm.data.MappedDataset;
 import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
 import hmm.data.PredictionEstimation;
 import hmm.estimation.Estimation;
+import hmm.metrics.Metrics;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 /*
@@ -52,13 +59,39 @@ public class Main {
         // bagian: baca model dan hmm.data
         Model model = new Model(); // Instansiasi kelas dari hmm.hmm.data
         ExperimentData data = new ExperimentData(); // Instansiasi kelas dari hmm.hmm.data
+        ContinuousData continuousData = null; // Hanya dipakai untuk model dengan emisi kontinu
 
         // Menggunakan try-with-resources untuk memastikan stream ditutup
-        try (InputStream modelStream = new FileInputStream(modelFilePath);
-             InputStream dataStream = new FileInputStream(dataFilePath)) {
+        try {
+            // File biner (hasil hmm.BinaryConverter) dikenali dari magic di awal file
+            if (BinaryFormat.isBinaryModel(Paths.get(modelFilePath))) {
+                model = BinaryFormat.readModel(Paths.get(modelFilePath));
+            } else {
+                try (InputStream modelStream = new FileInputStream(modelFilePath)) {
+                    model.readModel(modelStream); // Panggil method dari objek model
+                }
+            }
 
-            model.readModel(modelStream); // Panggil method dari objek model
-            data.readExperimentData(model, dataStream); // Panggil method dari objek hmm.data
+            if (model.continuousEmissions != null) {
+                if (BinaryFormat.isBinaryData(Paths.get(dataFilePath))) {
+                    throw new IllegalArgumentException("Binary data files are not supported for continuous emission models");
+                }
+                continuousData = new ContinuousData();
+                try (InputStream dataStream = new FileInputStream(dataFilePath)) {
+                    continuousData.readContinuousData(model, dataStream);
+                }
+            } else if (BinaryFormat.isBinaryData(Paths.get(dataFilePath))) {
+                try (MappedDataset dataset = MappedDataset.open(Paths.get(dataFilePath))) {
+                    if (dataset.sequenceCount() != 1) {
+                        throw new IllegalArgumentException("Binary data file contains " + dataset.sequenceCount() + " sequences, expected exactly one");
+                    }
+                    data = dataset.toExperimentData(0, model);
+                }
+            } else {
+                try (InputStream dataStream = new FileInputStream(dataFilePath)) {
+                    data.readExperimentData(model, dataStream); // Panggil method dari objek hmm.data
+                }
+            }
 
         } catch (FileNotFoundException e) {
             System.err.println("ERROR: File not found. Details: " + e.getMessage());
@@ -81,8 +114,11 @@ public class Main {
             System.exit(1);
         }
 
+        // State sebenarnya diambil dari data diskrit maupun kontinu
+        LabeledSequence labels = continuousData != null ? continuousData : data;
+
         // Pastikan model dan hmm.data berhasil dimuat sebelum melanjutkan
-        if (model.stateIndexToName == null || model.stateIndexToName.size() < 2 || data.timeStateSymbol == null) {
+        if (model.stateIndexToName == null || model.stateIndexToName.size() < 2 || labels.size() == 0) {
             System.err.println("ERROR: Model or hmm.data was not loaded correctly or is empty.");
             System.exit(1);
         }
@@ -93,22 +129,32 @@ public class Main {
             System.err.println("Warning: Model must contain states beyond 'begin' and 'end' for meaningful hmm.estimation output.");
         }
 
+        // Model dikompilasi sekali (transisi CSR dan tabel emisi per simbol) untuk kedua algoritma
+        CompiledModel compiledModel = null;
+        try {
+            compiledModel = CompiledModel.compile(model);
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: Model could not be compiled. Details: " + e.getMessage());
+            System.exit(1);
+        }
 
         // bagian: jalankan dan estimasi prediksi Viterbi
         System.out.println("Viterbi algorithm state prediction estimations:");
         try {
-            List<Integer> mostProbableSeq = Algorithms.findMostProbableStateSequence(model, data); // Panggil dari kelas Algorithms
+            List<Integer> mostProbableSeq = continuousData != null
+                    ? Algorithms.findMostProbableStateSequence(compiledModel, continuousData)
+                    : Algorithms.findMostProbableStateSequence(compiledModel, data); // Panggil dari kelas Algorithms
 
             // Pastikan hasil Viterbi memiliki ukuran yang sama dengan hmm.data, kecuali jika hmm.data kosong
-            if (data.timeStateSymbol.size() > 0 && mostProbableSeq.size() != data.timeStateSymbol.size()) {
+            if (labels.size() > 0 && mostProbableSeq.size() != labels.size()) {
                 System.err.println("Warning: Viterbi algorithm result size mismatch with hmm.data size. Skipping Viterbi hmm.estimation output.");
                 // Tidak perlu keluar, biarkan coba Forward-Backward
-            } else if (data.timeStateSymbol.size() == 0) {
+            } else if (labels.size() == 0) {
                 System.out.println("No hmm.data to process for Viterbi hmm.estimation.");
             }
             else {
                 // Proses estimasi Viterbi jika hasilnya valid
-                int[][] confusionMatrixViterbi = Estimation.combineConfusionMatrix(data, mostProbableSeq, model); // Panggil dari kelas Estimation
+                int[][] confusionMatrixViterbi = Estimation.combineConfusionMatrix(labels, mostProbableSeq, model); // Panggil dari kelas Estimation
                 List<PredictionEstimation> estimationsViterbi = Estimation.getStatePredictionEstimations(confusionMatrixViterbi); // Panggil dari kelas Estimation
 
                 // Lewati state pertama dan terakhir (begin dan end)
@@ -131,13 +177,19 @@ public class Main {
         // bagian: jalankan dan estimasi prediksi Forward-Backward
         System.out.println("Forward-backward algorithm state prediction estimations:");
         try {
-            List<List<Map.Entry<Double, Double>>> forwardBackwardProb =
-                    Algorithms.calcForwardBackwardProbabilities(model, data); // Panggil dari kelas Algorithms
+            PosteriorMatrix forwardBackwardProb = continuousData != null
+                    ? Algorithms.calcScaledForwardBackward(compiledModel, continuousData, false)
+                    : Algorithms.calcScaledForwardBackward(compiledModel, data, false); // Panggil dari kelas Algorithms
+
+            if (forwardBackwardProb.isImpossible()) {
+                // Posterior kosong: semua langkah jatuh ke state dengan indeks terkecil, seperti sebelumnya
+                System.err.println("Warning: The observation sequence has zero probability under the model; forward-backward posteriors are all zero.");
+            }
 
             // Pastikan hasil FB memiliki ukuran langkah yang sama dengan hmm.data, kecuali jika hmm.data kosong
-            if (data.timeStateSymbol.size() > 0 && forwardBackwardProb.size() != data.timeStateSymbol.size()) {
+            if (labels.size() > 0 && forwardBackwardProb.nsteps != labels.size()) {
                 System.err.println("Warning: Forward-Backward algorithm result size mismatch with hmm.data size. Skipping F-B hmm.estimation output.");
-            } else if (data.timeStateSymbol.size() == 0) {
+            } else if (labels.size() == 0) {
                 System.out.println("No hmm.data to process for Forward-Backward hmm.estimation.");
             }
             else {
@@ -146,10 +198,10 @@ public class Main {
                         Estimation.getMostProbableStates(forwardBackwardProb); // Panggil dari kelas Estimation
 
                 // Pastikan hasil mostProbableStates memiliki ukuran langkah yang sama
-                if (mostProbableStates.size() != data.timeStateSymbol.size()) {
+                if (mostProbableStates.size() != labels.size()) {
                     System.err.println("Warning: getMostProbableStates did not produce a sequence matching the hmm.data size. Skipping F-B hmm.estimation output.");
                 } else {
-                    int[][] confusionMatrixFB = Estimation.combineConfusionMatrix(data, mostProbableStates, model); // Panggil dari kelas Estimation
+                    int[][] confusionMatrixFB = Estimation.combineConfusionMatrix(labels, mostProbableStates, model); // Panggil dari kelas Estimation
                     List<PredictionEstimation> estimationsFB = Estimation.getStatePredictionEstimations(confusionMatrixFB); // Panggil dari kelas Estimation
 
                     // Lewati state pertama dan terakhir (begin dan end)
@@ -170,6 +222,11 @@ public class Main {
 
         System.out.println("\n");
 
+        if (Metrics.isEnabled()) {
+            // stderr agar keluaran hasil di stdout tidak berubah
+            System.err.print(Metrics.toText());
+        }
+
         System.exit(0); // Keluar dengan kode sukses jika sampai sini
     }
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package hmm.algorithms;
 
+import hmm.data.CompiledModel;
+import hmm.data.ContinuousData;
+import hmm.data.EmissionModel;
 import hmm.data.ExperimentData;
 import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
+import hmm.data.ScoredPath;
+import hmm.data.TransitionGraph;
+import hmm.metrics.Metrics;
 
 import java.util.*;
 
@@ -12,322 +19,1012 @@ import java.util.*;
 public class Algorithms {
 
     // Menggunakan -1 untuk merepresentasikan state yang tidak terdefinisi
-    private static final int HMM_UNDEFINED_STATE = -1;
+    static final int HMM_UNDEFINED_STATE = -1;
+
+    /// operasi untuk graf transisi padat (SIMD jika jdk.incubator.vector tersedia)
+    static final DenseOps DENSE_OPS = DenseOps.load();
 
     /**
-     * Fungsi bantu untuk menghitung probabilitas state baru untuk langkah Viterbi.
+     * Apakah kernel transisi padat memakai implementasi SIMD (jdk.incubator.vector).
      */
-    private static double calcNewStateProbability(int stepNumber, int prevState,
-                                                  int curState, int curSymbol,
-                                                  Model model, // Gunakan kelas Model dari package hmm.hmm.data
-                                                  double[][] sequenceProbability) {
-        double prevProbability = 1.0;
-
-        if (stepNumber == 0) {
-            if (prevState == 0) { // Hanya state 'begin' (indeks 0) yang punya prob non-nol di langkah 0
-                prevProbability = 1.0; // Probabilitas memulai di state 0 adalah 1
-            } else {
-                prevProbability = 0.0; // State lain tidak bisa menjadi state sebelumnya di langkah 0
-            }
-        } else {
-            // Untuk langkah > 0, probabilitas sebelumnya diambil dari tabel sequenceProbability
-            if (stepNumber - 1 < 0 || stepNumber - 1 >= sequenceProbability.length ||
-                    prevState < 0 || prevState >= sequenceProbability[stepNumber - 1].length) {
-                // Ini seharusnya tidak terjadi jika langkah-langkah DP dihitung dengan benar
-                throw new IndexOutOfBoundsException("Invalid index access in sequenceProbability at step " + stepNumber);
+    public static boolean vectorKernelsEnabled() {
+        return !(DENSE_OPS instanceof ScalarDenseOps);
+    }
+
+    /**
+     * Fungsi bantu untuk mengambil indeks simbol dari hmm.data sekaligus memvalidasinya,
+     * sehingga loop DP tidak perlu mengecek batas indeks di setiap langkah.
+     *
+     * @param target Array tujuan dengan panjang minimal jumlah langkah hmm.data.
+     * @return Jumlah langkah yang ditulis ke target.
+     */
+    static int fillSymbolIndices(ExperimentData data, int alphabetSize, int[] target) {
+        int maxtime = data.size();
+        data.copySymbols(target); // Salinan massal dari kolom simbol
+
+        for (int t = 0; t < maxtime; ++t) {
+            int symbol = target[t];
+            if (symbol < 0 || symbol >= alphabetSize) {
+                throw new IndexOutOfBoundsException("Invalid symbol index " + symbol + " accessing stateSymbolProb at step " + t);
             }
-            prevProbability = sequenceProbability[stepNumber - 1][prevState];
         }
 
-        // Pastikan indeks state dan simbol valid sebelum akses array probabilitas
-        if (prevState < 0 || prevState >= model.transitionProb.length ||
-                curState < 0 || curState >= model.transitionProb[0].length) {
-            throw new IndexOutOfBoundsException("Invalid state index accessing transitionProb [" + prevState + "][" + curState + "]");
+        return maxtime;
+    }
+
+    static int[] symbolIndices(CompiledModel compiled, ExperimentData data) {
+        return symbolIndices(compiled, data, new int[data.size()]);
+    }
+
+    // Seperti symbolIndices(compiled, data), tetapi menulis ke target (panjang minimal data.size())
+    static int[] symbolIndices(CompiledModel compiled, ExperimentData data, int[] target) {
+        if (compiled.isContinuous()) {
+            throw new IllegalArgumentException("Model has continuous emissions; decode ContinuousData instead.");
         }
-        if (curState < 0 || curState >= model.stateSymbolProb.length ||
-                curSymbol < 0 || curSymbol >= model.stateSymbolProb[0].length) {
-            throw new IndexOutOfBoundsException("Invalid state/symbol index accessing stateSymbolProb [" + curState + "][" + curSymbol + "]");
+        fillSymbolIndices(data, compiled.alphabetSize, target);
+        return target;
+    }
+
+    static void checkPathLength(int[] path, int maxtime) {
+        if (path.length < maxtime) {
+            throw new IllegalArgumentException("Path of length " + path.length + " cannot hold " + maxtime + " steps");
         }
+    }
 
+    /**
+     * Satu langkah Viterbi (ruang log) yang hanya menelusuri in-edge non-nol setiap state.
+     * Untuk langkah 0, state sebelumnya selalu state 'begin' (indeks 0).
+     * Jika emisi dikompilasi sebagai kolom jarang, hanya state yang mengemisikan curSymbol yang
+     * dihitung; state lain mendapat -Infinity dan backpointer undefined.
+     *
+     * @param backPointers Tabel backpointer; baris langkah ini dimulai di backOffset.
+     */
+    static void viterbiStep(CompiledModel compiled, int curSymbol,
+                            double[] prevLogProbability, double[] curLogProbability,
+                            int[] backPointers, int backOffset, boolean firstStep) {
+        TransitionGraph graph = compiled.graph;
+        int nstates = graph.nstates;
+
+        if (!compiled.hasDenseEmission()) {
+            Arrays.fill(curLogProbability, 0, nstates, Double.NEGATIVE_INFINITY);
+            Arrays.fill(backPointers, backOffset, backOffset + nstates, HMM_UNDEFINED_STATE);
+            int[] columnState = compiled.columnState;
+            double[] columnLogProb = compiled.columnLogProb;
+            for (int entry = compiled.columnStart[curSymbol], end = compiled.columnStart[curSymbol + 1]; entry < end; ++entry) {
+                int curState = columnState[entry];
+                curLogProbability[curState] = bestIncomingLogProb(graph, curState, prevLogProbability,
+                        backPointers, backOffset + curState, firstStep) + columnLogProb[entry];
+            }
+            return;
+        }
 
-        return (prevProbability *
-                model.transitionProb[prevState][curState] *
-                model.stateSymbolProb[curState][curSymbol]);
+        viterbiStep(graph, compiled.logEmission, compiled.emissionOffset(curSymbol),
+                prevLogProbability, curLogProbability, backPointers, backOffset, firstStep);
     }
 
     /**
-     * Fungsi bantu untuk menemukan state sebelumnya terbaik selama langkah Viterbi.
+     * Satu langkah Viterbi dengan kolom log emisi padat yang diberikan langsung
+     * (logColumn[columnOffset + j] untuk state j), dipakai untuk tabel symbol-major
+     * maupun untuk log densitas emisi kontinu yang dihitung per langkah.
      */
-    private static int findBestTransitionSource(int stepNumber, int curState,
-                                                int curSymbol, Model model,
-                                                double[][] sequenceProbability) {
-        if (stepNumber == 0) {
-            return 0; // State sebelumnya untuk langkah 0 selalu state 'begin' (indeks 0)
+    static void viterbiStep(TransitionGraph graph, double[] logColumn, int columnOffset,
+                            double[] prevLogProbability, double[] curLogProbability,
+                            int[] backPointers, int backOffset, boolean firstStep) {
+        int nstates = graph.nstates;
+        for (int curState = 0; curState < nstates; ++curState) {
+            // Jika backpointer UNDEFINED, artinya tidak ada path ke sini (log probabilitas -Infinity).
+            curLogProbability[curState] = bestIncomingLogProb(graph, curState, prevLogProbability,
+                    backPointers, backOffset + curState, firstStep) + logColumn[columnOffset + curState];
         }
+    }
 
-        int nstates = model.transitionProb.length;
-        double bestProbValue = -1.0;
-        int bestPrevState = HMM_UNDEFINED_STATE;
+    // Log probabilitas terbaik untuk tiba di curState (tanpa emisi); state asalnya disimpan ke backPointers[backIndex]
+    private static double bestIncomingLogProb(TransitionGraph graph, int curState, double[] prevLogProbability,
+                                              int[] backPointers, int backIndex, boolean firstStep) {
+        int nstates = graph.nstates;
+        if (graph.isDense() && !firstStep) {
+            // Versi padat: max-plus atas baris matriks log transisi ter-transpose
+            double[] denseInLogProb = graph.denseInLogProb;
+            int rowOffset = curState * nstates;
+            int bestPrevState = DENSE_OPS.argmaxSum(denseInLogProb, rowOffset, prevLogProbability, nstates);
+            backPointers[backIndex] = bestPrevState;
+            return bestPrevState == HMM_UNDEFINED_STATE
+                    ? Double.NEGATIVE_INFINITY
+                    : prevLogProbability[bestPrevState] + denseInLogProb[rowOffset + bestPrevState];
+        }
 
-        for (int prevState = 0; prevState < nstates; ++prevState) {
-            double curProb = calcNewStateProbability(stepNumber, prevState,
-                    curState, curSymbol,
-                    model, sequenceProbability);
+        // bagian: cari state sebelumnya terbaik di antara predecessor
+        int[] inSource = graph.inSource;
+        double[] inLogProb = graph.inLogProb;
+        double bestLogProb = Double.NEGATIVE_INFINITY;
+        int bestPrevState = HMM_UNDEFINED_STATE;
+        for (int edge = graph.inStart[curState], end = graph.inStart[curState + 1]; edge < end; ++edge) {
+            int prevState = inSource[edge];
+            double prevLogProb = firstStep
+                    ? (prevState == 0 ? 0.0 : Double.NEGATIVE_INFINITY)
+                    : prevLogProbability[prevState];
+            double curLogProb = prevLogProb + inLogProb[edge];
 
-            if (curProb > bestProbValue) {
-                bestProbValue = curProb;
+            if (curLogProb > bestLogProb) {
+                bestLogProb = curLogProb;
                 bestPrevState = prevState;
             }
         }
-
-        // C++ comment says result won't be undefined if nstates >= 2.
-        // Jika bestProbValue tetap -1.0, artinya tidak ada path yang mungkin ke state curState dari
-        // state manapun di langkah sebelumnya dengan probabilitas > 0.
-        // Kita bisa melemparkan exception atau mengembalukan UNDEFINED.
-        // Mengikuti C++, asumsikan ini tidak akan terjadi pada hmm.data yang valid.
-        // Namun, menambahkan check atau mengembalikan UNDEFINED_STATE dan menanganinya di luar lebih aman.
-        // Mengembalikan bestPrevState saja (yang mungkin -1 jika tidak ada path)
-        return bestPrevState;
+        backPointers[backIndex] = bestPrevState; // Simpan state sebelumnya
+        return bestLogProb;
     }
 
     /**
-     * Fungsi bantu untuk mendapatkan probabilitas kumulatif langkah forward.
+     * Satu langkah forward (belum dinormalisasi) yang hanya menelusuri in-edge non-nol.
+     * Dengan kolom emisi jarang, hanya state yang mengemisikan curSymbol yang dihitung.
+     *
+     * @return Jumlah nilai pada baris baru, yaitu koefisien skala langkah ini.
      */
-    private static double calcForwardStepProbability(int stepNumber, int curState,
-                                                     Model model, ExperimentData data,
-                                                     double[][] forwardStateProbability) {
-        int nstates = model.transitionProb.length;
-        int curSymbol = data.timeStateSymbol.get(stepNumber).symbolIndex; // Mengakses TimeStateSymbolTuple
+    static double forwardStep(CompiledModel compiled, int curSymbol,
+                              double[] prevRow, double[] curRow, boolean firstStep) {
+        TransitionGraph graph = compiled.graph;
+        int nstates = graph.nstates;
+        double stepSum = 0.0;
 
-        // Pastikan indeks state dan simbol valid
-        if (curState < 0 || curState >= model.stateSymbolProb.length ||
-                curSymbol < 0 || curSymbol >= model.stateSymbolProb[0].length) {
-            throw new IndexOutOfBoundsException("Invalid state/symbol index access in stateSymbolProb [" + curState + "][" + curSymbol + "]");
+        if (!compiled.hasDenseEmission()) {
+            Arrays.fill(curRow, 0, nstates, 0.0);
+            int[] columnState = compiled.columnState;
+            double[] columnProb = compiled.columnProb;
+            for (int entry = compiled.columnStart[curSymbol], end = compiled.columnStart[curSymbol + 1]; entry < end; ++entry) {
+                int curState = columnState[entry];
+                double value = incomingProb(graph, curState, prevRow, firstStep) * columnProb[entry];
+                curRow[curState] = value;
+                stepSum += value;
+            }
+            return stepSum;
         }
 
+        return forwardStep(graph, compiled.emission, compiled.emissionOffset(curSymbol), prevRow, curRow, firstStep);
+    }
 
-        if (stepNumber == 0) {
-            // Probabilitas untuk langkah 0 adalah prob transisi dari state 'begin' (0)
-            // dikalikan prob emisi simbol saat ini dari curState.
-            if (0 < 0 || 0 >= model.transitionProb.length ||
-                    curState < 0 || curState >= model.transitionProb[0].length) {
-                throw new IndexOutOfBoundsException("Invalid state index access in transitionProb at step 0");
-            }
-            return model.transitionProb[0][curState] * model.stateSymbolProb[curState][curSymbol];
-        } else {
-            double prevCumulativeProb = 0.0;
-
-            for (int prevState = 0; prevState < nstates; ++prevState) {
-                // Pastikan indeks valid saat mengakses tabel probabilitas forward dan transisi
-                if (stepNumber - 1 < 0 || stepNumber - 1 >= forwardStateProbability.length ||
-                        prevState < 0 || prevState >= forwardStateProbability[stepNumber - 1].length) {
-                    throw new IndexOutOfBoundsException("Invalid index access in forwardStateProbability at step " + (stepNumber - 1));
-                }
-                if (prevState < 0 || prevState >= model.transitionProb.length ||
-                        curState < 0 || curState >= model.transitionProb[0].length) {
-                    throw new IndexOutOfBoundsException("Invalid state index access in transitionProb [" + prevState + "][" + curState + "]");
+    /**
+     * Satu langkah forward dengan kolom emisi padat yang diberikan langsung
+     * (column[columnOffset + j] untuk state j).
+     *
+     * @return Jumlah nilai pada baris baru, yaitu koefisien skala langkah ini.
+     */
+    static double forwardStep(TransitionGraph graph, double[] column, int columnOffset,
+                              double[] prevRow, double[] curRow, boolean firstStep) {
+        int nstates = graph.nstates;
+        double stepSum = 0.0;
+        for (int curState = 0; curState < nstates; ++curState) {
+            double value = incomingProb(graph, curState, prevRow, firstStep) * column[columnOffset + curState];
+            curRow[curState] = value;
+            stepSum += value;
+        }
+
+        return stepSum;
+    }
+
+    // Jumlah probabilitas untuk tiba di curState dari baris sebelumnya (tanpa emisi)
+    private static double incomingProb(TransitionGraph graph, int curState, double[] prevRow, boolean firstStep) {
+        if (graph.isDense() && !firstStep) {
+            return DENSE_OPS.dot(graph.denseInProb, curState * graph.nstates, prevRow, graph.nstates);
+        }
+
+        int[] inSource = graph.inSource;
+        double[] inProb = graph.inProb;
+        double prevCumulativeProb = 0.0;
+        for (int edge = graph.inStart[curState], end = graph.inStart[curState + 1]; edge < end; ++edge) {
+            int prevState = inSource[edge];
+            if (firstStep) {
+                // Langkah 0 selalu berasal dari state 'begin' (indeks 0)
+                if (prevState == 0) {
+                    prevCumulativeProb += inProb[edge];
                 }
+            } else {
+                prevCumulativeProb += prevRow[prevState] * inProb[edge];
+            }
+        }
+        return prevCumulativeProb;
+    }
 
-                prevCumulativeProb += (forwardStateProbability[stepNumber - 1][prevState] *
-                        model.transitionProb[prevState][curState]);
+    /**
+     * Mengalikan row[j] dengan emisi(j, symbol) / divisor untuk setiap state j
+     * (0 untuk state yang tidak mengemisikan symbol).
+     */
+    static void scaleByEmission(CompiledModel compiled, int symbol, double[] row, double divisor) {
+        int nstates = compiled.nstates;
+        if (compiled.hasDenseEmission()) {
+            scaleByColumn(compiled.emission, compiled.emissionOffset(symbol), row, divisor, nstates);
+            return;
+        }
+
+        int[] columnState = compiled.columnState;
+        double[] columnProb = compiled.columnProb;
+        int state = 0;
+        for (int entry = compiled.columnStart[symbol], end = compiled.columnStart[symbol + 1]; entry < end; ++entry) {
+            int emitting = columnState[entry];
+            while (state < emitting) {
+                row[state++] = 0.0;
             }
+            row[state++] *= columnProb[entry] / divisor;
+        }
+        while (state < nstates) {
+            row[state++] = 0.0;
+        }
+    }
 
-            return prevCumulativeProb * model.stateSymbolProb[curState][curSymbol];
+    /**
+     * Mengalikan row[j] dengan column[columnOffset + j] / divisor untuk setiap state j.
+     */
+    static void scaleByColumn(double[] column, int columnOffset, double[] row, double divisor, int nstates) {
+        for (int state = 0; state < nstates; ++state) {
+            row[state] *= column[columnOffset + state] / divisor;
         }
     }
 
     /**
-     * Fungsi bantu untuk mendapatkan probabilitas kumulatif langkah backward.
+     * Satu langkah backward (belum dinormalisasi) yang hanya menelusuri out-edge non-nol.
+     * nextRow berisi beta langkah berikutnya dan akan dikalikan dengan emisi simbol berikutnya.
+     *
+     * @return Jumlah nilai pada baris baru.
      */
-    private static double calcBackwardStepProbability(int stepNumber, int curState,
-                                                      Model model, ExperimentData data,
-                                                      double[][] backwardStateProbability) {
-        int nstates = model.transitionProb.length;
-        int maxtime = data.timeStateSymbol.size();
-
-        if (stepNumber + 1 == maxtime) {
-            return 1.0; // Probabilitas untuk menjelaskan urutan kosong (setelah langkah terakhir) adalah 1.
-        } else {
-            // Simbol yang diemisikan di *langkah berikutnya* (stepNumber + 1)
-            int nextSymbol = data.timeStateSymbol.get(stepNumber + 1).symbolIndex; // Mengakses TimeStateSymbolTuple
+    static double backwardStep(CompiledModel compiled, int nextSymbol,
+                               double[] nextRow, double[] curRow) {
+        // Gabungkan emisi langkah berikutnya dengan beta berikutnya sekali per langkah
+        scaleByEmission(compiled, nextSymbol, nextRow, 1.0);
+        return propagateBackward(compiled.graph, nextRow, curRow);
+    }
+
+    /**
+     * Bagian transisi langkah backward: curRow[i] = jumlah a(i, j) * nextRow[j] atas out-edge non-nol.
+     * nextRow harus sudah dikalikan dengan emisi langkah berikutnya.
+     *
+     * @return Jumlah nilai pada baris baru.
+     */
+    static double propagateBackward(TransitionGraph graph, double[] nextRow, double[] curRow) {
+        int nstates = graph.nstates;
+        int[] outStart = graph.outStart;
+        int[] outTarget = graph.outTarget;
+        double[] outProb = graph.outProb;
+
+        double rowSum = 0.0;
+        double[] denseOutProb = graph.denseOutProb;
+        for (int state = 0; state < nstates; ++state) {
+            if (denseOutProb != null) {
+                double value = DENSE_OPS.dot(denseOutProb, state * nstates, nextRow, nstates);
+                curRow[state] = value;
+                rowSum += value;
+                continue;
+            }
+
             double nextCumulativeProb = 0.0;
+            for (int edge = outStart[state], end = outStart[state + 1]; edge < end; ++edge) {
+                nextCumulativeProb += outProb[edge] * nextRow[outTarget[edge]];
+            }
+            curRow[state] = nextCumulativeProb;
+            rowSum += nextCumulativeProb;
+        }
 
-            for (int nextState = 0; nextState < nstates; ++nextState) {
-                // Pastikan indeks valid saat mengakses tabel probabilitas transisi, emisi, dan backward
-                if (curState < 0 || curState >= model.transitionProb.length ||
-                        nextState < 0 || nextState >= model.transitionProb[0].length) {
-                    throw new IndexOutOfBoundsException("Invalid state index access in transitionProb [" + curState + "][" + nextState + "]");
-                }
-                if (nextState < 0 || nextState >= model.stateSymbolProb.length ||
-                        nextSymbol < 0 || nextSymbol >= model.stateSymbolProb[0].length) {
-                    throw new IndexOutOfBoundsException("Invalid state/symbol index access in stateSymbolProb [" + nextState + "][" + nextSymbol + "]");
-                }
-                if (stepNumber + 1 < 0 || stepNumber + 1 >= backwardStateProbability.length ||
-                        nextState < 0 || nextState >= backwardStateProbability[stepNumber + 1].length) {
-                    throw new IndexOutOfBoundsException("Invalid index access in backwardStateProbability at step " + (stepNumber + 1));
+        return rowSum;
+    }
+
+    /**
+     * Kernel Viterbi dalam ruang logaritma di atas buffer milik workspace.
+     *
+     * @param compiled Model terkompilasi (transisi CSR dan tabel log emisi per simbol).
+     * @param symbols Indeks simbol yang sudah divalidasi.
+     * @param maxtime Jumlah langkah yang dipakai dari symbols.
+     * @param workspace Buffer kerja yang dipakai ulang.
+     * @param path Array tujuan (panjang minimal maxtime) untuk urutan state paling mungkin.
+     * @return Log probabilitas urutan terbaik, atau -Infinity jika observasi mustahil
+     *         menurut model (path tidak diisi dalam kasus ini).
+     */
+    static double viterbiKernel(CompiledModel compiled,
+                                int[] symbols, int maxtime, DecoderWorkspace workspace, int[] path) {
+        int nstates = compiled.nstates;
+        if (maxtime == 0) {
+            return 0.0;
+        }
+
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        workspace.ensureStates(nstates);
+        // Hanya dua baris probabilitas yang dibutuhkan: langkah sebelumnya dan langkah saat ini.
+        // prevLogProbability[j] adalah log probabilitas urutan state paling mungkin
+        // untuk observasi 0..t-1 yang state terakhirnya adalah state dengan indeks j.
+        double[] prevLogProbability = workspace.prevRow;
+        double[] curLogProbability = workspace.curRow;
+
+        // prevSeqState[t * nstates + j] adalah state sebelumnya yang mengarah ke
+        // state j di langkah t dalam urutan paling mungkin.
+        int[] prevSeqState = workspace.ensureBackPointers(maxtime, nstates); // -1 untuk undefined
+
+        // bagian: hitung log probabilitas untuk algoritma Viterbi (DP)
+        for (int t = 0; t < maxtime; ++t) {
+            viterbiStep(compiled, symbols[t], prevLogProbability, curLogProbability,
+                    prevSeqState, t * nstates, t == 0);
+
+            double[] tmp = prevLogProbability;
+            prevLogProbability = curLogProbability;
+            curLogProbability = tmp;
+        }
+
+        return recordDecode(Metrics.Stage.VITERBI, startNanos, startBytes, maxtime,
+                backtrack(prevLogProbability, prevSeqState, nstates, maxtime, path));
+    }
+
+    /**
+     * Memilih state terakhir dengan log probabilitas tertinggi lalu menelusuri backpointer
+     * sampai langkah 0.
+     *
+     * @param lastLogProbability Log probabilitas setiap state di langkah terakhir.
+     * @param prevSeqState Tabel backpointer row-major (element[t * nstates + j]).
+     * @return Log probabilitas urutan terbaik, atau -Infinity jika tidak ada (path tidak diisi).
+     */
+    static double backtrack(double[] lastLogProbability, int[] prevSeqState, int nstates, int maxtime, int[] path) {
+        // bagian: temukan state terakhir dari urutan paling mungkin
+        // (state dengan log probabilitas tertinggi di langkah terakhir)
+        int curState = HMM_UNDEFINED_STATE;
+        double maxLogProb = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < nstates; ++i) {
+            if (lastLogProbability[i] > maxLogProb) {
+                maxLogProb = lastLogProbability[i];
+                curState = i;
+            }
+        }
+
+        if (curState == HMM_UNDEFINED_STATE) {
+            // Dalam ruang log ini hanya terjadi jika observasi benar-benar mustahil menurut model.
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        // bagian: backtrack dari langkah terakhir (maxtime-1) sampai langkah 0.
+        // Karena log probabilitas akhir berhingga, setiap backpointer di jalur ini terdefinisi.
+        for (int curStep = maxtime - 1; curStep > 0; --curStep) {
+            path[curStep] = curState;
+            curState = prevSeqState[curStep * nstates + curState];
+        }
+        path[0] = curState;
+
+        return maxLogProb;
+    }
+
+    // Mencatat satu panggilan kernel; hasil -Infinity juga dihitung sebagai event probabilitas nol
+    private static double recordDecode(Metrics.Stage stage, long startNanos, long startBytes, int steps, double logProb) {
+        if (logProb == Double.NEGATIVE_INFINITY) {
+            Metrics.event(Metrics.Event.ZERO_PROBABILITY);
+        }
+        Metrics.record(stage, startNanos, startBytes, steps);
+        return logProb;
+    }
+
+    /**
+     * Kernel forward-backward ter-skala yang hanya menghasilkan state posterior paling mungkin
+     * per langkah. Tabel alpha disimpan di workspace, sedangkan beta cukup satu baris bergulir.
+     *
+     * @param compiled Model terkompilasi (transisi CSR dan tabel emisi per simbol).
+     * @param symbols Indeks simbol yang sudah divalidasi.
+     * @param maxtime Jumlah langkah yang dipakai dari symbols.
+     * @param workspace Buffer kerja yang dipakai ulang.
+     * @param path Array tujuan (panjang minimal maxtime) untuk state posterior paling mungkin.
+     * @return Log-likelihood urutan, atau -Infinity jika observasi mustahil menurut model
+     *         (path tidak diisi dalam kasus ini).
+     */
+    static double posteriorArgmaxKernel(CompiledModel compiled,
+                                        int[] symbols, int maxtime, DecoderWorkspace workspace, int[] path) {
+        int nstates = compiled.nstates;
+        if (maxtime == 0) {
+            return 0.0;
+        }
+
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        workspace.ensureStates(nstates);
+        double[] alpha = workspace.ensureTable(maxtime, nstates);
+        double[] prevRow = workspace.prevRow;
+        double[] curRow = workspace.curRow;
+        double logLikelihood = 0.0;
+
+        // bagian: hitung probabilitas forward ter-skala
+        for (int t = 0; t < maxtime; ++t) {
+            double stepSum = forwardStep(compiled, symbols[t], prevRow, curRow, t == 0);
+            if (stepSum < Double.MIN_NORMAL) {
+                if (stepSum <= 0.0) {
+                    return recordDecode(Metrics.Stage.FORWARD, startNanos, startBytes, t + 1, Double.NEGATIVE_INFINITY);
                 }
+                Metrics.event(Metrics.Event.UNDERFLOW);
+            }
+
+            logLikelihood += Math.log(stepSum);
+            int rowOffset = t * nstates;
+            for (int curState = 0; curState < nstates; ++curState) {
+                double value = curRow[curState] / stepSum;
+                curRow[curState] = value;
+                alpha[rowOffset + curState] = value;
+            }
+
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
+        }
+
+        Metrics.record(Metrics.Stage.FORWARD, startNanos, startBytes, maxtime);
+        startNanos = Metrics.startNanos();
+        startBytes = Metrics.startBytes();
 
+        // bagian: sapuan backward dengan satu baris beta bergulir.
+        // Beta dinormalisasi per langkah; argmax alpha * beta tidak berubah oleh skala per baris.
+        double[] nextBeta = prevRow;
+        double[] curBeta = curRow;
+        Arrays.fill(nextBeta, 0, nstates, 1.0);
+        path[maxtime - 1] = argmaxProduct(alpha, (maxtime - 1) * nstates, nextBeta, nstates);
 
-                nextCumulativeProb += (model.transitionProb[curState][nextState] *
-                        model.stateSymbolProb[nextState][nextSymbol] *
-                        backwardStateProbability[stepNumber + 1][nextState]);
+        for (int t = maxtime - 2; t >= 0; --t) {
+            double rowSum = backwardStep(compiled, symbols[t + 1], nextBeta, curBeta);
+            for (int state = 0; state < nstates; ++state) {
+                curBeta[state] /= rowSum;
             }
 
-            return nextCumulativeProb;
+            path[t] = argmaxProduct(alpha, t * nstates, curBeta, nstates);
+
+            double[] tmp = nextBeta;
+            nextBeta = curBeta;
+            curBeta = tmp;
         }
+
+        Metrics.record(Metrics.Stage.POSTERIOR_ARGMAX, startNanos, startBytes, maxtime);
+        return logLikelihood;
     }
 
+    /**
+     * Mengisi workspace.emissionRow dengan densitas emisi kontinu langkah t yang digeser,
+     * exp(log b_j(o_t) - shift) dengan shift = maks_j log b_j(o_t). Nilai terbesar menjadi 1,
+     * sehingga densitas yang sangat kecil atau sangat besar (dimensi tinggi) tidak underflow
+     * maupun overflow; shift ditambahkan kembali ke log-likelihood oleh pemanggil.
+     * Workspace harus sudah disiapkan dengan ensureEmissions.
+     *
+     * @return shift langkah ini, atau -Infinity jika tidak ada state yang dapat mengemisikan o_t.
+     */
+    static double shiftedDensities(EmissionModel emissions, double[] observations, int t, DecoderWorkspace workspace) {
+        int nstates = emissions.nstates();
+        double[] row = workspace.emissionRow;
+        emissions.logDensities(observations, t * emissions.dimension(), row, workspace.emissionScratch);
+
+        double shift = Double.NEGATIVE_INFINITY;
+        for (int state = 0; state < nstates; ++state) {
+            shift = Math.max(shift, row[state]);
+        }
+        if (shift == Double.NEGATIVE_INFINITY) {
+            return shift;
+        }
+        for (int state = 0; state < nstates; ++state) {
+            row[state] = Math.exp(row[state] - shift);
+        }
+        return shift;
+    }
+
+    /**
+     * Kernel Viterbi ruang log untuk emisi kontinu. Log densitas semua state dihitung sekali per
+     * langkah ke workspace.emissionRow, lalu dipakai sebagai kolom log emisi padat.
+     *
+     * @param compiled Model terkompilasi dengan continuousEmissions.
+     * @param observations Observasi row-major (element[t * dimension + k]).
+     * @param maxtime Jumlah langkah yang dipakai dari observations.
+     * @param workspace Buffer kerja yang dipakai ulang.
+     * @param path Array tujuan (panjang minimal maxtime) untuk urutan state paling mungkin.
+     * @return Log probabilitas (densitas) urutan terbaik, atau -Infinity jika tidak ada
+     *         (path tidak diisi dalam kasus ini).
+     */
+    static double continuousViterbiKernel(CompiledModel compiled,
+                                          double[] observations, int maxtime, DecoderWorkspace workspace, int[] path) {
+        int nstates = compiled.nstates;
+        if (maxtime == 0) {
+            return 0.0;
+        }
+
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        EmissionModel emissions = compiled.continuousEmissions;
+        int dimension = emissions.dimension();
+        workspace.ensureStates(nstates);
+        workspace.ensureEmissions(nstates, emissions.scratchLength());
+        double[] prevLogProbability = workspace.prevRow;
+        double[] curLogProbability = workspace.curRow;
+        double[] logDensities = workspace.emissionRow;
+        double[] scratch = workspace.emissionScratch;
+        int[] prevSeqState = workspace.ensureBackPointers(maxtime, nstates);
+
+        for (int t = 0; t < maxtime; ++t) {
+            emissions.logDensities(observations, t * dimension, logDensities, scratch);
+            viterbiStep(compiled.graph, logDensities, 0, prevLogProbability, curLogProbability,
+                    prevSeqState, t * nstates, t == 0);
+
+            double[] tmp = prevLogProbability;
+            prevLogProbability = curLogProbability;
+            curLogProbability = tmp;
+        }
+
+        return recordDecode(Metrics.Stage.VITERBI, startNanos, startBytes, maxtime,
+                backtrack(prevLogProbability, prevSeqState, nstates, maxtime, path));
+    }
+
+    // Model emisi kontinu dari model terkompilasi, divalidasi terhadap dimensi data
+    private static EmissionModel continuousEmissionsOf(CompiledModel compiled, ContinuousData data) {
+        EmissionModel emissions = compiled.continuousEmissions;
+        if (emissions == null) {
+            throw new IllegalArgumentException("Model does not have continuous emissions.");
+        }
+        if (data.size() > 0 && data.dimension() != emissions.dimension()) {
+            throw new IllegalArgumentException("Observation dimension " + data.dimension() + " does not match the model's dimension " + emissions.dimension() + ".");
+        }
+        return emissions;
+    }
+
+    private static List<Integer> pathToList(int[] path, int maxtime) {
+        List<Integer> mostProbableSeq = new ArrayList<>(maxtime);
+        for (int t = 0; t < maxtime; ++t) {
+            mostProbableSeq.add(path[t]);
+        }
+        return mostProbableSeq;
+    }
+
+    // Indeks pertama dengan alpha * beta terbesar, sama seperti PosteriorMatrix.argmax
+    private static int argmaxProduct(double[] alpha, int alphaOffset, double[] beta, int nstates) {
+        int bestState = 0;
+        double bestProduct = -1.0;
+        for (int state = 0; state < nstates; ++state) {
+            double product = alpha[alphaOffset + state] * beta[state];
+            if (product > bestProduct) {
+                bestProduct = product;
+                bestState = state;
+            }
+        }
+        return bestState;
+    }
 
     /**
      * Menemukan urutan state tersembunyi yang paling mungkin.
-     * Implementasi berdasarkan algoritma Viterbi (Dynamic Programming).
+     * Implementasi berdasarkan algoritma Viterbi (Dynamic Programming) dalam ruang logaritma,
+     * sehingga urutan yang sangat panjang tidak mengalami underflow.
      *
      * @param model Model HMM.
      * @param data Data observasi/eksperimen.
      * @return List indeks state tersembunyi yang diprediksi.
      */
     public static List<Integer> findMostProbableStateSequence(Model model, ExperimentData data) {
-        int nstates = model.transitionProb.length;
-        int maxtime = data.timeStateSymbol.size();
+        return findMostProbableStateSequence(CompiledModel.compile(model), data);
+    }
+
+    /**
+     * Sama seperti findMostProbableStateSequence(model, data), tetapi memakai transisi yang sudah
+     * dikompilasi. Setiap langkah hanya menelusuri transisi non-nol, sehingga biayanya
+     * O(jumlah transisi) per langkah, bukan O(nstates^2).
+     *
+     * @param model Model HMM.
+     * @param graph Hasil TransitionGraph.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @return List indeks state tersembunyi yang diprediksi.
+     */
+    public static List<Integer> findMostProbableStateSequence(Model model, TransitionGraph graph, ExperimentData data) {
+        return findMostProbableStateSequence(new CompiledModel(model, graph), data);
+    }
+
+    /**
+     * Sama seperti findMostProbableStateSequence(model, data), tetapi memakai model yang sudah
+     * dikompilasi. Satu CompiledModel dapat dipakai ulang untuk banyak urutan sehingga tabel
+     * transisi dan log emisi tidak dibangun ulang setiap pemanggilan.
+     *
+     * @param compiled Hasil CompiledModel.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @return List indeks state tersembunyi yang diprediksi.
+     */
+    public static List<Integer> findMostProbableStateSequence(CompiledModel compiled, ExperimentData data) {
+        int maxtime = data.size();
 
         if (maxtime == 0) {
             return new ArrayList<>(); // Data kosong
         }
 
+        int[] symbols = symbolIndices(compiled, data);
+        int[] path = new int[maxtime];
+        double bestLogProb = viterbiKernel(compiled, symbols, maxtime, new DecoderWorkspace(), path);
 
-        // sequenceProbability[i][j] adalah probabilitas urutan state paling mungkin
-        // untuk observasi 1..i yang state terakhirnya adalah state dengan indeks j.
-        double[][] sequenceProbability = new double[maxtime][nstates];
+        if (bestLogProb == Double.NEGATIVE_INFINITY) {
+            System.err.println("Warning: Could not find a probable last state in Viterbi algorithm. The observation sequence has zero probability under the model.");
+            return new ArrayList<>();
+        }
 
-        // prevSeqState[i][j] adalah state sebelumnya yang mengarah ke
-        // state j di langkah i dalam urutan paling mungkin.
-        int[][] prevSeqState = new int[maxtime][nstates]; // Menggunakan int, -1 untuk undefined
+        return pathToList(path, maxtime);
+    }
 
-        // bagian: hitung probabilitas untuk algoritma Viterbi (DP)
-        for (int t = 0; t < maxtime; ++t) {
-            int curSymbol = data.timeStateSymbol.get(t).symbolIndex; // Mengakses TimeStateSymbolTuple
-            for (int curState = 0; curState < nstates; ++curState) {
-                int bestPrevState = findBestTransitionSource(t, curState, curSymbol, model, sequenceProbability);
-                // Jika bestPrevState adalah UNDEFINED, artinya tidak ada path ke sini.
-                // Probabilitas harusnya 0 dalam kasus ini.
-                double bestProbValue = 0.0;
-                if (bestPrevState != HMM_UNDEFINED_STATE) {
-                    bestProbValue = calcNewStateProbability(t, bestPrevState, curState, curSymbol, model, sequenceProbability);
-                }
+    /**
+     * Versi tanpa alokasi dari findMostProbableStateSequence(compiled, data) untuk jalur yang
+     * mendekode banyak urutan: tabel DP dan indeks simbol berada di workspace, dan urutan state
+     * ditulis ke path milik pemanggil. Setelah workspace cukup besar untuk urutan terpanjang,
+     * pemanggilan berikutnya tidak mengalokasikan objek apa pun.
+     *
+     * @param compiled Hasil CompiledModel.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @param workspace Buffer kerja yang dipakai ulang (satu per thread).
+     * @param path Array tujuan dengan panjang minimal data.size().
+     * @return Log probabilitas urutan terbaik, atau -Infinity jika observasi mustahil menurut model
+     *         (path tidak diisi dalam kasus ini).
+     * @throws IllegalArgumentException Jika path terlalu pendek.
+     */
+    public static double findMostProbableStateSequence(CompiledModel compiled, ExperimentData data,
+                                                       DecoderWorkspace workspace, int[] path) {
+        int maxtime = data.size();
+        checkPathLength(path, maxtime);
+        int[] symbols = symbolIndices(compiled, data, workspace.ensureSymbols(maxtime));
+        return viterbiKernel(compiled, symbols, maxtime, workspace, path);
+    }
 
+    /**
+     * Versi tanpa alokasi untuk observasi kontinu (lihat
+     * findMostProbableStateSequence(compiled, data, workspace, path)).
+     *
+     * @param compiled Hasil CompiledModel.compile(model) untuk model dengan emisi kontinu.
+     * @param data Data observasi kontinu.
+     * @param workspace Buffer kerja yang dipakai ulang (satu per thread).
+     * @param path Array tujuan dengan panjang minimal data.size().
+     * @return Log probabilitas urutan terbaik, atau -Infinity jika observasi mustahil menurut model.
+     * @throws IllegalArgumentException Jika path terlalu pendek, model tidak memiliki emisi kontinu,
+     *                                  atau dimensinya tidak cocok.
+     */
+    public static double findMostProbableStateSequence(CompiledModel compiled, ContinuousData data,
+                                                       DecoderWorkspace workspace, int[] path) {
+        continuousEmissionsOf(compiled, data);
+        int maxtime = data.size();
+        checkPathLength(path, maxtime);
+        return continuousViterbiKernel(compiled, data.observations(), maxtime, workspace, path);
+    }
 
-                sequenceProbability[t][curState] = bestProbValue;
-                prevSeqState[t][curState] = bestPrevState; // Simpan state sebelumnya
-            }
+    /**
+     * Menulis state posterior paling mungkin per langkah (argmax alpha * beta, sama seperti
+     * Estimation.getMostProbableStates(calcScaledForwardBackward(compiled, data))) ke path, tanpa
+     * membuat PosteriorMatrix: tabel alpha berada di workspace dan beta cukup satu baris bergulir.
+     * Setelah workspace cukup besar, pemanggilan tidak mengalokasikan objek apa pun.
+     *
+     * @param compiled Hasil CompiledModel.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @param workspace Buffer kerja yang dipakai ulang (satu per thread).
+     * @param path Array tujuan dengan panjang minimal data.size().
+     * @return Log-likelihood urutan, atau -Infinity jika observasi mustahil menurut model
+     *         (path tidak diisi dalam kasus ini).
+     * @throws IllegalArgumentException Jika path terlalu pendek.
+     */
+    public static double findPosteriorStateSequence(CompiledModel compiled, ExperimentData data,
+                                                    DecoderWorkspace workspace, int[] path) {
+        int maxtime = data.size();
+        checkPathLength(path, maxtime);
+        int[] symbols = symbolIndices(compiled, data, workspace.ensureSymbols(maxtime));
+        return posteriorArgmaxKernel(compiled, symbols, maxtime, workspace, path);
+    }
+
+    /**
+     * Menemukan k urutan state dengan log probabilitas tertinggi, terbaik dahulu.
+     * Gunakan KBestViterbiIterator secara langsung untuk mengambil path satu per satu
+     * tanpa menentukan k di muka.
+     *
+     * @param compiled Hasil CompiledModel.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @param k Jumlah path maksimum.
+     * @return Paling banyak k path; lebih sedikit jika jumlah path dengan probabilitas non-nol lebih kecil.
+     */
+    public static List<ScoredPath> findKMostProbableStateSequences(CompiledModel compiled, ExperimentData data, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of paths must not be negative");
         }
+        List<ScoredPath> paths = new ArrayList<>(Math.min(k, 1024));
+        if (k == 0) {
+            return paths;
+        }
+        KBestViterbiIterator iterator = new KBestViterbiIterator(compiled, data);
+        while (paths.size() < k && iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+        return paths;
+    }
 
-        // bagian: kumpulkan urutan paling mungkin dalam urutan terbalik
-        List<Integer> mostProbableSeq = new ArrayList<>();
-        int curStep = maxtime - 1;
+    /**
+     * Menemukan urutan state tersembunyi yang paling mungkin untuk observasi kontinu.
+     *
+     * @param model Model HMM dengan emisi kontinu (Model.continuousEmissions).
+     * @param data Data observasi kontinu.
+     * @return List indeks state tersembunyi yang diprediksi.
+     * @throws IllegalArgumentException Jika model tidak memiliki emisi kontinu atau dimensinya tidak cocok.
+     */
+    public static List<Integer> findMostProbableStateSequence(Model model, ContinuousData data) {
+        return findMostProbableStateSequence(CompiledModel.compile(model), data);
+    }
 
-        // Temukan state terakhir dari urutan paling mungkin (state dengan probabilitas tertinggi di langkah terakhir)
-        int curState = -1;
-        double maxProb = -1.0;
-        for (int i = 0; i < nstates; ++i) {
-            if (sequenceProbability[curStep][i] > maxProb) {
-                maxProb = sequenceProbability[curStep][i];
-                curState = i;
-            }
+    /**
+     * Sama seperti findMostProbableStateSequence(model, data) untuk observasi kontinu, tetapi memakai
+     * model yang sudah dikompilasi. Log densitas setiap state dievaluasi sekali per langkah.
+     *
+     * @param compiled Hasil CompiledModel.compile(model) untuk model dengan emisi kontinu.
+     * @param data Data observasi kontinu.
+     * @return List indeks state tersembunyi yang diprediksi.
+     * @throws IllegalArgumentException Jika model tidak memiliki emisi kontinu atau dimensinya tidak cocok.
+     */
+    public static List<Integer> findMostProbableStateSequence(CompiledModel compiled, ContinuousData data) {
+        continuousEmissionsOf(compiled, data);
+        int maxtime = data.size();
+
+        if (maxtime == 0) {
+            return new ArrayList<>(); // Data kosong
         }
 
-        // Jika maxtime > 0, mostProbableStateIndex harus sudah terupdate
-        if (curState == -1) {
-            // Ini bisa terjadi jika semua probabilitas di langkah terakhir adalah 0.
-            // Mengikuti C++, ini seharusnya tidak terjadi pada hmm.data/model valid.
-            // Mari tambahkan pesan peringatan dan kembalikan list kosong.
-            System.err.println("Warning: Could not find a probable last state in Viterbi algorithm. All probabilities at the last step were zero or negative.");
+        int[] path = new int[maxtime];
+        double bestLogProb = continuousViterbiKernel(compiled, data.observations(), maxtime, new DecoderWorkspace(), path);
+
+        if (bestLogProb == Double.NEGATIVE_INFINITY) {
+            System.err.println("Warning: Could not find a probable last state in Viterbi algorithm. The observation sequence has zero probability under the model.");
             return new ArrayList<>();
         }
 
+        return pathToList(path, maxtime);
+    }
 
-        // Backtrack dari langkah terakhir (maxtime-1) sampai langkah 0
-        for (; curStep >= 0; --curStep) {
-            mostProbableSeq.add(curState); // Tambahkan state saat ini (urutan terbalik)
-            if (curStep > 0) { // Jangan mencari state sebelumnya jika sudah di langkah 0
-                curState = prevSeqState[curStep][curState];
-                if (curState == HMM_UNDEFINED_STATE) {
-                    // Ini mengindikasikan masalah dalam backtracking,
-                    // mungkin karena tidak ada path yang valid ditemukan di langkah forward.
-                    System.err.println("Error during Viterbi backtracking: Encountered undefined previous state at step " + curStep);
-                    // Hentikan backtracking dan kembalikan urutan yang tidak lengkap
-                    break;
-                }
+    /**
+     * Menghitung probabilitas forward dan backward ter-skala (Rabiner) untuk setiap momen waktu.
+     * Setiap langkah forward dinormalisasi dengan koefisien skala c(t), dan langkah backward
+     * dibagi dengan koefisien yang sama, sehingga nilai tetap dalam rentang double
+     * berapapun panjang urutannya. Log-likelihood didapat dari jumlah log c(t).
+     * <p>
+     * Jika urutan observasi memiliki probabilitas 0 menurut model, hasilnya adalah posterior kosong:
+     * logLikelihood = -Infinity dan semua alpha, beta, dan koefisien skala bernilai 0 (lihat
+     * PosteriorMatrix.isImpossible). Kontrak yang sama dipakai oleh kernel posterior argmax,
+     * ParallelScanDecoder dan CheckpointedForwardBackward.
+     *
+     * @param model Model HMM.
+     * @param data Data observasi/eksperimen.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(Model model, ExperimentData data) {
+        return calcScaledForwardBackward(model, data, false);
+    }
+
+    /**
+     * Sama seperti calcScaledForwardBackward(model, data), dengan pilihan presisi penyimpanan.
+     * Perhitungan selalu dilakukan dalam double; hanya hasil yang disimpan sebagai float
+     * jika singlePrecision bernilai true.
+     *
+     * @param model Model HMM.
+     * @param data Data observasi/eksperimen.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(Model model, ExperimentData data, boolean singlePrecision) {
+        return calcScaledForwardBackward(CompiledModel.compile(model), data, singlePrecision);
+    }
+
+    /**
+     * Sama seperti calcScaledForwardBackward(model, data, singlePrecision), tetapi memakai transisi
+     * yang sudah dikompilasi sehingga setiap langkah hanya menelusuri transisi non-nol.
+     *
+     * @param model Model HMM.
+     * @param graph Hasil TransitionGraph.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(Model model, TransitionGraph graph,
+                                                            ExperimentData data, boolean singlePrecision) {
+        return calcScaledForwardBackward(new CompiledModel(model, graph), data, singlePrecision);
+    }
+
+    /**
+     * Sama seperti calcScaledForwardBackward(model, data, singlePrecision), tetapi memakai model
+     * yang sudah dikompilasi dan dapat dipakai ulang untuk banyak urutan.
+     *
+     * @param compiled Hasil CompiledModel.compile(model).
+     * @param data Data observasi/eksperimen.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(CompiledModel compiled,
+                                                            ExperimentData data, boolean singlePrecision) {
+        int nstates = compiled.nstates;
+        int maxtime = data.size();
+
+        PosteriorMatrix result = new PosteriorMatrix(maxtime, nstates, singlePrecision);
+        if (maxtime == 0) {
+            return result; // Data kosong
+        }
+
+        int[] symbols = symbolIndices(compiled, data);
+        double[] scale = result.scale;
+        double logLikelihood = 0.0;
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+
+        // Baris sebelumnya dan baris saat ini selalu dihitung dalam double,
+        // terlepas dari presisi penyimpanan matriks.
+        double[] prevRow = new double[nstates];
+        double[] curRow = new double[nstates];
+
+        // bagian: hitung probabilitas forward ter-skala
+        for (int t = 0; t < maxtime; ++t) {
+            double stepSum = forwardStep(compiled, symbols[t], prevRow, curRow, t == 0);
+            if (stepSum < Double.MIN_NORMAL && isZeroStepSum(stepSum)) {
+                return impossibleResult(maxtime, nstates, singlePrecision, startNanos, startBytes, t + 1);
             }
+
+            // Normalisasi agar jumlah alpha di langkah ini adalah 1
+            scale[t] = stepSum;
+            logLikelihood += Math.log(stepSum);
+            for (int curState = 0; curState < nstates; ++curState) {
+                curRow[curState] /= stepSum;
+            }
+            result.setAlphaRow(t, curRow);
+
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
         }
+        result.logLikelihood = logLikelihood;
+        Metrics.record(Metrics.Stage.FORWARD, startNanos, startBytes, maxtime);
+        startNanos = Metrics.startNanos();
+        startBytes = Metrics.startBytes();
 
+        // bagian: hitung probabilitas backward ter-skala
+        // beta(maxtime-1, i) = 1: probabilitas untuk menjelaskan urutan kosong setelah langkah terakhir.
+        double[] nextRow = prevRow;
+        Arrays.fill(nextRow, 1.0);
+        result.setBetaRow(maxtime - 1, nextRow);
 
-        // Urutkan list untuk mendapatkan urutan yang benar (0..maxtime-1)
-        Collections.reverse(mostProbableSeq);
+        for (int t = maxtime - 2; t >= 0; --t) {
+            // Simbol yang diemisikan di *langkah berikutnya* (t + 1), dibagi skala langkah yang sama
+            backwardStep(compiled, symbols[t + 1], nextRow, curRow);
+            double nextScale = scale[t + 1];
+            for (int state = 0; state < nstates; ++state) {
+                curRow[state] /= nextScale;
+            }
+            result.setBetaRow(t, curRow);
 
-        return mostProbableSeq;
+            double[] tmp = nextRow;
+            nextRow = curRow;
+            curRow = tmp;
+        }
+
+        Metrics.record(Metrics.Stage.BACKWARD, startNanos, startBytes, maxtime);
+        return result;
+    }
+
+    // Koefisien skala di bawah Double.MIN_NORMAL: nol (atau NaN) berarti observasi mustahil,
+    // subnormal dihitung sebagai event underflow
+    private static boolean isZeroStepSum(double stepSum) {
+        if (!(stepSum > 0.0)) {
+            return true;
+        }
+        Metrics.event(Metrics.Event.UNDERFLOW);
+        return false;
+    }
+
+    // Posterior kosong untuk urutan mustahil: baris yang sudah terisi dibuang, logLikelihood -Infinity
+    private static PosteriorMatrix impossibleResult(int maxtime, int nstates, boolean singlePrecision,
+                                                    long startNanos, long startBytes, int steps) {
+        PosteriorMatrix result = new PosteriorMatrix(maxtime, nstates, singlePrecision);
+        result.logLikelihood = recordDecode(Metrics.Stage.FORWARD, startNanos, startBytes, steps, Double.NEGATIVE_INFINITY);
+        return result;
     }
 
     /**
      * Menghitung pasangan nilai alpha dan beta untuk setiap momen waktu.
-     * Implementasi berdasarkan algoritma Forward-Backward.
+     * Implementasi berdasarkan algoritma Forward-Backward ter-skala (lihat calcScaledForwardBackward),
+     * sehingga nilai yang dikembalikan adalah alpha dan beta ter-skala. Hasil kali alpha * beta
+     * di setiap langkah sama dengan probabilitas marginal state tersebut.
+     * List yang dikembalikan adalah tampilan lazy atas PosteriorMatrix; gunakan
+     * calcScaledForwardBackward secara langsung untuk menghindari boxing.
+     * Jika urutan observasi mustahil menurut model, semua pasangan bernilai (0, 0).
      *
      * @param model Model HMM.
      * @param data Data observasi/eksperimen.
      * @return List dari List pasangan (alpha, beta) untuk setiap langkah waktu dan state.
-     *         Menggunakan SimpleEntry<Double, Double> sebagai pengganti Pair.
      */
     public static List<List<Map.Entry<Double, Double>>> calcForwardBackwardProbabilities(Model model, ExperimentData data) {
-        int nstates = model.transitionProb.length;
-        int maxtime = data.timeStateSymbol.size();
+        return calcScaledForwardBackward(model, data).asEntryList();
+    }
+
+    /**
+     * Forward-backward ter-skala untuk observasi kontinu. Densitas setiap langkah digeser dengan
+     * m(t) = maks_j log b_j(o_t) sebelum dipakai (lihat shiftedDensities), sehingga scale[t] berisi
+     * c(t) / exp(m(t)); alpha, beta, dan posterior tidak terpengaruh, dan logLikelihood tetap
+     * log p(O | model) = jumlah (log scale[t] + m(t)).
+     * Densitas dihitung ulang pada sapuan backward agar memori tetap O(nstates) di luar matriks hasil.
+     *
+     * @param model Model HMM dengan emisi kontinu.
+     * @param data Data observasi kontinu.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     *         Urutan dengan densitas 0 menghasilkan posterior kosong (logLikelihood -Infinity).
+     * @throws IllegalArgumentException Jika model tidak memiliki emisi kontinu atau dimensinya tidak cocok.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(Model model, ContinuousData data, boolean singlePrecision) {
+        return calcScaledForwardBackward(CompiledModel.compile(model), data, singlePrecision);
+    }
 
+    /**
+     * Sama seperti calcScaledForwardBackward(model, data, singlePrecision) untuk observasi kontinu,
+     * tetapi memakai model yang sudah dikompilasi.
+     *
+     * @param compiled Hasil CompiledModel.compile(model) untuk model dengan emisi kontinu.
+     * @param data Data observasi kontinu.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float.
+     * @return Matriks posterior ter-skala beserta koefisien skala dan log-likelihood.
+     *         Urutan dengan densitas 0 menghasilkan posterior kosong (logLikelihood -Infinity).
+     * @throws IllegalArgumentException Jika model tidak memiliki emisi kontinu atau dimensinya tidak cocok.
+     */
+    public static PosteriorMatrix calcScaledForwardBackward(CompiledModel compiled,
+                                                            ContinuousData data, boolean singlePrecision) {
+        EmissionModel emissions = continuousEmissionsOf(compiled, data);
+        TransitionGraph graph = compiled.graph;
+        int nstates = compiled.nstates;
+        int maxtime = data.size();
+
+        PosteriorMatrix result = new PosteriorMatrix(maxtime, nstates, singlePrecision);
         if (maxtime == 0) {
-            return new ArrayList<>(); // Data kosong
+            return result; // Data kosong
         }
 
-        // forwardStateProbability[t][i] = alpha(t, i)
-        double[][] forwardStateProbability = new double[maxtime][nstates];
+        double[] observations = data.observations();
+        double[] scale = result.scale;
+        double logLikelihood = 0.0;
+
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        DecoderWorkspace workspace = new DecoderWorkspace();
+        workspace.ensureStates(nstates);
+        workspace.ensureEmissions(nstates, emissions.scratchLength());
+        double[] prevRow = workspace.prevRow;
+        double[] curRow = workspace.curRow;
+        double[] densities = workspace.emissionRow;
 
-        // bagian: hitung probabilitas forward
+        // bagian: hitung probabilitas forward ter-skala
         for (int t = 0; t < maxtime; ++t) {
-            for (int curState = 0; curState < nstates; ++curState) {
-                double cumulativePrevProbability =
-                        calcForwardStepProbability(t, curState, model, data, forwardStateProbability);
-                forwardStateProbability[t][curState] = cumulativePrevProbability;
+            double shift = shiftedDensities(emissions, observations, t, workspace);
+            double stepSum = shift == Double.NEGATIVE_INFINITY
+                    ? 0.0
+                    : forwardStep(graph, densities, 0, prevRow, curRow, t == 0);
+            if (!(stepSum >= Double.MIN_NORMAL) && isZeroStepSum(stepSum)) {
+                return impossibleResult(maxtime, nstates, singlePrecision, startNanos, startBytes, t + 1);
             }
-        }
-
-        // backwardStateProbability[t][i] = beta(t, i)
-        double[][] backwardStateProbability = new double[maxtime][nstates];
-        // Inisialisasi backward step terakhir (maxtime - 1). beta(maxtime-1, i) = 1
-        // (kecuali untuk transisi ke state end).
-        // Sesuai C++:
-        // backwardStateProbability[maxtime - 1][i] akan dihitung oleh loop di bawah
-        // dan CalcBackwardStepProbability mengembalikan 1.0 jika stepNumber + 1 == maxtime
-
 
-        // bagian: hitung probabilitas backward
-        for (int t = maxtime - 1; t >= 0; --t) {
+            scale[t] = stepSum;
+            logLikelihood += Math.log(stepSum) + shift;
             for (int curState = 0; curState < nstates; ++curState) {
-                double cumulativeNextProbability =
-                        calcBackwardStepProbability(t, curState, model, data, backwardStateProbability);
-                backwardStateProbability[t][curState] = cumulativeNextProbability;
+                curRow[curState] /= stepSum;
             }
+            result.setAlphaRow(t, curRow);
+
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
         }
+        result.logLikelihood = logLikelihood;
+        Metrics.record(Metrics.Stage.FORWARD, startNanos, startBytes, maxtime);
+        startNanos = Metrics.startNanos();
+        startBytes = Metrics.startBytes();
 
+        // bagian: hitung probabilitas backward ter-skala dengan densitas tergeser yang sama
+        double[] nextRow = prevRow;
+        Arrays.fill(nextRow, 0, nstates, 1.0);
+        result.setBetaRow(maxtime - 1, nextRow);
 
-        // bagian: gabungkan hasil (alpha dan beta)
-        List<List<Map.Entry<Double, Double>>> forwardBackwardProbability = new ArrayList<>(maxtime);
-        for (int t = 0; t < maxtime; ++t) {
-            List<Map.Entry<Double, Double>> stepProbabilities = new ArrayList<>(nstates);
-            for (int curState = 0; curState < nstates; ++curState) {
-                stepProbabilities.add(new AbstractMap.SimpleEntry<>( // Whats???
-                        forwardStateProbability[t][curState],
-                        backwardStateProbability[t][curState]
-                ));
+        for (int t = maxtime - 2; t >= 0; --t) {
+            shiftedDensities(emissions, observations, t + 1, workspace);
+            scaleByColumn(densities, 0, nextRow, 1.0, nstates);
+            propagateBackward(graph, nextRow, curRow);
+            double nextScale = scale[t + 1];
+            for (int state = 0; state < nstates; ++state) {
+                curRow[state] /= nextScale;
             }
-            forwardBackwardProbability.add(stepProbabilities);
+            result.setBetaRow(t, curRow);
+
+            double[] tmp = nextRow;
+            nextRow = curRow;
+            curRow = tmp;
         }
 
-        return forwardBackwardProbability;
+        Metrics.record(Metrics.Stage.BACKWARD, startNanos, startBytes, maxtime);
+        return result;
     }
-}
\ No newline at end of file
+}
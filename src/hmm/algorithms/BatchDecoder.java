@@ -0,0 +1,185 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.DecodingResult;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Mendekode banyak urutan observasi independen terhadap satu model secara paralel.
+ * Model dikompilasi (CompiledModel: transisi CSR dan tabel emisi per simbol) saat konstruksi,
+ * sehingga decoder bersifat immutable dan aman dipakai bersama oleh banyak thread. Setiap task meminjam satu DecoderWorkspace
+ * dari pool, sehingga buffer DP dipakai ulang antar urutan.
+ */
+public class BatchDecoder {
+
+    /// Jenis decoding yang dijalankan untuk setiap urutan
+    public enum Mode {
+        VITERBI,
+        POSTERIOR,
+        BOTH
+    }
+
+    // Jumlah task per worker, agar beban tetap seimbang saat panjang urutan bervariasi
+    private static final int TASKS_PER_WORKER = 4;
+
+    private final CompiledModel compiled;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final Queue<DecoderWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param model Model HMM. Tabel probabilitasnya disalin, perubahan model setelahnya tidak berpengaruh.
+     * @param executor Executor untuk menjalankan task decoding (mis. ForkJoinPool atau virtual threads).
+     * @param parallelism Perkiraan jumlah worker, dipakai untuk membagi urutan menjadi task.
+     */
+    public BatchDecoder(Model model, ExecutorService executor, int parallelism) {
+        this(CompiledModel.compile(model), executor, parallelism);
+    }
+
+    /**
+     * @param compiled Model terkompilasi; dapat dipakai bersama dengan decoder lain.
+     * @param executor Executor untuk menjalankan task decoding (mis. ForkJoinPool atau virtual threads).
+     * @param parallelism Perkiraan jumlah worker, dipakai untuk membagi urutan menjadi task.
+     */
+    public BatchDecoder(CompiledModel compiled, ExecutorService executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.compiled = compiled;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Membuat executor fork-join dengan jumlah worker tertentu.
+     */
+    public static ExecutorService newForkJoinExecutor(int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Membuat executor virtual thread (satu thread per task) jika JVM mendukungnya (Java 21+).
+     * Pada JVM lama dikembalikan ForkJoinPool dengan jumlah worker sebanyak prosesor.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Mendekode semua urutan dari stream. Urutan hasil sama dengan urutan stream.
+     */
+    public List<DecodingResult> decode(Stream<ExperimentData> sequences, Mode mode) throws InterruptedException {
+        return decode(sequences.collect(Collectors.toList()), mode);
+    }
+
+    /**
+     * Mendekode semua urutan secara paralel.
+     *
+     * @param sequences Urutan observasi yang akan didekode.
+     * @param mode Jenis decoding yang dijalankan.
+     * @return Hasil decoding, dengan urutan yang sama seperti sequences.
+     * @throws InterruptedException Jika thread pemanggil diinterupsi saat menunggu hasil.
+     * @throws IndexOutOfBoundsException Jika sebuah urutan berisi simbol di luar alphabet model.
+     */
+    public List<DecodingResult> decode(Collection<ExperimentData> sequences, Mode mode) throws InterruptedException {
+        final List<ExperimentData> input = sequences instanceof List
+                ? (List<ExperimentData>) sequences
+                : new ArrayList<>(sequences);
+        final int count = input.size();
+        final DecodingResult[] results = new DecodingResult[count];
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+
+        int ntasks = (int) Math.min(count, (long) parallelism * TASKS_PER_WORKER);
+        int chunkSize = (count + ntasks - 1) / ntasks;
+
+        List<Future<?>> futures = new ArrayList<>(ntasks);
+        for (int start = 0; start < count; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(count, start + chunkSize);
+            futures.add(executor.submit(() -> decodeRange(input, from, to, mode, results)));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Batch decoding failed", cause);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void decodeRange(List<ExperimentData> input, int from, int to, Mode mode, DecodingResult[] results) {
+        DecoderWorkspace workspace = workspaces.poll();
+        if (workspace == null) {
+            workspace = new DecoderWorkspace();
+        }
+
+        try {
+            for (int i = from; i < to; ++i) {
+                results[i] = decodeOne(input.get(i), mode, workspace);
+            }
+        } finally {
+            workspaces.offer(workspace);
+        }
+    }
+
+    private DecodingResult decodeOne(ExperimentData data, Mode mode, DecoderWorkspace workspace) {
+        int maxtime = data.size();
+        int[] symbols = workspace.ensureSymbols(maxtime);
+        Algorithms.fillSymbolIndices(data, compiled.alphabetSize, symbols);
+
+        int[] viterbiPath = null;
+        double viterbiLogProb = Double.NaN;
+        if (mode != Mode.POSTERIOR) {
+            viterbiPath = new int[maxtime];
+            viterbiLogProb = Algorithms.viterbiKernel(compiled, symbols, maxtime, workspace, viterbiPath);
+            if (viterbiLogProb == Double.NEGATIVE_INFINITY) {
+                viterbiPath = new int[0];
+            }
+        }
+
+        int[] posteriorPath = null;
+        double logLikelihood = Double.NaN;
+        if (mode != Mode.VITERBI) {
+            posteriorPath = new int[maxtime];
+            logLikelihood = Algorithms.posteriorArgmaxKernel(compiled, symbols, maxtime, workspace, posteriorPath);
+            if (logLikelihood == Double.NEGATIVE_INFINITY) {
+                posteriorPath = new int[0];
+            }
+        }
+
+        return new DecodingResult(viterbiPath, viterbiLogProb, posteriorPath, logLikelihood);
+    }
+}
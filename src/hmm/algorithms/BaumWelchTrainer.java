@@ -0,0 +1,391 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.SparseEmissions;
+import hmm.data.TrainingResult;
+import hmm.data.TransitionGraph;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Estimasi ulang Model.transitionProb dan Model.stateSymbolProb dari hmm.data dengan algoritma
+ * Baum-Welch (EM). E-step memakai forward-backward ter-skala dan dijalankan paralel per urutan:
+ * setiap task mengakumulasi expected count di buffernya sendiri, lalu buffer digabung (reduksi)
+ * sebelum M-step.
+ *
+ * Struktur model dipertahankan: transisi yang bernilai 0 tetap 0, dan probabilitas transisi ke
+ * state 'end' tidak diestimasi ulang (forward-backward tidak memodelkan akhir urutan), sehingga
+ * massa sisanya dibagi menurut expected count.
+ */
+public class BaumWelchTrainer {
+
+    // Jumlah task per worker, agar beban tetap seimbang saat panjang urutan bervariasi
+    private static final int TASKS_PER_WORKER = 4;
+
+    /// batas jumlah iterasi EM
+    public int maxIterations = 100;
+
+    /// iterasi berhenti jika kenaikan total log-likelihood lebih kecil dari nilai ini
+    public double tolerance = 1e-4;
+
+    /// pseudocount untuk setiap transisi yang ada pada model (bukan untuk transisi bernilai 0)
+    public double transitionPseudocount = 0.0;
+
+    /// pseudocount untuk setiap simbol pada state yang mengemisikan simbol
+    /// (untuk emisi jarang, hanya simbol yang probabilitasnya non-nol)
+    public double emissionPseudocount = 0.0;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final Queue<DecoderWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param executor Executor untuk E-step paralel.
+     * @param parallelism Perkiraan jumlah worker, dipakai untuk membagi urutan menjadi task.
+     */
+    public BaumWelchTrainer(ExecutorService executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Melatih model sampai konvergen atau batas iterasi tercapai.
+     *
+     * @param initialModel Model awal; tidak diubah.
+     * @param sequences Urutan observasi pelatihan.
+     * @return Model hasil pelatihan beserta riwayat log-likelihood.
+     * @throws InterruptedException Jika thread pemanggil diinterupsi saat menunggu E-step.
+     * @throws IllegalArgumentException Jika sebuah urutan memiliki probabilitas 0 menurut model,
+     *                                  atau model memakai emisi kontinu (belum didukung).
+     */
+    public TrainingResult train(Model initialModel, List<ExperimentData> sequences) throws InterruptedException {
+        if (initialModel.continuousEmissions != null) {
+            throw new IllegalArgumentException("Baum-Welch training does not support continuous emission models yet.");
+        }
+        Model model = initialModel.copy();
+        List<Double> history = new ArrayList<>();
+        boolean converged = false;
+        int iteration = 0;
+
+        while (iteration < maxIterations) {
+            CompiledModel compiled = CompiledModel.compile(model);
+            ExpectedCounts counts = expectationStep(compiled, model.sparseStateSymbolProb, sequences);
+            history.add(counts.logLikelihood);
+            ++iteration;
+
+            if (history.size() > 1
+                    && Math.abs(counts.logLikelihood - history.get(history.size() - 2)) < tolerance) {
+                converged = true;
+                break;
+            }
+
+            maximizationStep(model, compiled.graph, counts);
+        }
+
+        double[] logLikelihoods = new double[history.size()];
+        for (int i = 0; i < logLikelihoods.length; ++i) {
+            logLikelihoods[i] = history.get(i);
+        }
+        return new TrainingResult(model, iteration, logLikelihoods, converged);
+    }
+
+    /**
+     * Expected count per transisi (diindeks menurut out-edge TransitionGraph) dan per emisi.
+     * Untuk model dengan emisi jarang, count emisi diindeks menurut entri SparseEmissions.
+     */
+    private static class ExpectedCounts {
+        final double[] transitions;
+        final double[][] emissions;
+        final SparseEmissions sparseLayout;
+        final double[] sparseEmissions;
+        double logLikelihood;
+
+        ExpectedCounts(int nedges, int nstates, int alphabetSize, SparseEmissions sparseLayout) {
+            transitions = new double[nedges];
+            this.sparseLayout = sparseLayout;
+            if (sparseLayout != null) {
+                emissions = null;
+                sparseEmissions = new double[sparseLayout.nonZeros()];
+            } else {
+                emissions = new double[nstates][alphabetSize];
+                sparseEmissions = null;
+            }
+        }
+
+        void add(ExpectedCounts other) {
+            for (int e = 0; e < transitions.length; ++e) {
+                transitions[e] += other.transitions[e];
+            }
+            if (emissions != null) {
+                for (int i = 0; i < emissions.length; ++i) {
+                    for (int k = 0; k < emissions[i].length; ++k) {
+                        emissions[i][k] += other.emissions[i][k];
+                    }
+                }
+            } else {
+                for (int entry = 0; entry < sparseEmissions.length; ++entry) {
+                    sparseEmissions[entry] += other.sparseEmissions[entry];
+                }
+            }
+            logLikelihood += other.logLikelihood;
+        }
+    }
+
+    private ExpectedCounts expectationStep(final CompiledModel compiled, final SparseEmissions sparseLayout,
+                                           final List<ExperimentData> sequences) throws InterruptedException {
+        final TransitionGraph graph = compiled.graph;
+        final int nstates = compiled.nstates;
+        final int alphabetSize = compiled.alphabetSize;
+        final int[] beginEdge = edgesFromBegin(graph);
+        int count = sequences.size();
+
+        ExpectedCounts total = new ExpectedCounts(graph.nedges, nstates, alphabetSize, sparseLayout);
+        if (count == 0) {
+            return total;
+        }
+
+        int ntasks = (int) Math.min(count, (long) parallelism * TASKS_PER_WORKER);
+        int chunkSize = (count + ntasks - 1) / ntasks;
+
+        List<Future<ExpectedCounts>> futures = new ArrayList<>(ntasks);
+        for (int start = 0; start < count; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(count, start + chunkSize);
+            futures.add(executor.submit(() -> {
+                ExpectedCounts local = new ExpectedCounts(graph.nedges, nstates, alphabetSize, sparseLayout);
+                DecoderWorkspace workspace = workspaces.poll();
+                if (workspace == null) {
+                    workspace = new DecoderWorkspace();
+                }
+                try {
+                    for (int i = from; i < to; ++i) {
+                        accumulate(compiled, beginEdge, sequences.get(i), workspace, local);
+                    }
+                } finally {
+                    workspaces.offer(workspace);
+                }
+                return local;
+            }));
+        }
+
+        // bagian: reduksi buffer per task
+        try {
+            for (Future<ExpectedCounts> future : futures) {
+                total.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            for (Future<ExpectedCounts> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Baum-Welch expectation step failed", cause);
+        }
+
+        return total;
+    }
+
+    /**
+     * Menambahkan expected count satu urutan ke counts.
+     * gamma(t, i) = alpha^(t, i) * beta^(t, i) dan
+     * xi(t, i, j) = alpha^(t, i) * a(i, j) * b(j, o_{t+1}) * beta^(t+1, j) / c(t+1).
+     */
+    private static void accumulate(CompiledModel compiled, int[] beginEdge, ExperimentData data,
+                                   DecoderWorkspace workspace, ExpectedCounts counts) {
+        TransitionGraph graph = compiled.graph;
+        int nstates = compiled.nstates;
+        int maxtime = data.size();
+        if (maxtime == 0) {
+            return;
+        }
+
+        int[] symbols = workspace.ensureSymbols(maxtime);
+        Algorithms.fillSymbolIndices(data, compiled.alphabetSize, symbols);
+        workspace.ensureStates(nstates);
+        double[] alpha = workspace.ensureTable(maxtime, nstates);
+        double[] scales = workspace.ensureScales(maxtime);
+        double[] prevRow = workspace.prevRow;
+        double[] curRow = workspace.curRow;
+
+        // bagian: forward ter-skala, simpan alpha dan koefisien skala
+        for (int t = 0; t < maxtime; ++t) {
+            double stepSum = Algorithms.forwardStep(compiled, symbols[t], prevRow, curRow, t == 0);
+            if (stepSum <= 0.0) {
+                throw new IllegalArgumentException("Observation sequence has zero probability under the model at step " + t);
+            }
+            scales[t] = stepSum;
+            counts.logLikelihood += Math.log(stepSum);
+
+            int rowOffset = t * nstates;
+            for (int state = 0; state < nstates; ++state) {
+                curRow[state] /= stepSum;
+                alpha[rowOffset + state] = curRow[state];
+            }
+
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
+        }
+
+        // bagian: backward ter-skala dengan beta bergulir, sambil mengakumulasi gamma dan xi
+        int[] outStart = graph.outStart;
+        int[] outTarget = graph.outTarget;
+        double[] outProb = graph.outProb;
+        double[] nextBeta = prevRow;
+        double[] curBeta = curRow;
+        Arrays.fill(nextBeta, 0, nstates, 1.0);
+        addEmissions(counts, alpha, (maxtime - 1) * nstates, nextBeta, nstates, symbols[maxtime - 1]);
+
+        for (int t = maxtime - 2; t >= 0; --t) {
+            Algorithms.scaleByEmission(compiled, symbols[t + 1], nextBeta, scales[t + 1]);
+
+            int rowOffset = t * nstates;
+            for (int state = 0; state < nstates; ++state) {
+                double alphaValue = alpha[rowOffset + state];
+                double betaValue = 0.0;
+                for (int edge = outStart[state], end = outStart[state + 1]; edge < end; ++edge) {
+                    double weighted = outProb[edge] * nextBeta[outTarget[edge]];
+                    betaValue += weighted;
+                    counts.transitions[edge] += alphaValue * weighted;
+                }
+                curBeta[state] = betaValue;
+            }
+            addEmissions(counts, alpha, rowOffset, curBeta, nstates, symbols[t]);
+
+            double[] tmp = nextBeta;
+            nextBeta = curBeta;
+            curBeta = tmp;
+        }
+
+        // bagian: transisi dari state 'begin' ke state pada langkah 0 sama dengan gamma(0, j)
+        for (int state = 0; state < nstates; ++state) {
+            if (beginEdge[state] >= 0) {
+                counts.transitions[beginEdge[state]] += alpha[state] * nextBeta[state];
+            }
+        }
+    }
+
+    private static void addEmissions(ExpectedCounts counts, double[] alpha, int alphaOffset,
+                                     double[] beta, int nstates, int symbol) {
+        if (counts.emissions != null) {
+            for (int state = 0; state < nstates; ++state) {
+                counts.emissions[state][symbol] += alpha[alphaOffset + state] * beta[state];
+            }
+            return;
+        }
+
+        // Emisi jarang: alpha bernilai 0 untuk state yang tidak mengemisikan simbol ini
+        for (int state = 0; state < nstates; ++state) {
+            double gamma = alpha[alphaOffset + state] * beta[state];
+            if (gamma != 0.0) {
+                int entry = counts.sparseLayout.indexOf(state, symbol);
+                if (entry >= 0) {
+                    counts.sparseEmissions[entry] += gamma;
+                }
+            }
+        }
+    }
+
+    /**
+     * M-step: normalisasi expected count menjadi probabilitas baru, langsung ditulis ke model.
+     */
+    private void maximizationStep(Model model, TransitionGraph graph, ExpectedCounts counts) {
+        int nstates = graph.nstates;
+        int endState = nstates - 1;
+
+        // bagian: transisi
+        for (int state = 0; state < nstates; ++state) {
+            int start = graph.outStart[state];
+            int end = graph.outStart[state + 1];
+            double endProb = 0.0;
+            double total = 0.0;
+            for (int edge = start; edge < end; ++edge) {
+                if (graph.outTarget[edge] == endState) {
+                    endProb = graph.outProb[edge];
+                } else {
+                    total += counts.transitions[edge] + transitionPseudocount;
+                }
+            }
+            if (total <= 0.0) {
+                continue; // Tidak ada bukti untuk state ini, pertahankan probabilitas lama
+            }
+
+            double[] row = model.transitionProb[state];
+            for (int edge = start; edge < end; ++edge) {
+                int target = graph.outTarget[edge];
+                if (target != endState) {
+                    row[target] = (1.0 - endProb) * (counts.transitions[edge] + transitionPseudocount) / total;
+                }
+            }
+        }
+
+        // bagian: emisi (state yang tidak mengemisikan simbol, seperti 'begin' dan 'end', dilewati)
+        if (model.sparseStateSymbolProb != null) {
+            maximizeSparseEmissions(model.sparseStateSymbolProb, counts.sparseEmissions);
+            return;
+        }
+        for (int state = 0; state < nstates; ++state) {
+            double[] row = model.stateSymbolProb[state];
+            double oldTotal = 0.0;
+            double total = 0.0;
+            for (int symbol = 0; symbol < row.length; ++symbol) {
+                oldTotal += row[symbol];
+                total += counts.emissions[state][symbol] + emissionPseudocount;
+            }
+            if (oldTotal <= 0.0 || total <= 0.0) {
+                continue;
+            }
+
+            for (int symbol = 0; symbol < row.length; ++symbol) {
+                row[symbol] = (counts.emissions[state][symbol] + emissionPseudocount) / total;
+            }
+        }
+    }
+
+    // M-step untuk emisi jarang: pseudocount hanya ditambahkan ke entri yang disimpan (probabilitas non-nol)
+    private void maximizeSparseEmissions(SparseEmissions emissions, double[] counts) {
+        for (int state = 0; state < emissions.nstates; ++state) {
+            int start = emissions.rowStart[state];
+            int end = emissions.rowStart[state + 1];
+            double oldTotal = 0.0;
+            double total = 0.0;
+            for (int entry = start; entry < end; ++entry) {
+                oldTotal += emissions.probs[entry];
+                total += counts[entry] + emissionPseudocount;
+            }
+            if (oldTotal <= 0.0 || total <= 0.0) {
+                continue;
+            }
+
+            for (int entry = start; entry < end; ++entry) {
+                emissions.probs[entry] = (counts[entry] + emissionPseudocount) / total;
+            }
+        }
+    }
+
+    // element[j] adalah indeks out-edge 'begin' -> j, atau -1 jika transisi tersebut tidak ada
+    private static int[] edgesFromBegin(TransitionGraph graph) {
+        int[] beginEdge = new int[graph.nstates];
+        Arrays.fill(beginEdge, -1);
+        for (int edge = graph.outStart[0]; edge < graph.outStart[1]; ++edge) {
+            beginEdge[graph.outTarget[edge]] = edge;
+        }
+        return beginEdge;
+    }
+}
@@ -0,0 +1,338 @@
+package hmm.algorithms;
+
+import hmm.data.BeamSearchResult;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.TransitionGraph;
+
+import java.util.Arrays;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Viterbi dengan beam search untuk model dengan ruang state sangat besar.
+ * Alih-alih menghitung semua state di setiap langkah, hanya state aktif (yang bertahan dari
+ * langkah sebelumnya) yang diperluas lewat out-edge non-nolnya. Kandidat langkah baru lalu
+ * dipangkas: yang log probabilitasnya lebih kecil dari (terbaik - logBeamWidth) dibuang, dan jika
+ * masih lebih dari maxActiveStates, hanya yang terbaik yang dipertahankan (dipilih dengan min-heap
+ * primitif berukuran maxActiveStates). Backpointer hanya disimpan untuk state yang bertahan,
+ * sehingga memori sebanding dengan jumlah langkah * jumlah state aktif, bukan nstates.
+ * Tanpa pemangkasan (nilai default) hasilnya sama dengan Algorithms.findMostProbableStateSequence.
+ * Dengan pemangkasan hasilnya bisa tidak optimal; statistik di BeamSearchResult membantu memilih
+ * lebar beam. Objek ini memakai ulang buffernya antar pemanggilan dan tidak thread-safe.
+ */
+public class BeamViterbiDecoder {
+    /// jumlah maksimum state aktif per langkah; 0 berarti tanpa batas
+    public int maxActiveStates = 0;
+
+    /// selisih log probabilitas maksimum terhadap state terbaik di langkah yang sama
+    public double logBeamWidth = Double.POSITIVE_INFINITY;
+
+    private final CompiledModel compiled;
+    private final TransitionGraph graph;
+    private final int nstates;
+
+    /// log dari graph.outProb, diindeks menurut out-edge
+    private final double[] outLogProb;
+
+    // State aktif langkah sebelumnya dan langkah saat ini (menaik menurut state),
+    // beserta log probabilitas dan indeks entri backpointer masing-masing
+    private int[] activeState;
+    private double[] activeScore;
+    private int[] activeEntry;
+    private int[] nextActiveState;
+    private double[] nextActiveScore;
+    private int[] nextActiveEntry;
+
+    // Kandidat langkah baru, diindeks menurut state; stamp menandai state yang sudah tersentuh di langkah ini
+    private final double[] candidateScore;
+    private final int[] candidateEntry;
+    private final int[] stamp;
+    private int generation;
+    private final int[] touched;
+
+    /// min-heap indeks state untuk memilih kandidat terbaik
+    private final int[] heap;
+
+    /// log emisi satu langkah untuk kolom emisi jarang (state lain tetap -Infinity)
+    private final double[] sparseLogColumn;
+
+    // Backpointer jarang: entri e adalah state entryState[e] yang berasal dari entri entryPrev[e]
+    private int[] entryState = new int[0];
+    private int[] entryPrev = new int[0];
+
+    /**
+     * @param model Model HMM dengan emisi diskrit.
+     */
+    public BeamViterbiDecoder(Model model) {
+        this(CompiledModel.compile(model));
+    }
+
+    /**
+     * @param compiled Hasil CompiledModel.compile(model) untuk model dengan emisi diskrit.
+     * @throws IllegalArgumentException Jika model memakai emisi kontinu.
+     */
+    public BeamViterbiDecoder(CompiledModel compiled) {
+        if (compiled.isContinuous()) {
+            throw new IllegalArgumentException("Beam search does not support continuous emission models.");
+        }
+        this.compiled = compiled;
+        this.graph = compiled.graph;
+        this.nstates = compiled.nstates;
+
+        this.outLogProb = new double[graph.nedges];
+        for (int edge = 0; edge < graph.nedges; ++edge) {
+            outLogProb[edge] = Math.log(graph.outProb[edge]);
+        }
+
+        this.activeState = new int[nstates];
+        this.activeScore = new double[nstates];
+        this.activeEntry = new int[nstates];
+        this.nextActiveState = new int[nstates];
+        this.nextActiveScore = new double[nstates];
+        this.nextActiveEntry = new int[nstates];
+        this.candidateScore = new double[nstates];
+        this.candidateEntry = new int[nstates];
+        this.stamp = new int[nstates];
+        this.touched = new int[nstates];
+        this.heap = new int[nstates];
+        this.sparseLogColumn = compiled.hasDenseEmission() ? null : new double[nstates];
+        if (sparseLogColumn != null) {
+            Arrays.fill(sparseLogColumn, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Mendekode satu urutan observasi.
+     *
+     * @param data Data observasi/eksperimen.
+     * @return Path terbaik yang bertahan beserta statistik pemangkasan.
+     * @throws IllegalArgumentException Jika maxActiveStates negatif atau logBeamWidth negatif/NaN.
+     */
+    public BeamSearchResult decode(ExperimentData data) {
+        int[] symbols = Algorithms.symbolIndices(compiled, data);
+        return decode(symbols, symbols.length);
+    }
+
+    /**
+     * Mendekode urutan indeks simbol.
+     *
+     * @param symbols Indeks simbol per langkah.
+     * @param maxtime Jumlah langkah yang dipakai dari symbols.
+     * @return Path terbaik yang bertahan beserta statistik pemangkasan.
+     * @throws IllegalArgumentException Jika maxActiveStates negatif atau logBeamWidth negatif/NaN.
+     * @throws IndexOutOfBoundsException Jika sebuah simbol di luar alphabet model.
+     */
+    public BeamSearchResult decode(int[] symbols, int maxtime) {
+        if (maxActiveStates < 0) {
+            throw new IllegalArgumentException("Maximum active states must not be negative");
+        }
+        if (!(logBeamWidth >= 0.0)) {
+            throw new IllegalArgumentException("Beam width must not be negative");
+        }
+        for (int t = 0; t < maxtime; ++t) {
+            if (symbols[t] < 0 || symbols[t] >= compiled.alphabetSize) {
+                throw new IndexOutOfBoundsException("Invalid symbol index " + symbols[t] + " accessing stateSymbolProb at step " + t);
+            }
+        }
+        if (maxtime == 0) {
+            return new BeamSearchResult(new int[0], 0.0, 0, 0, 0, 0, 0, 0); // Data kosong
+        }
+
+        long evaluatedTransitions = 0;
+        long activeStates = 0;
+        int peakActiveStates = 0;
+        long prunedByThreshold = 0;
+        long prunedByWidth = 0;
+        int entryCount = 0;
+
+        // Sebelum langkah 0 satu-satunya state aktif adalah 'begin' (indeks 0) dengan log probabilitas 0
+        int activeCount = 1;
+        activeState[0] = 0;
+        activeScore[0] = 0.0;
+        activeEntry[0] = Algorithms.HMM_UNDEFINED_STATE;
+
+        for (int t = 0; t < maxtime; ++t) {
+            // bagian: kolom log emisi simbol langkah ini
+            double[] logColumn;
+            int columnOffset;
+            if (sparseLogColumn == null) {
+                logColumn = compiled.logEmission;
+                columnOffset = compiled.emissionOffset(symbols[t]);
+            } else {
+                logColumn = sparseLogColumn;
+                columnOffset = 0;
+                for (int entry = compiled.columnStart[symbols[t]], end = compiled.columnStart[symbols[t] + 1]; entry < end; ++entry) {
+                    sparseLogColumn[compiled.columnState[entry]] = compiled.columnLogProb[entry];
+                }
+            }
+
+            // bagian: perluas state aktif lewat out-edge
+            int touchedCount = 0;
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            for (int a = 0; a < activeCount; ++a) {
+                int prevState = activeState[a];
+                double prevScore = activeScore[a];
+                int prevEntry = activeEntry[a];
+                for (int edge = graph.outStart[prevState], end = graph.outStart[prevState + 1]; edge < end; ++edge) {
+                    int curState = graph.outTarget[edge];
+                    double logEmission = logColumn[columnOffset + curState];
+                    if (logEmission == Double.NEGATIVE_INFINITY) {
+                        continue;
+                    }
+                    ++evaluatedTransitions;
+                    double score = prevScore + outLogProb[edge] + logEmission;
+                    if (stamp[curState] != generation) {
+                        stamp[curState] = generation;
+                        candidateScore[curState] = score;
+                        candidateEntry[curState] = prevEntry;
+                        touched[touchedCount++] = curState;
+                    } else if (score > candidateScore[curState]) {
+                        // Hanya lebih besar (bukan sama): state asal dengan indeks terkecil menang, seperti Viterbi penuh
+                        candidateScore[curState] = score;
+                        candidateEntry[curState] = prevEntry;
+                    }
+                }
+            }
+
+            if (sparseLogColumn != null) {
+                for (int entry = compiled.columnStart[symbols[t]], end = compiled.columnStart[symbols[t] + 1]; entry < end; ++entry) {
+                    sparseLogColumn[compiled.columnState[entry]] = Double.NEGATIVE_INFINITY;
+                }
+            }
+
+            if (touchedCount == 0) {
+                // Tidak ada jalur yang bertahan: observasi mustahil (atau semua jalur sudah terpangkas)
+                return new BeamSearchResult(new int[0], Double.NEGATIVE_INFINITY, t, evaluatedTransitions,
+                        activeStates, peakActiveStates, prunedByThreshold, prunedByWidth);
+            }
+
+            // bagian: pangkas menurut ambang log probabilitas
+            double best = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < touchedCount; ++k) {
+                best = Math.max(best, candidateScore[touched[k]]);
+            }
+            double threshold = best - logBeamWidth;
+            int kept = 0;
+            for (int k = 0; k < touchedCount; ++k) {
+                int state = touched[k];
+                if (candidateScore[state] >= threshold) {
+                    touched[kept++] = state;
+                }
+            }
+            prunedByThreshold += touchedCount - kept;
+
+            // bagian: pangkas menurut jumlah state aktif
+            if (maxActiveStates > 0 && kept > maxActiveStates) {
+                selectBest(kept, maxActiveStates);
+                prunedByWidth += kept - maxActiveStates;
+                kept = maxActiveStates;
+            }
+
+            // bagian: simpan state yang bertahan (menaik menurut state) sebagai backpointer jarang
+            Arrays.sort(touched, 0, kept);
+            ensureEntries(entryCount + kept);
+            for (int k = 0; k < kept; ++k) {
+                int state = touched[k];
+                entryState[entryCount] = state;
+                entryPrev[entryCount] = candidateEntry[state];
+                nextActiveState[k] = state;
+                nextActiveScore[k] = candidateScore[state];
+                nextActiveEntry[k] = entryCount;
+                ++entryCount;
+            }
+
+            activeCount = kept;
+            activeStates += kept;
+            peakActiveStates = Math.max(peakActiveStates, kept);
+            swapActive();
+        }
+
+        // bagian: state terakhir terbaik, lalu telusuri backpointer jarang
+        int bestIndex = 0;
+        for (int a = 1; a < activeCount; ++a) {
+            if (activeScore[a] > activeScore[bestIndex]) {
+                bestIndex = a;
+            }
+        }
+        int[] path = new int[maxtime];
+        int entry = activeEntry[bestIndex];
+        for (int t = maxtime - 1; t >= 0; --t) {
+            path[t] = entryState[entry];
+            entry = entryPrev[entry];
+        }
+
+        return new BeamSearchResult(path, activeScore[bestIndex], maxtime, evaluatedTransitions,
+                activeStates, peakActiveStates, prunedByThreshold, prunedByWidth);
+    }
+
+    // Memindahkan limit kandidat terbaik dari touched[0..count) ke touched[0..limit) (urutan bebas)
+    private void selectBest(int count, int limit) {
+        // bagian: min-heap dengan kandidat terburuk di akar
+        System.arraycopy(touched, 0, heap, 0, limit);
+        for (int i = limit / 2 - 1; i >= 0; --i) {
+            siftDown(i, limit);
+        }
+        for (int k = limit; k < count; ++k) {
+            int state = touched[k];
+            if (worse(heap[0], state)) {
+                heap[0] = state;
+                siftDown(0, limit);
+            }
+        }
+        System.arraycopy(heap, 0, touched, 0, limit);
+    }
+
+    private void siftDown(int index, int size) {
+        int state = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(heap[child + 1], heap[child])) {
+                ++child;
+            }
+            if (!worse(heap[child], state)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = state;
+    }
+
+    // Urutan kandidat: log probabilitas lebih kecil lebih buruk; jika sama, indeks state lebih besar lebih buruk
+    private boolean worse(int a, int b) {
+        double scoreA = candidateScore[a];
+        double scoreB = candidateScore[b];
+        return scoreA < scoreB || (scoreA == scoreB && a > b);
+    }
+
+    private void swapActive() {
+        int[] states = activeState;
+        activeState = nextActiveState;
+        nextActiveState = states;
+        double[] scores = activeScore;
+        activeScore = nextActiveScore;
+        nextActiveScore = scores;
+        int[] entries = activeEntry;
+        activeEntry = nextActiveEntry;
+        nextActiveEntry = entries;
+    }
+
+    private void ensureEntries(int needed) {
+        if (entryState.length < needed) {
+            int grown = (int) Math.max(needed, Math.min((long) entryState.length * 2, Integer.MAX_VALUE - 8));
+            entryState = Arrays.copyOf(entryState, grown);
+            entryPrev = Arrays.copyOf(entryPrev, grown);
+        }
+    }
+}
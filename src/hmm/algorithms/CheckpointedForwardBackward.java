@@ -0,0 +1,213 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.MappedDataset;
+import hmm.data.Model;
+import hmm.data.TransitionGraph;
+import hmm.metrics.Metrics;
+
+import java.util.Arrays;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Forward-backward hemat memori untuk urutan yang sangat panjang.
+ * Alih-alih menyimpan tabel alpha dan beta penuh (O(T * N)), sapuan backward dijalankan lebih dulu
+ * dan hanya menyimpan baris beta di setiap checkpoint (setiap K langkah). Sapuan forward kemudian
+ * menghitung ulang beta satu segmen (K langkah) dari checkpoint berikutnya, sehingga posterior
+ * bisa dikirim berurutan dari langkah 0.
+ * Memori: (T / K + K) * N double. Dengan K = sqrt(T) menjadi O(sqrt(T) * N), dengan biaya
+ * satu sapuan backward tambahan.
+ * Simbol dibaca langsung dari ExperimentData per langkah (tanpa salinan int[T]), tetapi data itu
+ * sendiri tetap harus bisa diakses acak untuk seluruh T langkah. Untuk urutan yang tidak muat di heap,
+ * pakai run(model, dataset, sequence, ...) agar kolom simbol dibaca dari file yang dipetakan.
+ */
+public class CheckpointedForwardBackward {
+
+    /**
+     * Interval checkpoint bawaan, ceil(sqrt(maxtime)), yang meminimalkan total memori.
+     */
+    public static int defaultInterval(int maxtime) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(maxtime)));
+    }
+
+    /**
+     * Menjalankan forward-backward dengan checkpoint dan mengirim posterior setiap langkah ke listener.
+     *
+     * @param model Model HMM.
+     * @param data Data observasi/eksperimen.
+     * @param checkpointInterval Jarak antar checkpoint beta (K). 0 berarti defaultInterval(maxtime).
+     *                           Nilai kecil menghemat memori segmen, nilai besar menghemat memori checkpoint.
+     * @param listener Penerima posterior per langkah, berurutan dari langkah 0.
+     * @return Log-likelihood urutan observasi, atau -Infinity jika urutan mustahil menurut model
+     *         (listener tidak dipanggil sama sekali dalam kasus ini).
+     */
+    public static double run(Model model, ExperimentData data, int checkpointInterval, PosteriorListener listener) {
+        return run(CompiledModel.compile(model), data, checkpointInterval, listener);
+    }
+
+    /**
+     * Sama seperti run(model, data, checkpointInterval, listener) untuk satu urutan dataset biner.
+     * Kolom simbol dibaca langsung dari halaman file yang dipetakan, sehingga heap hanya memuat
+     * checkpoint dan segmen beta.
+     *
+     * @throws IllegalArgumentException Jika model tidak cocok dengan dataset.
+     */
+    public static double run(Model model, MappedDataset dataset, int sequence,
+                             int checkpointInterval, PosteriorListener listener) {
+        return run(CompiledModel.compile(model), dataset.toExperimentData(sequence, model), checkpointInterval, listener);
+    }
+
+    /**
+     * Sama seperti run(model, data, checkpointInterval, listener) dengan transisi yang sudah dikompilasi.
+     */
+    public static double run(Model model, TransitionGraph graph, ExperimentData data,
+                             int checkpointInterval, PosteriorListener listener) {
+        return run(new CompiledModel(model, graph), data, checkpointInterval, listener);
+    }
+
+    /**
+     * Sama seperti run(model, data, checkpointInterval, listener) dengan model yang sudah dikompilasi.
+     */
+    public static double run(CompiledModel compiled, ExperimentData data,
+                             int checkpointInterval, PosteriorListener listener) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative");
+        }
+        if (compiled.isContinuous()) {
+            throw new IllegalArgumentException("Model has continuous emissions; decode ContinuousData instead.");
+        }
+
+        int nstates = compiled.nstates;
+        int maxtime = data.size();
+        if (maxtime == 0) {
+            return 0.0; // Data kosong
+        }
+
+        int interval = checkpointInterval == 0 ? defaultInterval(maxtime) : Math.min(checkpointInterval, maxtime);
+        int nsegments = (maxtime + interval - 1) / interval;
+        // Validasi sekali di depan agar loop DP tidak perlu mengecek batas indeks; memori tetap O(1)
+        for (int t = 0; t < maxtime; ++t) {
+            int symbol = data.symbol(t);
+            if (symbol < 0 || symbol >= compiled.alphabetSize) {
+                throw new IndexOutOfBoundsException("Invalid symbol index " + symbol + " accessing stateSymbolProb at step " + t);
+            }
+        }
+
+        double[] nextRow = new double[nstates];
+        double[] curRow = new double[nstates];
+
+        // bagian: sapuan backward, simpan beta di langkah terakhir setiap segmen.
+        // checkpoints[s] adalah beta pada langkah min((s + 1) * interval, maxtime) - 1.
+        double[][] checkpoints = new double[nsegments][];
+        Arrays.fill(nextRow, 1.0 / nstates);
+        checkpoints[nsegments - 1] = nextRow.clone();
+
+        for (int t = maxtime - 2; t >= 0; --t) {
+            if (!normalizedBackwardStep(compiled, data.symbol(t + 1), nextRow, curRow)) {
+                return impossible();
+            }
+            if ((t + 1) % interval == 0) {
+                checkpoints[(t + 1) / interval - 1] = curRow.clone();
+            }
+
+            double[] tmp = nextRow;
+            nextRow = curRow;
+            curRow = tmp;
+        }
+
+        // bagian: sapuan forward per segmen, hitung ulang beta segmen dari checkpoint
+        double[][] segmentBeta = new double[interval][nstates];
+        double[] prevAlpha = new double[nstates];
+        double[] curAlpha = new double[nstates];
+        double[] gamma = new double[nstates];
+        double logLikelihood = 0.0;
+
+        for (int segment = 0; segment < nsegments; ++segment) {
+            int start = segment * interval;
+            int end = Math.min(start + interval, maxtime);
+            int last = end - start - 1;
+
+            System.arraycopy(checkpoints[segment], 0, segmentBeta[last], 0, nstates);
+            checkpoints[segment] = null; // Checkpoint ini tidak diperlukan lagi
+            for (int i = last - 1; i >= 0; --i) {
+                System.arraycopy(segmentBeta[i + 1], 0, nextRow, 0, nstates);
+                normalizedBackwardStep(compiled, data.symbol(start + i + 1), nextRow, segmentBeta[i]);
+            }
+
+            for (int t = start; t < end; ++t) {
+                // sum_i alpha(t, i) * beta(t, i) sebanding dengan P(O) di setiap langkah, sehingga urutan
+                // mustahil sudah terdeteksi di langkah 0, sebelum listener dipanggil
+                int symbol = data.symbol(t);
+                double stepSum = Algorithms.forwardStep(compiled, symbol, prevAlpha, curAlpha, t == 0);
+                if (stepSum <= 0.0) {
+                    return impossible();
+                }
+                logLikelihood += Math.log(stepSum);
+
+                double[] beta = segmentBeta[t - start];
+                double gammaSum = 0.0;
+                for (int state = 0; state < nstates; ++state) {
+                    curAlpha[state] /= stepSum;
+                    gamma[state] = curAlpha[state] * beta[state];
+                    gammaSum += gamma[state];
+                }
+                if (gammaSum <= 0.0) {
+                    return impossible();
+                }
+                for (int state = 0; state < nstates; ++state) {
+                    gamma[state] /= gammaSum;
+                }
+
+                listener.onStep(t, symbol, curAlpha, beta, gamma);
+
+                double[] tmp = prevAlpha;
+                prevAlpha = curAlpha;
+                curAlpha = tmp;
+            }
+        }
+
+        return logLikelihood;
+    }
+
+    /**
+     * Mengisi state posterior paling mungkin per langkah dengan memori O(sqrt(T) * N).
+     *
+     * @param path Array tujuan dengan panjang minimal jumlah langkah hmm.data.
+     * @return Log-likelihood urutan observasi, atau -Infinity jika urutan mustahil (path tidak diisi).
+     */
+    public static double posteriorArgmax(Model model, ExperimentData data, int checkpointInterval, final int[] path) {
+        return run(model, data, checkpointInterval, (step, symbol, alpha, beta, gamma) -> {
+            int bestState = 0;
+            for (int state = 1; state < gamma.length; ++state) {
+                if (gamma[state] > gamma[bestState]) {
+                    bestState = state;
+                }
+            }
+            path[step] = bestState;
+        });
+    }
+
+    // Langkah backward yang dinormalisasi agar jumlah barisnya 1 (nextRow ikut dikalikan emisi).
+    // false jika tidak ada state yang dapat menjelaskan sisa urutan.
+    private static boolean normalizedBackwardStep(CompiledModel compiled, int nextSymbol,
+                                                  double[] nextRow, double[] curRow) {
+        double rowSum = Algorithms.backwardStep(compiled, nextSymbol, nextRow, curRow);
+        if (rowSum <= 0.0) {
+            return false;
+        }
+        for (int state = 0; state < curRow.length; ++state) {
+            curRow[state] /= rowSum;
+        }
+        return true;
+    }
+
+    private static double impossible() {
+        Metrics.event(Metrics.Event.ZERO_PROBABILITY);
+        return Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,117 @@
+package hmm.algorithms;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Buffer kerja (scratch) untuk tabel DP Viterbi dan forward-backward.
+ * Semua buffer berbentuk array primitif datar yang hanya tumbuh, sehingga satu workspace
+ * dapat dipakai ulang untuk banyak urutan tanpa alokasi baru setelah ukurannya cukup.
+ * Workspace tidak thread-safe: gunakan satu workspace per thread (mis. lewat ThreadLocal).
+ * Dipakai oleh entry point Algorithms yang menerima workspace dan array path milik pemanggil.
+ */
+public class DecoderWorkspace {
+    /// baris probabilitas langkah sebelumnya, panjang >= nstates
+    double[] prevRow = new double[0];
+
+    /// baris probabilitas langkah saat ini, panjang >= nstates
+    double[] curRow = new double[0];
+
+    /// backpointer Viterbi row-major: element[t * nstates + j], panjang >= maxtime * nstates
+    int[] backPointers = new int[0];
+
+    /// tabel alpha ter-skala row-major, panjang >= maxtime * nstates
+    double[] table = new double[0];
+
+    /// indeks simbol urutan yang sedang diproses, panjang >= maxtime
+    int[] symbols = new int[0];
+
+    /// koefisien skala forward per langkah, panjang >= maxtime
+    double[] scales = new double[0];
+
+    /// (log) densitas emisi kontinu satu langkah untuk setiap state, panjang >= nstates
+    double[] emissionRow = new double[0];
+
+    /// scratch untuk EmissionModel.logDensities, panjang >= scratchLength()
+    double[] emissionScratch = new double[0];
+
+    /**
+     * Memastikan buffer baris cukup untuk jumlah state tertentu.
+     */
+    void ensureStates(int nstates) {
+        if (prevRow.length < nstates) {
+            prevRow = new double[nstates];
+            curRow = new double[nstates];
+        }
+    }
+
+    /**
+     * Memastikan buffer emisi kontinu cukup untuk jumlah state dan scratch model emisi tertentu.
+     */
+    void ensureEmissions(int nstates, int scratchLength) {
+        if (emissionRow.length < nstates) {
+            emissionRow = new double[nstates];
+        }
+        if (emissionScratch.length < scratchLength) {
+            emissionScratch = new double[scratchLength];
+        }
+    }
+
+    /**
+     * Memastikan buffer simbol cukup untuk panjang urutan tertentu.
+     */
+    int[] ensureSymbols(int maxtime) {
+        if (symbols.length < maxtime) {
+            symbols = new int[grow(symbols.length, maxtime)];
+        }
+        return symbols;
+    }
+
+    /**
+     * Memastikan buffer koefisien skala cukup untuk panjang urutan tertentu.
+     */
+    double[] ensureScales(int maxtime) {
+        if (scales.length < maxtime) {
+            scales = new double[grow(scales.length, maxtime)];
+        }
+        return scales;
+    }
+
+    /**
+     * Memastikan tabel backpointer cukup untuk maxtime * nstates sel.
+     */
+    int[] ensureBackPointers(int maxtime, int nstates) {
+        int cells = cellCount(maxtime, nstates);
+        if (backPointers.length < cells) {
+            backPointers = new int[grow(backPointers.length, cells)];
+        }
+        return backPointers;
+    }
+
+    /**
+     * Memastikan tabel alpha cukup untuk maxtime * nstates sel.
+     */
+    double[] ensureTable(int maxtime, int nstates) {
+        int cells = cellCount(maxtime, nstates);
+        if (table.length < cells) {
+            table = new double[grow(table.length, cells)];
+        }
+        return table;
+    }
+
+    private static int cellCount(int maxtime, int nstates) {
+        long cells = (long) maxtime * nstates;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("DP table of " + maxtime + " steps x " + nstates + " states is too large");
+        }
+        return (int) cells;
+    }
+
+    // Tumbuh minimal 1.5x agar urutan yang panjangnya naik perlahan tidak memicu alokasi berulang
+    private static int grow(int current, int needed) {
+        long grown = current + (current >> 1);
+        return (int) Math.max(needed, Math.min(grown, Integer.MAX_VALUE - 8));
+    }
+}
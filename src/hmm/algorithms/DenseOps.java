@@ -0,0 +1,46 @@
+package hmm.algorithms;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Operasi vektor untuk kernel transisi padat: satu baris matriks contiguous dikombinasikan
+ * dengan satu vektor state. Implementasi SIMD (VectorDenseOps, jdk.incubator.vector) berada di
+ * src-vector dan hanya dipakai jika kelasnya ada dan modul inkubator tersedia saat runtime
+ * (--add-modules jdk.incubator.vector); selain itu dipakai ScalarDenseOps.
+ */
+interface DenseOps {
+    /**
+     * Jumlah matrix[offset + i] * vector[i] untuk i = 0 .. length - 1.
+     */
+    double dot(double[] matrix, int offset, double[] vector, int length);
+
+    /**
+     * Indeks i pertama dengan matrix[offset + i] + vector[i] maksimum.
+     *
+     * @return Indeks tersebut, atau -1 jika semua jumlah -Infinity.
+     */
+    int argmaxSum(double[] matrix, int offset, double[] vector, int length);
+
+    /**
+     * Memilih implementasi: SIMD jika tersedia dan tidak dimatikan lewat -Dhmm.vector=false.
+     */
+    static DenseOps load() {
+        if (!Boolean.parseBoolean(System.getProperty("hmm.vector", "true"))) {
+            return new ScalarDenseOps();
+        }
+        try {
+            DenseOps ops = (DenseOps) Class.forName("hmm.algorithms.VectorDenseOps").getDeclaredConstructor().newInstance();
+            // Pemakaian pertama memuat kelas jdk.incubator.vector; gagal di sini jika modul tidak ada
+            double[] probe = {1.0, 2.0, 3.0};
+            if (ops.dot(probe, 0, probe, probe.length) == 14.0 && ops.argmaxSum(probe, 0, probe, probe.length) == 2) {
+                return ops;
+            }
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // kelas SIMD tidak dikompilasi atau modul inkubator tidak tersedia: pakai skalar
+        }
+        return new ScalarDenseOps();
+    }
+}
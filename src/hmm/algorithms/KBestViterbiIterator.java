@@ -0,0 +1,451 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.ScoredPath;
+import hmm.data.TransitionGraph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Menghasilkan urutan state dengan log probabilitas tertinggi satu per satu (terbaik dahulu),
+ * tanpa batas jumlah di muka. Trellis Viterbi (log probabilitas terbaik dan backpointer untuk
+ * setiap (langkah, state)) dihitung sekali saat konstruksi; path berikutnya diturunkan secara
+ * lazy dengan Recursive Enumeration Algorithm (Jiménez & Marzal): setiap simpul (t, j) hanya
+ * menyimpan path ke-k miliknya yang pernah diminta, beserta himpunan kandidat dari predecessornya.
+ * Meminta path berikutnya hanya menyentuh simpul dari akhir urutan sampai titik penyimpangannya
+ * dari path sebelumnya, sehingga memori tambahan paling banyak k * maxtime entri untuk k path yang
+ * sudah diambil, bukan k * nstates * maxtime seperti list Viterbi.
+ * Path pertama sama dengan hasil Algorithms.findMostProbableStateSequence.
+ * Rekursi REA dijalankan secara iteratif, sehingga urutan panjang tidak menghabiskan stack.
+ * Objek ini tidak thread-safe.
+ */
+public class KBestViterbiIterator implements Iterator<ScoredPath> {
+
+    private final CompiledModel compiled;
+    private final TransitionGraph graph;
+    private final int nstates;
+    private final int maxtime;
+    private final int[] symbols;
+
+    /// log probabilitas prefix terbaik row-major: element[t * nstates + j]
+    private final double[] bestLogProb;
+
+    /// backpointer prefix terbaik row-major: element[t * nstates + j]
+    private final int[] backPointers;
+
+    /// id simpul akhir: semua state di langkah terakhir adalah predecessornya dengan bobot 0
+    private final int endNode;
+
+    /// path ke-k (k >= 1) per simpul, null untuk simpul yang belum disentuh (path ke-0 ada di trellis)
+    private final NodePaths[] nodes;
+
+    // Stack untuk menjalankan rekursi REA secara iteratif
+    private int[] pendingNodes = new int[16];
+
+    private int produced;
+    private ScoredPath lookahead;
+    private boolean finished;
+
+    /**
+     * @param model Model HMM dengan emisi diskrit.
+     * @param data Data observasi/eksperimen.
+     */
+    public KBestViterbiIterator(Model model, ExperimentData data) {
+        this(CompiledModel.compile(model), data);
+    }
+
+    /**
+     * @param compiled Hasil CompiledModel.compile(model) untuk model dengan emisi diskrit.
+     * @param data Data observasi/eksperimen.
+     */
+    public KBestViterbiIterator(CompiledModel compiled, ExperimentData data) {
+        this.compiled = compiled;
+        this.graph = compiled.graph;
+        this.nstates = compiled.nstates;
+        this.symbols = Algorithms.symbolIndices(compiled, data);
+        this.maxtime = symbols.length;
+        if ((long) maxtime * nstates >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("DP table of " + maxtime + " steps x " + nstates + " states is too large");
+        }
+        this.endNode = maxtime * nstates;
+        this.nodes = new NodePaths[endNode + 1];
+
+        // bagian: trellis Viterbi penuh (dipakai oleh semua path)
+        DecoderWorkspace workspace = new DecoderWorkspace();
+        workspace.ensureStates(nstates);
+        this.backPointers = new int[maxtime * nstates];
+        this.bestLogProb = new double[maxtime * nstates];
+        double[] prevRow = workspace.prevRow;
+        double[] curRow = workspace.curRow;
+        for (int t = 0; t < maxtime; ++t) {
+            Algorithms.viterbiStep(compiled, symbols[t], prevRow, curRow, backPointers, t * nstates, t == 0);
+            System.arraycopy(curRow, 0, bestLogProb, t * nstates, nstates);
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
+        }
+
+        this.finished = maxtime == 0 || lastStateOf(0) == Algorithms.HMM_UNDEFINED_STATE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (lookahead == null && !finished) {
+            lookahead = computeNext();
+            finished = lookahead == null;
+        }
+        return lookahead != null;
+    }
+
+    /**
+     * Path berikutnya dengan log probabilitas tertinggi yang belum dikembalikan.
+     *
+     * @throws NoSuchElementException Jika semua path yang mungkin sudah dikembalikan.
+     */
+    @Override
+    public ScoredPath next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more state sequences with non-zero probability");
+        }
+        ScoredPath result = lookahead;
+        lookahead = null;
+        return result;
+    }
+
+    private ScoredPath computeNext() {
+        int rank = produced;
+        if (rank > 0 && !ensureRank(endNode, rank)) {
+            return null;
+        }
+        ++produced;
+
+        // bagian: rekonstruksi path dari simpul akhir
+        int[] path = new int[maxtime];
+        double logProbability = pathLogProb(endNode, rank);
+        int state = predStateOf(endNode, rank);
+        int stateRank = predRankOf(endNode, rank);
+        for (int t = maxtime - 1; t >= 0; --t) {
+            path[t] = state;
+            int node = t * nstates + state;
+            if (stateRank == 0) {
+                // Sisa path adalah prefix terbaik: ikuti backpointer trellis
+                for (int s = t - 1; s >= 0; --s) {
+                    state = backPointers[(s + 1) * nstates + state];
+                    path[s] = state;
+                }
+                break;
+            }
+            NodePaths paths = nodes[node];
+            state = paths.predState[stateRank];
+            stateRank = paths.predRank[stateRank];
+        }
+        return new ScoredPath(path, logProbability);
+    }
+
+    // bagian: Recursive Enumeration Algorithm
+
+    /**
+     * Memastikan path ke-rank simpul node sudah dihitung.
+     *
+     * @return false jika simpul tidak memiliki path sebanyak itu.
+     */
+    private boolean ensureRank(int node, int rank) {
+        if (rank == 0) {
+            return true;
+        }
+        NodePaths paths = nodes[node];
+        if (paths != null && paths.count > rank) {
+            return true;
+        }
+        if (paths != null && paths.exhausted) {
+            return false;
+        }
+
+        // bagian: turun selama predecessor path sebelumnya juga butuh rank berikutnya
+        // (rank yang diminta selalu tepat satu di atas jumlah path yang sudah ada)
+        int depth = 0;
+        int cur = node;
+        while (true) {
+            pushPending(depth++, cur);
+            NodePaths curPaths = pathsOf(cur);
+            if (curPaths.exhausted || isFirstStep(cur)) {
+                break;
+            }
+            int last = curPaths.count - 1;
+            int pred = predNodeOf(cur, predStateOf(cur, last));
+            int needed = predRankOf(cur, last) + 1;
+            NodePaths predPaths = nodes[pred];
+            if (predPaths != null && (predPaths.count > needed || predPaths.exhausted)) {
+                break;
+            }
+            cur = pred;
+        }
+
+        // bagian: naik kembali dan hitung path berikutnya setiap simpul di stack
+        while (depth > 0) {
+            extend(pendingNodes[--depth]);
+        }
+        paths = nodes[node];
+        return paths.count > rank;
+    }
+
+    // Menghitung satu path berikutnya untuk node, dengan asumsi predecessor yang dibutuhkan sudah siap
+    private void extend(int node) {
+        NodePaths paths = pathsOf(node);
+        if (paths.exhausted) {
+            return;
+        }
+        if (isFirstStep(node)) {
+            // Langkah 0 hanya memiliki satu predecessor ('begin'), jadi hanya ada satu path
+            paths.exhausted = true;
+            return;
+        }
+
+        if (!paths.candidatesReady) {
+            addInitialCandidates(node, paths);
+            paths.candidatesReady = true;
+        }
+
+        // Path terakhir node memakai path ke-r predecessornya; path ke-(r + 1) predecessor itu menjadi kandidat
+        int last = paths.count - 1;
+        int predState = predStateOf(node, last);
+        int nextRank = predRankOf(node, last) + 1;
+        int pred = predNodeOf(node, predState);
+        NodePaths predPaths = nodes[pred];
+        if (predPaths != null && predPaths.count > nextRank) {
+            double score = predPaths.scores[nextRank] + edgeLogProb(node, predState);
+            if (score > Double.NEGATIVE_INFINITY) {
+                paths.pushCandidate(score, predState, nextRank);
+            }
+        }
+
+        if (paths.candidateCount == 0) {
+            paths.exhausted = true;
+            return;
+        }
+        paths.popCandidateIntoPaths();
+    }
+
+    // Kandidat awal: path terbaik dari setiap predecessor kecuali yang membentuk path ke-0
+    private void addInitialCandidates(int node, NodePaths paths) {
+        int bestPred = predStateOf(node, 0);
+        if (node == endNode) {
+            int offset = (maxtime - 1) * nstates;
+            for (int state = 0; state < nstates; ++state) {
+                double score = bestLogProb[offset + state];
+                if (state != bestPred && score > Double.NEGATIVE_INFINITY) {
+                    paths.pushCandidate(score, state, 0);
+                }
+            }
+            return;
+        }
+
+        int t = node / nstates;
+        int state = node - t * nstates;
+        double logEmission = logEmission(t, state);
+        int prevOffset = (t - 1) * nstates;
+        for (int edge = graph.inStart[state], end = graph.inStart[state + 1]; edge < end; ++edge) {
+            int prevState = graph.inSource[edge];
+            double score = bestLogProb[prevOffset + prevState] + graph.inLogProb[edge] + logEmission;
+            if (prevState != bestPred && score > Double.NEGATIVE_INFINITY) {
+                paths.pushCandidate(score, prevState, 0);
+            }
+        }
+    }
+
+    // bagian: akses path per simpul (path ke-0 dari trellis, sisanya dari NodePaths)
+
+    private boolean isFirstStep(int node) {
+        return node < nstates;
+    }
+
+    private int lastStateOf(int rank) {
+        return predStateOf(endNode, rank);
+    }
+
+    // Simpul predecessor node yang berada di state predState
+    private int predNodeOf(int node, int predState) {
+        return node == endNode ? (maxtime - 1) * nstates + predState : node - nstates - (node % nstates) + predState;
+    }
+
+    private double pathLogProb(int node, int rank) {
+        if (rank == 0) {
+            return node == endNode ? bestLogProb[endNode - nstates + lastStateOf(0)] : bestLogProb[node];
+        }
+        return nodes[node].scores[rank];
+    }
+
+    private int predStateOf(int node, int rank) {
+        if (rank == 0) {
+            if (node == endNode) {
+                // Sama seperti Viterbi: state terakhir pertama dengan log probabilitas tertinggi
+                int offset = endNode - nstates;
+                int best = Algorithms.HMM_UNDEFINED_STATE;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int state = 0; state < nstates; ++state) {
+                    if (bestLogProb[offset + state] > bestScore) {
+                        bestScore = bestLogProb[offset + state];
+                        best = state;
+                    }
+                }
+                return best;
+            }
+            return backPointers[node];
+        }
+        return nodes[node].predState[rank];
+    }
+
+    private int predRankOf(int node, int rank) {
+        return rank == 0 ? 0 : nodes[node].predRank[rank];
+    }
+
+    // Log probabilitas transisi predState -> state node ditambah emisi di node (0 untuk simpul akhir)
+    private double edgeLogProb(int node, int predState) {
+        if (node == endNode) {
+            return 0.0;
+        }
+        int t = node / nstates;
+        int state = node - t * nstates;
+        // In-edge setiap state terurut menurut state asal
+        int edge = Arrays.binarySearch(graph.inSource, graph.inStart[state], graph.inStart[state + 1], predState);
+        return edge >= 0 ? graph.inLogProb[edge] + logEmission(t, state) : Double.NEGATIVE_INFINITY;
+    }
+
+    private double logEmission(int t, int state) {
+        int symbol = symbols[t];
+        if (compiled.hasDenseEmission()) {
+            return compiled.logEmission[compiled.emissionOffset(symbol) + state];
+        }
+        int index = Arrays.binarySearch(compiled.columnState, compiled.columnStart[symbol], compiled.columnStart[symbol + 1], state);
+        return index >= 0 ? compiled.columnLogProb[index] : Double.NEGATIVE_INFINITY;
+    }
+
+    private NodePaths pathsOf(int node) {
+        NodePaths paths = nodes[node];
+        if (paths == null) {
+            paths = new NodePaths(pathLogProb(node, 0), predStateOf(node, 0));
+            nodes[node] = paths;
+        }
+        return paths;
+    }
+
+    private void pushPending(int depth, int node) {
+        if (depth == pendingNodes.length) {
+            pendingNodes = Arrays.copyOf(pendingNodes, depth * 2);
+        }
+        pendingNodes[depth] = node;
+    }
+
+    /**
+     * Path ke-k satu simpul yang sudah dihitung (indeks 0 menyalin path terbaik dari trellis),
+     * beserta max-heap kandidat path berikutnya.
+     */
+    private static final class NodePaths {
+        double[] scores = new double[2];
+        int[] predState = new int[2];
+        int[] predRank = new int[2];
+        int count;
+        boolean exhausted;
+
+        boolean candidatesReady;
+        double[] candidateScore = new double[4];
+        int[] candidateState = new int[4];
+        int[] candidateRank = new int[4];
+        int candidateCount;
+
+        NodePaths(double bestScore, int bestPredState) {
+            scores[0] = bestScore;
+            predState[0] = bestPredState;
+            count = 1;
+        }
+
+        void pushCandidate(double score, int state, int rank) {
+            if (candidateCount == candidateScore.length) {
+                int grown = candidateCount * 2;
+                candidateScore = Arrays.copyOf(candidateScore, grown);
+                candidateState = Arrays.copyOf(candidateState, grown);
+                candidateRank = Arrays.copyOf(candidateRank, grown);
+            }
+            int index = candidateCount++;
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(score, state, rank, parent)) {
+                    break;
+                }
+                moveCandidate(parent, index);
+                index = parent;
+            }
+            setCandidate(index, score, state, rank);
+        }
+
+        // Memindahkan kandidat terbaik menjadi path berikutnya
+        void popCandidateIntoPaths() {
+            if (count == scores.length) {
+                int grown = count * 2;
+                scores = Arrays.copyOf(scores, grown);
+                predState = Arrays.copyOf(predState, grown);
+                predRank = Arrays.copyOf(predRank, grown);
+            }
+            scores[count] = candidateScore[0];
+            predState[count] = candidateState[0];
+            predRank[count] = candidateRank[0];
+            ++count;
+
+            int last = --candidateCount;
+            double score = candidateScore[last];
+            int state = candidateState[last];
+            int rank = candidateRank[last];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= candidateCount) {
+                    break;
+                }
+                if (child + 1 < candidateCount
+                        && better(candidateScore[child + 1], candidateState[child + 1], candidateRank[child + 1], child)) {
+                    ++child;
+                }
+                if (better(score, state, rank, child)) {
+                    break;
+                }
+                moveCandidate(child, index);
+                index = child;
+            }
+            if (candidateCount > 0) {
+                setCandidate(index, score, state, rank);
+            }
+        }
+
+        // Urutan kandidat: skor lebih tinggi lebih baik; jika sama, state lalu rank lebih kecil
+        private boolean better(double score, int state, int rank, int other) {
+            if (score != candidateScore[other]) {
+                return score > candidateScore[other];
+            }
+            if (state != candidateState[other]) {
+                return state < candidateState[other];
+            }
+            return rank < candidateRank[other];
+        }
+
+        private void moveCandidate(int from, int to) {
+            candidateScore[to] = candidateScore[from];
+            candidateState[to] = candidateState[from];
+            candidateRank[to] = candidateRank[from];
+        }
+
+        private void setCandidate(int index, double score, int state, int rank) {
+            candidateScore[index] = score;
+            candidateState[index] = state;
+            candidateRank[index] = rank;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.ModelScore;
+import hmm.data.TransitionGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Menilai satu urutan observasi terhadap banyak model sekaligus (mis. satu model per kelas),
+ * dengan satu lintasan atas urutan: di setiap langkah, rekursi forward ter-skala semua model
+ * yang masih aktif dimajukan bersama.
+ * <p>
+ * Semua model dikemas sekali saat konstruksi: emisi dalam satu tabel symbol-major
+ * (element[symbol * totalStates + offset model + j]), matriks transisi padat dalam satu array
+ * blok (blok model m berisi matriks ter-transpose row-major, dipakai kernel SIMD DenseOps), dan
+ * transisi jarang dalam satu CSR in-edge gabungan.
+ * <p>
+ * Eliminasi dini (opsional) bersifat eksak untuk `keep` peringkat teratas. Koefisien skala forward
+ * langkah t adalah P(o_t | o_0..o_(t-1)), dan nilainya dibatasi oleh minimum dan maksimum
+ * jumlah a(i, j) * b(j, o_t) atas state i yang dapat mengemisikan o_(t-1). Tabel batas per pasangan
+ * simbol dihitung sekali per model. Setiap ELIMINATION_INTERVAL langkah, model yang batas atas
+ * skor akhirnya di bawah batas bawah ke-keep terbaik tidak dilanjutkan.
+ * <p>
+ * Scorer thread-safe setelah konstruksi (field earlyElimination dan keep sebaiknya diatur sebelum
+ * dipakai bersama); setiap panggilan score memakai buffernya sendiri.
+ */
+public class MultiModelScorer {
+
+    /// jarak (dalam langkah) antar pemeriksaan eliminasi
+    public static final int ELIMINATION_INTERVAL = 64;
+
+    // Toleransi relatif untuk galat pembulatan jumlah batas log
+    private static final double BOUND_TOLERANCE = 1e-9;
+
+    /// hentikan model yang tidak mungkin masuk `keep` peringkat teratas
+    public boolean earlyElimination = true;
+
+    /// jumlah peringkat teratas yang dijamin eksak saat earlyElimination aktif
+    public int keep = 1;
+
+    private final int nmodels;
+    private final int alphabetSize; // alphabet gabungan: alphabet terbesar di antara model
+    private final int totalStates;
+
+    private final int[] stateOffset;
+    private final int[] modelStates;
+
+    // Emisi semua model, element[symbol * totalStates + stateOffset[m] + j]
+    private final double[] emission;
+
+    // Blok transisi padat: element[denseOffset[m] + j * n + i] = a(i, j); denseOffset[m] = -1 untuk model jarang
+    private final int[] denseOffset;
+    private final double[] denseInProb;
+
+    // CSR in-edge gabungan untuk model jarang, diindeks dengan state global; state asal lokal per model
+    private final int[] inStart;
+    private final int[] inSource;
+    private final double[] inProb;
+
+    // Log batas bawah/atas koefisien skala, element[m * A * A + prevSymbol * A + symbol]
+    private final double[] logLowerBound;
+    private final double[] logUpperBound;
+
+    /**
+     * @param models Model kandidat dengan alphabet huruf (bukan token maupun emisi kontinu).
+     *               Tabel probabilitasnya disalin; perubahan model setelahnya tidak berpengaruh.
+     * @throws IllegalArgumentException Jika daftar model kosong atau ada model yang tidak didukung.
+     */
+    public MultiModelScorer(List<Model> models) {
+        if (models.isEmpty()) {
+            throw new IllegalArgumentException("At least one model is required");
+        }
+        nmodels = models.size();
+        CompiledModel[] compiled = new CompiledModel[nmodels];
+        stateOffset = new int[nmodels + 1];
+        modelStates = new int[nmodels];
+        denseOffset = new int[nmodels];
+        int alphabet = 0;
+        int denseCells = 0;
+        int sparseEdges = 0;
+        for (int m = 0; m < nmodels; ++m) {
+            Model model = models.get(m);
+            if (model.symbols != null) {
+                throw new IllegalArgumentException("Model " + m + " uses a token alphabet; multi-model scoring needs letter symbols shared by all models.");
+            }
+            compiled[m] = CompiledModel.compile(model);
+            if (compiled[m].isContinuous()) {
+                throw new IllegalArgumentException("Model " + m + " has continuous emissions.");
+            }
+            TransitionGraph graph = compiled[m].graph;
+            modelStates[m] = compiled[m].nstates;
+            stateOffset[m + 1] = stateOffset[m] + compiled[m].nstates;
+            alphabet = Math.max(alphabet, compiled[m].alphabetSize);
+            if (graph.isDense()) {
+                denseOffset[m] = denseCells;
+                denseCells += graph.nstates * graph.nstates;
+            } else {
+                denseOffset[m] = -1;
+                sparseEdges += graph.nedges;
+            }
+        }
+        alphabetSize = alphabet;
+        totalStates = stateOffset[nmodels];
+
+        // bagian: kemas emisi, transisi padat dan transisi jarang
+        emission = new double[alphabetSize * totalStates];
+        denseInProb = new double[denseCells];
+        inStart = new int[totalStates + 1];
+        inSource = new int[sparseEdges];
+        inProb = new double[sparseEdges];
+        int edgeCount = 0;
+        for (int m = 0; m < nmodels; ++m) {
+            CompiledModel model = compiled[m];
+            TransitionGraph graph = model.graph;
+            int offset = stateOffset[m];
+            for (int symbol = 0; symbol < model.alphabetSize; ++symbol) {
+                for (int state = 0; state < model.nstates; ++state) {
+                    emission[symbol * totalStates + offset + state] = emissionProb(model, symbol, state);
+                }
+            }
+
+            if (denseOffset[m] >= 0) {
+                System.arraycopy(graph.denseInProb, 0, denseInProb, denseOffset[m], graph.nstates * graph.nstates);
+            }
+            for (int state = 0; state < graph.nstates; ++state) {
+                inStart[offset + state] = edgeCount;
+                if (denseOffset[m] >= 0) {
+                    continue;
+                }
+                for (int edge = graph.inStart[state]; edge < graph.inStart[state + 1]; ++edge) {
+                    inSource[edgeCount] = graph.inSource[edge];
+                    inProb[edgeCount] = graph.inProb[edge];
+                    ++edgeCount;
+                }
+            }
+        }
+        inStart[totalStates] = edgeCount;
+
+        // bagian: tabel batas koefisien skala per pasangan simbol
+        logLowerBound = new double[nmodels * alphabetSize * alphabetSize];
+        logUpperBound = new double[nmodels * alphabetSize * alphabetSize];
+        for (int m = 0; m < nmodels; ++m) {
+            fillBounds(m, compiled[m].graph);
+        }
+    }
+
+    private static double emissionProb(CompiledModel compiled, int symbol, int state) {
+        if (compiled.hasDenseEmission()) {
+            return compiled.emission[compiled.emissionOffset(symbol) + state];
+        }
+        for (int entry = compiled.columnStart[symbol]; entry < compiled.columnStart[symbol + 1]; ++entry) {
+            if (compiled.columnState[entry] == state) {
+                return compiled.columnProb[entry];
+            }
+        }
+        return 0.0;
+    }
+
+    // next[i * A + s] = jumlah a(i, j) * b(j, s): probabilitas dari state i untuk mengemisikan s di langkah berikutnya.
+    // Batas untuk (p, s) adalah minimum/maksimum next[i][s] atas state i yang mengemisikan p.
+    private void fillBounds(int m, TransitionGraph graph) {
+        int nstates = modelStates[m];
+        int offset = stateOffset[m];
+        int symbols = alphabetSize;
+        double[] next = new double[nstates * symbols];
+        for (int state = 0; state < nstates; ++state) {
+            for (int edge = graph.outStart[state]; edge < graph.outStart[state + 1]; ++edge) {
+                int target = offset + graph.outTarget[edge];
+                double prob = graph.outProb[edge];
+                for (int symbol = 0; symbol < symbols; ++symbol) {
+                    next[state * symbols + symbol] += prob * emission[symbol * totalStates + target];
+                }
+            }
+        }
+
+        int base = m * symbols * symbols;
+        for (int prev = 0; prev < symbols; ++prev) {
+            for (int symbol = 0; symbol < symbols; ++symbol) {
+                double lower = Double.POSITIVE_INFINITY;
+                double upper = 0.0;
+                for (int state = 0; state < nstates; ++state) {
+                    if (emission[prev * totalStates + offset + state] > 0.0) {
+                        double value = next[state * symbols + symbol];
+                        lower = Math.min(lower, value);
+                        upper = Math.max(upper, value);
+                    }
+                }
+                if (lower == Double.POSITIVE_INFINITY) {
+                    lower = 0.0; // Tidak ada state yang mengemisikan prev: pasangan ini tidak pernah terjadi
+                }
+                // Batas atas dibatasi 1: skala forward adalah probabilitas bersyarat
+                logLowerBound[base + prev * symbols + symbol] = Math.log(lower);
+                logUpperBound[base + prev * symbols + symbol] = Math.log(Math.min(upper, 1.0));
+            }
+        }
+    }
+
+    public int modelCount() {
+        return nmodels;
+    }
+
+    /**
+     * Menilai urutan terhadap semua model dalam satu lintasan.
+     *
+     * @param data Data observasi; indeks simbol harus berada di alphabet gabungan semua model.
+     * @return Skor semua model: yang eksak lebih dulu, diurutkan dari log-likelihood terbesar,
+     *         lalu model yang dieliminasi (diurutkan dari batas atasnya).
+     * @throws IndexOutOfBoundsException Jika ada simbol di luar alphabet gabungan.
+     */
+    public List<ModelScore> score(ExperimentData data) {
+        int maxtime = data.size();
+        int[] symbols = new int[maxtime];
+        Algorithms.fillSymbolIndices(data, alphabetSize, symbols);
+
+        double[] logLikelihood = new double[nmodels];
+        int[] steps = new int[nmodels];
+        boolean[] eliminated = new boolean[nmodels];
+        if (maxtime == 0) {
+            return rank(logLikelihood, steps, eliminated);
+        }
+
+        double[][] prevRows = new double[nmodels][];
+        double[][] curRows = new double[nmodels][];
+        int[] active = new int[nmodels];
+        int nactive = nmodels;
+        for (int m = 0; m < nmodels; ++m) {
+            active[m] = m;
+            prevRows[m] = new double[modelStates[m]];
+            curRows[m] = new double[modelStates[m]];
+            prevRows[m][0] = 1.0; // Sebelum langkah 0 semua massa ada di state 'begin'
+        }
+
+        boolean eliminate = earlyElimination && keep > 0 && keep < nmodels;
+        RemainingBounds bounds = eliminate ? new RemainingBounds(symbols, maxtime) : null;
+
+        // bagian: satu lintasan atas urutan, semua model aktif dimajukan per langkah
+        for (int t = 0; t < maxtime; ++t) {
+            int symbol = symbols[t];
+            int kept = 0;
+            for (int a = 0; a < nactive; ++a) {
+                int m = active[a];
+                double stepSum = forwardStep(m, symbol, prevRows[m], curRows[m]);
+                steps[m] = t + 1;
+                if (!(stepSum > 0.0)) {
+                    logLikelihood[m] = Double.NEGATIVE_INFINITY; // Final: observasi mustahil menurut model m
+                    continue;
+                }
+                logLikelihood[m] += Math.log(stepSum);
+                double[] tmp = prevRows[m];
+                prevRows[m] = curRows[m];
+                curRows[m] = tmp;
+                if (bounds != null && t > 0) {
+                    bounds.consume(m, symbols[t - 1], symbol);
+                }
+                active[kept++] = m;
+            }
+            nactive = kept;
+
+            if (bounds != null && (t + 1) % ELIMINATION_INTERVAL == 0 && t + 1 < maxtime && nactive > keep) {
+                nactive = bounds.eliminate(active, nactive, logLikelihood, eliminated);
+            }
+        }
+
+        return rank(logLikelihood, steps, eliminated);
+    }
+
+    /**
+     * Menilai urutan dan mengembalikan indeks model dengan log-likelihood terbesar.
+     */
+    public int classify(ExperimentData data) {
+        return score(data).get(0).model;
+    }
+
+    // Satu langkah forward ter-skala model m; curRow dinormalisasi agar jumlahnya 1
+    private double forwardStep(int m, int symbol, double[] prevRow, double[] curRow) {
+        int nstates = modelStates[m];
+        int emissionOffset = symbol * totalStates + stateOffset[m];
+        int dense = denseOffset[m];
+        double stepSum = 0.0;
+
+        for (int state = 0; state < nstates; ++state) {
+            double emit = emission[emissionOffset + state];
+            double value = 0.0;
+            if (emit != 0.0) {
+                if (dense >= 0) {
+                    value = Algorithms.DENSE_OPS.dot(denseInProb, dense + state * nstates, prevRow, nstates) * emit;
+                } else {
+                    for (int edge = inStart[stateOffset[m] + state], end = inStart[stateOffset[m] + state + 1]; edge < end; ++edge) {
+                        value += prevRow[inSource[edge]] * inProb[edge];
+                    }
+                    value *= emit;
+                }
+            }
+            curRow[state] = value;
+            stepSum += value;
+        }
+
+        if (stepSum > 0.0) {
+            for (int state = 0; state < nstates; ++state) {
+                curRow[state] /= stepSum;
+            }
+        }
+        return stepSum;
+    }
+
+    private List<ModelScore> rank(double[] logLikelihood, int[] steps, boolean[] eliminated) {
+        List<ModelScore> scores = new ArrayList<>(nmodels);
+        for (int m = 0; m < nmodels; ++m) {
+            scores.add(new ModelScore(m, logLikelihood[m], !eliminated[m], steps[m]));
+        }
+        scores.sort((a, b) -> a.exact != b.exact
+                ? (a.exact ? -1 : 1)
+                : Double.compare(b.logLikelihood, a.logLikelihood));
+        return scores;
+    }
+
+    /**
+     * Jumlah log batas koefisien skala untuk langkah yang belum diproses, per model.
+     * Suku -Infinity dihitung terpisah agar pengurangan tidak menghasilkan NaN.
+     */
+    private final class RemainingBounds {
+        private final double[] lowerSum = new double[nmodels];
+        private final double[] upperSum = new double[nmodels];
+        private final int[] lowerInfinite = new int[nmodels];
+        private final int[] upperInfinite = new int[nmodels];
+        private final double[] topLower;
+
+        RemainingBounds(int[] symbols, int maxtime) {
+            int pairs = alphabetSize * alphabetSize;
+            for (int m = 0; m < nmodels; ++m) {
+                int base = m * pairs;
+                for (int t = 1; t < maxtime; ++t) {
+                    add(m, base + symbols[t - 1] * alphabetSize + symbols[t], 1);
+                }
+            }
+            topLower = new double[keep];
+        }
+
+        void consume(int m, int prevSymbol, int symbol) {
+            add(m, m * alphabetSize * alphabetSize + prevSymbol * alphabetSize + symbol, -1);
+        }
+
+        private void add(int m, int index, int sign) {
+            double lower = logLowerBound[index];
+            if (lower == Double.NEGATIVE_INFINITY) {
+                lowerInfinite[m] += sign;
+            } else {
+                lowerSum[m] += sign * lower;
+            }
+            double upper = logUpperBound[index];
+            if (upper == Double.NEGATIVE_INFINITY) {
+                upperInfinite[m] += sign;
+            } else {
+                upperSum[m] += sign * upper;
+            }
+        }
+
+        // Menghapus model aktif yang batas atasnya di bawah batas bawah ke-keep terbaik
+        int eliminate(int[] active, int nactive, double[] logLikelihood, boolean[] eliminated) {
+            Arrays.fill(topLower, Double.NEGATIVE_INFINITY);
+            for (int a = 0; a < nactive; ++a) {
+                int m = active[a];
+                double lower = lowerInfinite[m] > 0 ? Double.NEGATIVE_INFINITY : logLikelihood[m] + lowerSum[m];
+                int pos = keep - 1;
+                if (lower <= topLower[pos]) {
+                    continue;
+                }
+                while (pos > 0 && topLower[pos - 1] < lower) {
+                    topLower[pos] = topLower[pos - 1];
+                    --pos;
+                }
+                topLower[pos] = lower;
+            }
+            double threshold = topLower[keep - 1];
+            if (threshold == Double.NEGATIVE_INFINITY) {
+                return nactive;
+            }
+            threshold -= BOUND_TOLERANCE * (1.0 + Math.abs(threshold));
+
+            int kept = 0;
+            for (int a = 0; a < nactive; ++a) {
+                int m = active[a];
+                double upper = upperInfinite[m] > 0 ? Double.NEGATIVE_INFINITY : logLikelihood[m] + upperSum[m];
+                if (upper < threshold) {
+                    eliminated[m] = true;
+                    logLikelihood[m] = upper;
+                } else {
+                    active[kept++] = m;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.Model;
+import hmm.data.TransitionGraph;
+
+import java.util.function.IntConsumer;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Decoder Viterbi inkremental untuk aliran observasi yang tidak terbatas.
+ * Simbol dimasukkan satu per satu; begitu semua jalur yang masih mungkin (state dengan
+ * log probabilitas berhingga) bertemu di satu state pada langkah k, state untuk langkah
+ * sampai k sudah pasti dan langsung diteruskan ke listener. Memori yang dipakai sebanding
+ * dengan panjang jendela yang belum konvergen, bukan panjang aliran.
+ * <p>
+ * Titik temu dilacak secara inkremental: ukuran himpunan jalur yang bertahan di setiap langkah
+ * jendela disimpan, dan penelusuran mundur berhenti begitu himpunannya sama dengan hasil push
+ * sebelumnya. Karena ukuran itu hanya bisa mengecil, biaya teramortisasi per simbol tidak
+ * bergantung pada panjang jendela.
+ * Objek ini tidak thread-safe.
+ */
+public class OnlineViterbiDecoder {
+
+    /// batas jendela bawaan untuk konstruktor OnlineViterbiDecoder(model, listener)
+    public static final int DEFAULT_MAX_WINDOW = 4096;
+
+    private final CompiledModel compiled;
+    private final int nstates;
+    private final int maxWindow;
+    private final IntConsumer listener;
+
+    // Log probabilitas langkah terakhir, digeser sehingga nilai maksimumnya 0
+    private double[] prevLogProbability;
+    private double[] curLogProbability;
+    // Jumlah pergeseran yang sudah dikurangkan dari log probabilitas
+    private double logOffset;
+
+    // Ring buffer baris backpointer untuk langkah windowStart .. nextStep - 1
+    private int[] backPointers;
+    private int capacity;
+    private int headSlot;
+
+    // Langkah pertama yang belum di-commit, dan langkah yang akan diproses berikutnya
+    private long windowStart;
+    private long nextStep;
+
+    // Ukuran himpunan jalur yang bertahan di setiap langkah jendela (per slot ring buffer),
+    // dari penelusuran terakhir yang melewati langkah tersebut
+    private int[] survivorCounts;
+
+    // Buffer bantu untuk menelusuri himpunan jalur yang masih bertahan
+    private int[] survivors;
+    private int[] predecessors;
+    private int[] marks;
+    private int markGeneration;
+    private int[] commitBuffer;
+
+    /**
+     * Decoder dengan batas jendela DEFAULT_MAX_WINDOW, sehingga memori tetap terbatas walaupun
+     * jalur-jalur pada aliran tidak pernah bertemu.
+     *
+     * @param model Model HMM.
+     * @param listener Penerima state yang sudah pasti, dipanggil berurutan dari langkah 0.
+     */
+    public OnlineViterbiDecoder(Model model, IntConsumer listener) {
+        this(model, TransitionGraph.compile(model), DEFAULT_MAX_WINDOW, listener);
+    }
+
+    /**
+     * @param model Model HMM.
+     * @param graph Hasil TransitionGraph.compile(model).
+     * @param maxWindow Batas panjang jendela yang belum konvergen. Jika terlampaui, separuh jendela
+     *                  tertua di-commit sekaligus mengikuti jalur state terbaik saat ini (hasilnya bisa
+     *                  berbeda dari Viterbi penuh), sehingga setiap langkah tetap punya lookahead minimal
+     *                  ceil(maxWindow / 2) langkah. 0 berarti tanpa batas; memori kemudian tumbuh selama
+     *                  jalur-jalur belum bertemu.
+     * @param listener Penerima state yang sudah pasti, dipanggil berurutan dari langkah 0.
+     */
+    public OnlineViterbiDecoder(Model model, TransitionGraph graph, int maxWindow, IntConsumer listener) {
+        this(new CompiledModel(model, graph), maxWindow, listener);
+    }
+
+    /**
+     * @param compiled Hasil CompiledModel.compile(model); dapat dipakai bersama dengan decoder lain.
+     * @param maxWindow Batas panjang jendela yang belum konvergen (lihat konstruktor di atas).
+     *                  0 berarti tanpa batas.
+     * @param listener Penerima state yang sudah pasti, dipanggil berurutan dari langkah 0.
+     */
+    public OnlineViterbiDecoder(CompiledModel compiled, int maxWindow, IntConsumer listener) {
+        if (maxWindow < 0) {
+            throw new IllegalArgumentException("Maximum window must not be negative");
+        }
+        this.compiled = compiled;
+        this.nstates = compiled.nstates;
+        this.maxWindow = maxWindow;
+        this.listener = listener;
+
+        this.prevLogProbability = new double[nstates];
+        this.curLogProbability = new double[nstates];
+        this.capacity = 16;
+        this.backPointers = new int[capacity * nstates];
+        this.survivorCounts = new int[capacity];
+        this.survivors = new int[nstates];
+        this.predecessors = new int[nstates];
+        this.marks = new int[nstates];
+        this.commitBuffer = new int[capacity];
+    }
+
+    /**
+     * Memasukkan satu simbol observasi berikutnya.
+     *
+     * @param symbolIndex Indeks simbol (lihat Model.symbolToInd).
+     * @return Jumlah state yang di-commit ke listener karena simbol ini.
+     * @throws IndexOutOfBoundsException Jika simbol di luar alphabet model.
+     * @throws IllegalArgumentException Jika simbol membuat seluruh aliran mustahil menurut model;
+     *                                  keadaan decoder tidak berubah dalam kasus ini.
+     */
+    public int push(int symbolIndex) {
+        if (symbolIndex < 0 || symbolIndex >= compiled.alphabetSize) {
+            throw new IndexOutOfBoundsException("Invalid symbol index " + symbolIndex + " accessing stateSymbolProb at step " + nextStep);
+        }
+
+        if (nextStep - windowStart == capacity) {
+            growWindow();
+        }
+        int slot = (int) ((headSlot + (nextStep - windowStart)) % capacity);
+
+        Algorithms.viterbiStep(compiled, symbolIndex, prevLogProbability, curLogProbability,
+                backPointers, slot * nstates, nextStep == 0);
+
+        // bagian: geser log probabilitas agar nilai maksimum 0 (mencegah hilangnya presisi pada aliran panjang)
+        double maxLogProb = Double.NEGATIVE_INFINITY;
+        for (int state = 0; state < nstates; ++state) {
+            maxLogProb = Math.max(maxLogProb, curLogProbability[state]);
+        }
+        if (maxLogProb == Double.NEGATIVE_INFINITY) {
+            throw new IllegalArgumentException("Observation stream has zero probability under the model at step " + nextStep);
+        }
+        for (int state = 0; state < nstates; ++state) {
+            curLogProbability[state] -= maxLogProb;
+        }
+        logOffset += maxLogProb;
+
+        double[] tmp = prevLogProbability;
+        prevLogProbability = curLogProbability;
+        curLogProbability = tmp;
+        ++nextStep;
+
+        int committed = commitConverged();
+        if (maxWindow > 0 && nextStep - windowStart > maxWindow) {
+            // Satu backtrack untuk separuh jendela, agar biayanya teramortisasi O(1) per simbol
+            committed += commitFrom(bestState(), nextStep - 1, nextStep - (maxWindow + 1) / 2);
+        }
+        return committed;
+    }
+
+    /**
+     * Mengakhiri aliran: state terbaik di langkah terakhir dipilih dan seluruh jendela
+     * yang tersisa di-commit. Setelah itu decoder kembali ke keadaan awal.
+     *
+     * @return Log probabilitas jalur Viterbi untuk seluruh aliran.
+     */
+    public double finish() {
+        double logProbability = 0.0;
+        if (nextStep > 0) {
+            int lastState = bestState();
+            logProbability = logOffset + prevLogProbability[lastState];
+            commitFrom(lastState, nextStep - 1, nextStep);
+        }
+        reset();
+        return logProbability;
+    }
+
+    /**
+     * Membuang semua langkah yang belum di-commit dan memulai aliran baru.
+     */
+    public void reset() {
+        windowStart = 0;
+        nextStep = 0;
+        headSlot = 0;
+        logOffset = 0.0;
+    }
+
+    /// jumlah langkah yang sudah diproses
+    public long processedSteps() {
+        return nextStep;
+    }
+
+    /// jumlah langkah yang sudah di-commit ke listener
+    public long committedSteps() {
+        return windowStart;
+    }
+
+    /**
+     * Menelusuri mundur semua state yang masih bertahan. Jika himpunannya menyusut menjadi satu
+     * state pada langkah k, semua jalur melewati state itu dan langkah windowStart..k bisa di-commit.
+     * <p>
+     * Himpunan baru di setiap langkah selalu subset dari himpunan penelusuran sebelumnya, jadi ukuran
+     * yang sama berarti himpunannya sama, dan sisa penelusuran (yang belum konvergen) juga sama.
+     */
+    private int commitConverged() {
+        int count = 0;
+        for (int state = 0; state < nstates; ++state) {
+            if (prevLogProbability[state] != Double.NEGATIVE_INFINITY) {
+                survivors[count++] = state;
+            }
+        }
+
+        long step = nextStep - 1;
+        survivorCounts[slotOf(step)] = count;
+        while (count > 1 && step > windowStart) {
+            // Himpunan state pada langkah step - 1 adalah backpointer dari himpunan saat ini
+            int rowOffset = slotOf(step) * nstates;
+            ++markGeneration;
+            int nextCount = 0;
+            for (int i = 0; i < count; ++i) {
+                int prevState = backPointers[rowOffset + survivors[i]];
+                if (marks[prevState] != markGeneration) {
+                    marks[prevState] = markGeneration;
+                    predecessors[nextCount++] = prevState;
+                }
+            }
+
+            --step;
+            int slot = slotOf(step);
+            if (survivorCounts[slot] == nextCount) {
+                return 0; // Sama seperti push sebelumnya: tidak ada titik temu baru
+            }
+            survivorCounts[slot] = nextCount;
+
+            int[] tmp = survivors;
+            survivors = predecessors;
+            predecessors = tmp;
+            count = nextCount;
+        }
+
+        if (count != 1) {
+            return 0;
+        }
+        return commitFrom(survivors[0], step, step + 1);
+    }
+
+    /**
+     * Backtrack dari state tertentu di langkah fromStep, lalu commit langkah windowStart..untilStep - 1.
+     */
+    private int commitFrom(int state, long fromStep, long untilStep) {
+        int length = (int) (untilStep - windowStart);
+        if (length <= 0) {
+            return 0;
+        }
+        if (commitBuffer.length < length) {
+            commitBuffer = new int[Math.max(length, commitBuffer.length * 2)];
+        }
+
+        int curState = state;
+        for (long step = fromStep; step >= windowStart; --step) {
+            if (step < untilStep) {
+                commitBuffer[(int) (step - windowStart)] = curState;
+            }
+            if (step > windowStart) {
+                curState = backPointers[slotOf(step) * nstates + curState];
+            }
+        }
+
+        for (int i = 0; i < length; ++i) {
+            listener.accept(commitBuffer[i]);
+        }
+
+        headSlot = (headSlot + length) % capacity;
+        windowStart = untilStep;
+        return length;
+    }
+
+    private int bestState() {
+        int best = 0;
+        for (int state = 1; state < nstates; ++state) {
+            if (prevLogProbability[state] > prevLogProbability[best]) {
+                best = state;
+            }
+        }
+        return best;
+    }
+
+    private int slotOf(long step) {
+        return (int) ((headSlot + (step - windowStart)) % capacity);
+    }
+
+    // Menggandakan kapasitas ring buffer dan menyusun ulang baris mulai dari windowStart
+    private void growWindow() {
+        int newCapacity = capacity * 2;
+        if ((long) newCapacity * nstates > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Unconverged Viterbi window is too large; set a maximum window");
+        }
+        int[] grown = new int[newCapacity * nstates];
+        int[] grownCounts = new int[newCapacity];
+        for (int i = 0; i < capacity; ++i) {
+            int slot = (headSlot + i) % capacity;
+            System.arraycopy(backPointers, slot * nstates, grown, i * nstates, nstates);
+            grownCounts[i] = survivorCounts[slot];
+        }
+        backPointers = grown;
+        survivorCounts = grownCounts;
+        capacity = newCapacity;
+        headSlot = 0;
+    }
+}
@@ -0,0 +1,563 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static hmm.algorithms.Algorithms.HMM_UNDEFINED_STATE;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Viterbi dan forward untuk SATU urutan observasi yang sangat panjang, dijalankan paralel dengan
+ * membagi urutan menjadi chunk (associative scan).
+ * <p>
+ * Setiap chunk c dirangkum oleh matriks transfer N x N: M_c[i][j] adalah log probabilitas path
+ * terbaik (semiring (max,+), Viterbi) atau probabilitas total (semiring (+,x), forward) dari
+ * state i di langkah terakhir chunk sebelumnya ke state j di langkah terakhir chunk c, termasuk
+ * emisi di dalam chunk. Matriks semua chunk dihitung paralel, lalu digabung dengan prefix scan
+ * vektor x matriks. Untuk Viterbi, prefix scan sekaligus menentukan state keluar setiap chunk,
+ * sehingga setiap chunk dapat didekode ulang dan di-backtrack secara independen (juga paralel).
+ * <p>
+ * Satu baris matriks transfer butuh satu lintasan DP atas chunk, dan hanya state yang
+ * mengemisikan simbol di batas chunk yang perlu dihitung. Total kerja kira-kira (S + 1) kali
+ * versi sekuensial (S = jumlah state yang dapat mengemisikan simbol), sehingga mode paralel hanya
+ * menguntungkan untuk model dengan sedikit state dan banyak worker. Dengan strategi AUTO,
+ * {@link #prefersParallel(int)} memilih antara keduanya.
+ * <p>
+ * Decoder thread-safe setelah konstruksi (field strategy sebaiknya diatur sebelum dipakai bersama).
+ */
+public class ParallelScanDecoder {
+
+    /// Cara menjalankan decoding
+    public enum Strategy {
+        /// pilih otomatis dengan prefersParallel
+        AUTO,
+        /// selalu satu lintasan sekuensial
+        SEQUENTIAL,
+        /// selalu chunk paralel (jika urutan cukup panjang untuk lebih dari satu chunk)
+        PARALLEL
+    }
+
+    /// urutan yang lebih pendek dari ini selalu didekode sekuensial pada strategi AUTO
+    public static final int MIN_PARALLEL_STEPS = 1 << 16;
+
+    // Panjang chunk minimum, agar overhead task dan matriks transfer tidak dominan
+    private static final int MIN_CHUNK_STEPS = 1 << 10;
+
+    // Panjang chunk maksimum; membatasi tabel backpointer per worker saat backtrack chunk
+    private static final int MAX_CHUNK_STEPS = 1 << 20;
+
+    // Jumlah chunk per worker, agar beban tetap seimbang saat jumlah state awal per chunk berbeda
+    private static final int TASKS_PER_WORKER = 4;
+
+    // Batas jumlah sel semua matriks transfer (chunk x N x N)
+    private static final long MAX_TRANSFER_CELLS = 1L << 26;
+
+    // Margin untuk overhead task dan prefix scan: paralel dipilih jika parallelism > margin * (S + 1)
+    private static final double CROSSOVER_MARGIN = 1.5;
+
+    /// strategi eksekusi
+    public Strategy strategy = Strategy.AUTO;
+
+    private final CompiledModel compiled;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    // Jumlah state yang mengemisikan minimal satu simbol (S pada perkiraan biaya)
+    private final int emittingStates;
+
+    private final Queue<DecoderWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param model Model HMM. Tabel probabilitasnya disalin, perubahan model setelahnya tidak berpengaruh.
+     * @param executor Executor untuk menjalankan task chunk (mis. ForkJoinPool).
+     * @param parallelism Perkiraan jumlah worker, dipakai untuk membagi urutan menjadi chunk.
+     */
+    public ParallelScanDecoder(Model model, ExecutorService executor, int parallelism) {
+        this(CompiledModel.compile(model), executor, parallelism);
+    }
+
+    /**
+     * @param compiled Model terkompilasi; dapat dipakai bersama dengan decoder lain.
+     * @param executor Executor untuk menjalankan task chunk (mis. ForkJoinPool).
+     * @param parallelism Perkiraan jumlah worker, dipakai untuk membagi urutan menjadi chunk.
+     */
+    public ParallelScanDecoder(CompiledModel compiled, ExecutorService executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (compiled.isContinuous()) {
+            throw new IllegalArgumentException("Parallel scan decoding does not support continuous emission models.");
+        }
+        this.compiled = compiled;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.emittingStates = countEmittingStates(compiled);
+    }
+
+    private static int countEmittingStates(CompiledModel compiled) {
+        int nstates = compiled.nstates;
+        boolean[] emitting = new boolean[nstates];
+        if (compiled.hasDenseEmission()) {
+            for (int symbol = 0; symbol < compiled.alphabetSize; ++symbol) {
+                int offset = compiled.emissionOffset(symbol);
+                for (int state = 0; state < nstates; ++state) {
+                    if (compiled.emission[offset + state] > 0.0) {
+                        emitting[state] = true;
+                    }
+                }
+            }
+        } else {
+            for (int entry = 0; entry < compiled.columnStart[compiled.alphabetSize]; ++entry) {
+                emitting[compiled.columnState[entry]] = true;
+            }
+        }
+
+        int count = 0;
+        for (boolean value : emitting) {
+            if (value) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Heuristik crossover: apakah urutan sepanjang maxtime sebaiknya didekode dengan chunk paralel.
+     * Paralel dipilih jika urutan cukup panjang, matriks transfer muat dalam batas memori, dan
+     * jumlah worker cukup besar untuk menutup kerja tambahan (S + 1) kali lipat.
+     */
+    public boolean prefersParallel(int maxtime) {
+        if (parallelism < 2 || maxtime < MIN_PARALLEL_STEPS) {
+            return false;
+        }
+
+        int nchunks = chunkCount(maxtime, chunkLength(maxtime));
+        if ((long) nchunks * compiled.nstates * compiled.nstates > MAX_TRANSFER_CELLS) {
+            return false;
+        }
+        return parallelism > CROSSOVER_MARGIN * (emittingStates + 1);
+    }
+
+    private boolean useParallel(int maxtime) {
+        switch (strategy) {
+            case SEQUENTIAL:
+                return false;
+            case PARALLEL:
+                return chunkCount(maxtime, chunkLength(maxtime)) > 1;
+            default:
+                return prefersParallel(maxtime);
+        }
+    }
+
+    private int chunkLength(int maxtime) {
+        long byWorkers = (long) parallelism * TASKS_PER_WORKER;
+        long byMemory = (maxtime + (long) MAX_CHUNK_STEPS - 1) / MAX_CHUNK_STEPS;
+        long limit = Math.max(1, maxtime / MIN_CHUNK_STEPS);
+        long nchunks = Math.max(1, Math.min(limit, Math.max(byWorkers, byMemory)));
+        return (int) ((maxtime + nchunks - 1) / nchunks);
+    }
+
+    private static int chunkCount(int maxtime, int chunkLength) {
+        return chunkLength == 0 ? 0 : (maxtime + chunkLength - 1) / chunkLength;
+    }
+
+    /**
+     * Mencari urutan state paling mungkin (Viterbi) untuk satu urutan observasi.
+     * Log probabilitas sama dengan Viterbi sekuensial sampai pembulatan; jika ada beberapa path
+     * optimal, mode paralel bisa memilih path optimal yang lain.
+     *
+     * @param path Array tujuan dengan panjang minimal data.size().
+     * @return Log probabilitas urutan terbaik, atau -Infinity jika observasi mustahil menurut model
+     *         (path tidak diisi dalam kasus ini).
+     * @throws InterruptedException Jika thread pemanggil diinterupsi saat menunggu task chunk.
+     * @throws IndexOutOfBoundsException Jika urutan berisi simbol di luar alphabet model.
+     */
+    public double findMostProbableStateSequence(ExperimentData data, int[] path) throws InterruptedException {
+        int maxtime = data.size();
+        Algorithms.checkPathLength(path, maxtime);
+        int[] symbols = Algorithms.symbolIndices(compiled, data);
+
+        if (!useParallel(maxtime)) {
+            DecoderWorkspace workspace = borrowWorkspace();
+            try {
+                return Algorithms.viterbiKernel(compiled, symbols, maxtime, workspace, path);
+            } finally {
+                workspaces.offer(workspace);
+            }
+        }
+        return parallelViterbi(symbols, maxtime, path);
+    }
+
+    /**
+     * Menghitung log-likelihood urutan observasi dengan algoritma forward.
+     *
+     * @return Log-likelihood, atau -Infinity jika observasi mustahil menurut model.
+     * @throws InterruptedException Jika thread pemanggil diinterupsi saat menunggu task chunk.
+     * @throws IndexOutOfBoundsException Jika urutan berisi simbol di luar alphabet model.
+     */
+    public double logLikelihood(ExperimentData data) throws InterruptedException {
+        int maxtime = data.size();
+        int[] symbols = Algorithms.symbolIndices(compiled, data);
+
+        if (!useParallel(maxtime)) {
+            DecoderWorkspace workspace = borrowWorkspace();
+            try {
+                return forwardRun(symbols, 0, maxtime, HMM_UNDEFINED_STATE, workspace, new double[compiled.nstates]);
+            } finally {
+                workspaces.offer(workspace);
+            }
+        }
+        return parallelForward(symbols, maxtime);
+    }
+
+    private double parallelViterbi(int[] symbols, int maxtime, int[] path) throws InterruptedException {
+        final int nstates = compiled.nstates;
+        final int chunkLength = chunkLength(maxtime);
+        final int nchunks = chunkCount(maxtime, chunkLength);
+
+        // transfer[0] adalah vektor log probabilitas di akhir chunk 0 (dimulai dari state begin);
+        // transfer[c], c >= 1, adalah matriks (max,+) row-major element[i * nstates + j]
+        final double[][] transfer = new double[nchunks][];
+        final int[][] entryStates = new int[nchunks][];
+
+        // bagian: fase 1, matriks transfer setiap chunk (paralel)
+        runChunks(nchunks, chunk -> {
+            int from = chunk * chunkLength;
+            int to = Math.min(maxtime, from + chunkLength);
+            DecoderWorkspace workspace = borrowWorkspace();
+            try {
+                workspace.ensureStates(nstates);
+                int[] scratch = workspace.ensureBackPointers(1, nstates);
+                if (chunk == 0) {
+                    transfer[0] = new double[nstates];
+                    viterbiRun(symbols, from, to, HMM_UNDEFINED_STATE, workspace, scratch, false, transfer[0]);
+                    return;
+                }
+
+                int[] starts = emittingStates(symbols[from - 1]);
+                double[] matrix = new double[nstates * nstates];
+                Arrays.fill(matrix, Double.NEGATIVE_INFINITY);
+                double[] row = new double[nstates];
+                for (int start : starts) {
+                    viterbiRun(symbols, from, to, start, workspace, scratch, false, row);
+                    System.arraycopy(row, 0, matrix, start * nstates, nstates);
+                }
+                entryStates[chunk] = starts;
+                transfer[chunk] = matrix;
+            } finally {
+                workspaces.offer(workspace);
+            }
+        });
+
+        // bagian: fase 2, prefix scan (max,+) vektor x matriks.
+        // entryArgmax[c][j] adalah state di akhir chunk c-1 pada path terbaik yang berakhir di state j
+        // di akhir chunk c. Jumlah chunk kecil, sehingga scan sekuensial O(chunk * S * N) sudah murah.
+        int[][] entryArgmax = new int[nchunks][];
+        double[] entry = transfer[0];
+        for (int chunk = 1; chunk < nchunks; ++chunk) {
+            double[] matrix = transfer[chunk];
+            double[] next = new double[nstates];
+            int[] argmax = new int[nstates];
+            Arrays.fill(next, Double.NEGATIVE_INFINITY);
+            Arrays.fill(argmax, HMM_UNDEFINED_STATE);
+            for (int start : entryStates[chunk]) {
+                double entryLogProb = entry[start];
+                if (entryLogProb == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                int rowOffset = start * nstates;
+                for (int state = 0; state < nstates; ++state) {
+                    double value = entryLogProb + matrix[rowOffset + state];
+                    if (value > next[state]) {
+                        next[state] = value;
+                        argmax[state] = start;
+                    }
+                }
+            }
+            transfer[chunk] = null; // matriks tidak dibutuhkan lagi
+            entryArgmax[chunk] = argmax;
+            entry = next;
+        }
+
+        int lastState = HMM_UNDEFINED_STATE;
+        double maxLogProb = Double.NEGATIVE_INFINITY;
+        for (int state = 0; state < nstates; ++state) {
+            if (entry[state] > maxLogProb) {
+                maxLogProb = entry[state];
+                lastState = state;
+            }
+        }
+        if (lastState == HMM_UNDEFINED_STATE) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        // bagian: state keluar setiap chunk, dari chunk terakhir ke chunk pertama
+        final int[] exitState = new int[nchunks];
+        exitState[nchunks - 1] = lastState;
+        for (int chunk = nchunks - 1; chunk > 0; --chunk) {
+            exitState[chunk - 1] = entryArgmax[chunk][exitState[chunk]];
+        }
+
+        // bagian: fase 3, dekode ulang dan backtrack setiap chunk dari state masuk ke state keluarnya (paralel)
+        runChunks(nchunks, chunk -> {
+            int from = chunk * chunkLength;
+            int to = Math.min(maxtime, from + chunkLength);
+            int startState = chunk == 0 ? HMM_UNDEFINED_STATE : exitState[chunk - 1];
+            DecoderWorkspace workspace = borrowWorkspace();
+            try {
+                workspace.ensureStates(nstates);
+                int[] back = workspace.ensureBackPointers(to - from, nstates);
+                viterbiRun(symbols, from, to, startState, workspace, back, true, null);
+
+                int curState = exitState[chunk];
+                for (int t = to - 1; t > from; --t) {
+                    path[t] = curState;
+                    curState = back[(t - from) * nstates + curState];
+                }
+                path[from] = curState;
+            } finally {
+                workspaces.offer(workspace);
+            }
+        });
+
+        return maxLogProb;
+    }
+
+    private double parallelForward(int[] symbols, int maxtime) throws InterruptedException {
+        final int nstates = compiled.nstates;
+        final int chunkLength = chunkLength(maxtime);
+        final int nchunks = chunkCount(maxtime, chunkLength);
+
+        // transfer[0] adalah vektor alpha ter-normalisasi di akhir chunk 0; transfer[c], c >= 1, adalah
+        // matriks (+,x) yang setiap barisnya dinormalisasi, dengan log skala baris di rowLogScale[c]
+        final double[][] transfer = new double[nchunks][];
+        final double[][] rowLogScale = new double[nchunks][];
+        final int[][] entryStates = new int[nchunks][];
+
+        // bagian: fase 1, matriks transfer setiap chunk (paralel)
+        runChunks(nchunks, chunk -> {
+            int from = chunk * chunkLength;
+            int to = Math.min(maxtime, from + chunkLength);
+            DecoderWorkspace workspace = borrowWorkspace();
+            try {
+                workspace.ensureStates(nstates);
+                if (chunk == 0) {
+                    transfer[0] = new double[nstates];
+                    rowLogScale[0] = new double[] {
+                            forwardRun(symbols, from, to, HMM_UNDEFINED_STATE, workspace, transfer[0])
+                    };
+                    return;
+                }
+
+                int[] starts = emittingStates(symbols[from - 1]);
+                double[] matrix = new double[nstates * nstates];
+                double[] logScale = new double[nstates];
+                Arrays.fill(logScale, Double.NEGATIVE_INFINITY);
+                double[] row = new double[nstates];
+                for (int start : starts) {
+                    logScale[start] = forwardRun(symbols, from, to, start, workspace, row);
+                    System.arraycopy(row, 0, matrix, start * nstates, nstates);
+                }
+                entryStates[chunk] = starts;
+                rowLogScale[chunk] = logScale;
+                transfer[chunk] = matrix;
+            } finally {
+                workspaces.offer(workspace);
+            }
+        });
+
+        // bagian: fase 2, prefix scan (+,x) vektor x matriks dengan normalisasi per chunk.
+        // Setiap baris punya skala sendiri; bobot baris digeser dengan log bobot terbesar agar tidak underflow.
+        double logLikelihood = rowLogScale[0][0];
+        if (logLikelihood == Double.NEGATIVE_INFINITY) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double[] entry = transfer[0];
+        for (int chunk = 1; chunk < nchunks; ++chunk) {
+            double[] matrix = transfer[chunk];
+            double[] logScale = rowLogScale[chunk];
+            int[] starts = entryStates[chunk];
+
+            double shift = Double.NEGATIVE_INFINITY;
+            for (int start : starts) {
+                if (entry[start] > 0.0) {
+                    shift = Math.max(shift, Math.log(entry[start]) + logScale[start]);
+                }
+            }
+            if (shift == Double.NEGATIVE_INFINITY) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            double[] next = new double[nstates];
+            for (int start : starts) {
+                if (entry[start] <= 0.0 || logScale[start] == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                double weight = Math.exp(Math.log(entry[start]) + logScale[start] - shift);
+                int rowOffset = start * nstates;
+                for (int state = 0; state < nstates; ++state) {
+                    next[state] += weight * matrix[rowOffset + state];
+                }
+            }
+
+            double sum = 0.0;
+            for (int state = 0; state < nstates; ++state) {
+                sum += next[state];
+            }
+            if (sum <= 0.0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            for (int state = 0; state < nstates; ++state) {
+                next[state] /= sum;
+            }
+
+            logLikelihood += shift + Math.log(sum);
+            transfer[chunk] = null;
+            entry = next;
+        }
+
+        return logLikelihood;
+    }
+
+    // State yang mengemisikan symbol, yaitu state yang mungkin berada di langkah dengan simbol tersebut
+    private int[] emittingStates(int symbol) {
+        if (!compiled.hasDenseEmission()) {
+            return Arrays.copyOfRange(compiled.columnState,
+                    compiled.columnStart[symbol], compiled.columnStart[symbol + 1]);
+        }
+
+        int nstates = compiled.nstates;
+        int offset = compiled.emissionOffset(symbol);
+        int[] states = new int[nstates];
+        int count = 0;
+        for (int state = 0; state < nstates; ++state) {
+            if (compiled.emission[offset + state] > 0.0) {
+                states[count++] = state;
+            }
+        }
+        return Arrays.copyOf(states, count);
+    }
+
+    /**
+     * DP Viterbi atas langkah from..to-1. Jika startState undefined, langkah from adalah langkah 0
+     * (berasal dari state begin); selain itu DP dimulai dari startState di langkah from-1 dengan log
+     * probabilitas 0. Backpointer langkah t disimpan di back[(t - from) * nstates + j] jika storeBack,
+     * selain itu baris 0 ditimpa setiap langkah.
+     *
+     * @param out Tujuan baris log probabilitas langkah to-1, boleh null.
+     */
+    private void viterbiRun(int[] symbols, int from, int to, int startState,
+                            DecoderWorkspace workspace, int[] back, boolean storeBack, double[] out) {
+        int nstates = compiled.nstates;
+        double[] prevLogProbability = workspace.prevRow;
+        double[] curLogProbability = workspace.curRow;
+        boolean fromBegin = startState == HMM_UNDEFINED_STATE;
+        if (!fromBegin) {
+            Arrays.fill(prevLogProbability, 0, nstates, Double.NEGATIVE_INFINITY);
+            prevLogProbability[startState] = 0.0;
+        }
+
+        for (int t = from; t < to; ++t) {
+            Algorithms.viterbiStep(compiled, symbols[t], prevLogProbability, curLogProbability,
+                    back, storeBack ? (t - from) * nstates : 0, fromBegin && t == from);
+
+            double[] tmp = prevLogProbability;
+            prevLogProbability = curLogProbability;
+            curLogProbability = tmp;
+        }
+
+        if (out != null) {
+            System.arraycopy(prevLogProbability, 0, out, 0, nstates);
+        }
+    }
+
+    /**
+     * Forward ter-skala atas langkah from..to-1, dimulai dari state begin (startState undefined)
+     * atau dari startState di langkah from-1 dengan probabilitas 1. Baris alpha langkah to-1
+     * (ternormalisasi, jumlahnya 1) disalin ke out.
+     *
+     * @return Jumlah log koefisien skala, atau -Infinity jika probabilitasnya nol.
+     */
+    private double forwardRun(int[] symbols, int from, int to, int startState,
+                              DecoderWorkspace workspace, double[] out) {
+        int nstates = compiled.nstates;
+        workspace.ensureStates(nstates);
+        double[] prevRow = workspace.prevRow;
+        double[] curRow = workspace.curRow;
+        boolean fromBegin = startState == HMM_UNDEFINED_STATE;
+        if (!fromBegin) {
+            Arrays.fill(prevRow, 0, nstates, 0.0);
+            prevRow[startState] = 1.0;
+        }
+
+        double logScale = 0.0;
+        for (int t = from; t < to; ++t) {
+            double stepSum = Algorithms.forwardStep(compiled, symbols[t], prevRow, curRow, fromBegin && t == from);
+            if (stepSum <= 0.0) {
+                Arrays.fill(out, 0, nstates, 0.0);
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            logScale += Math.log(stepSum);
+            for (int state = 0; state < nstates; ++state) {
+                curRow[state] /= stepSum;
+            }
+
+            double[] tmp = prevRow;
+            prevRow = curRow;
+            curRow = tmp;
+        }
+
+        System.arraycopy(prevRow, 0, out, 0, nstates);
+        return logScale;
+    }
+
+    private DecoderWorkspace borrowWorkspace() {
+        DecoderWorkspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new DecoderWorkspace();
+    }
+
+    // Menjalankan task untuk setiap chunk di executor dan menunggu semuanya selesai
+    private void runChunks(int nchunks, IntConsumer task) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(nchunks);
+        for (int chunk = 0; chunk < nchunks; ++chunk) {
+            final int index = chunk;
+            futures.add(executor.submit(() -> task.accept(index)));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parallel scan decoding failed", cause);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hmm.algorithms;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Penerima hasil forward-backward per langkah, dipanggil berurutan dari langkah 0.
+ * Semua array dipakai ulang oleh pemanggil dan hanya valid selama pemanggilan;
+ * salin isinya jika perlu disimpan.
+ */
+public interface PosteriorListener {
+    /**
+     * @param step Langkah waktu t.
+     * @param symbol Indeks simbol yang diobservasi pada langkah t.
+     * @param alpha alpha ter-skala pada langkah t (jumlahnya 1).
+     * @param beta beta pada langkah t, dinormalisasi per langkah (jumlahnya 1).
+     * @param gamma Probabilitas posterior P(q_t = i | O) (jumlahnya 1).
+     */
+    void onStep(int step, int symbol, double[] alpha, double[] beta, double[] gamma);
+}
@@ -0,0 +1,491 @@
+package hmm.algorithms;
+
+import hmm.data.CompiledModel;
+import hmm.data.Model;
+import hmm.data.TransitionGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * PosteriorListener yang menulis hasil forward-backward per langkah ke channel NIO, chunk demi chunk
+ * lewat satu buffer tetap: state posterior gamma (semua state atau hanya top-k), entropi dan
+ * keyakinan (probabilitas state terbaik), serta xi(t-1, i, j) = P(q_(t-1) = i, q_t = j | O) per
+ * transisi non-nol dan total ekspektasi jumlah transisi. Langkah 0 memakai transisi dari state
+ * 'begin', seperti forward dan BaumWelchTrainer.
+ * <p>
+ * Dipakai bersama CheckpointedForwardBackward.run, sehingga memori writer tetap O(N + jumlah edge)
+ * berapa pun panjang urutannya (forward-backward sendiri O(sqrt(T) * N)):
+ * <pre>
+ *     try (PosteriorWriter writer = PosteriorWriter.open(model, compiled, path, PosteriorWriter.Format.BINARY)) {
+ *         writer.topK = 3;
+ *         CheckpointedForwardBackward.run(compiled, data, 0, writer);
+ *     }
+ * </pre>
+ * Format BINARY (little-endian, magic "HMMP"):
+ *   int32 magic, int32 versi, int32 flags, int32 nstates, int32 k (nilai gamma per langkah),
+ *   int32 nedges, lalu (int32 asal, int32 tujuan) per edge jika ada flag transisi.
+ *   Setiap langkah: int32 step, int32 argmax, real keyakinan, [real entropi],
+ *   [gamma: real[k], atau k pasangan (int32 state, real prob) untuk top-k], [xi: real[nedges]].
+ *   real adalah float64, atau float32 dengan FLAG_SINGLE_PRECISION.
+ *   Jika FLAG_EXPECTED_TRANSITIONS: penutup int32 -1 lalu float64[nedges] total xi.
+ * Format CSV: satu baris header lalu satu baris per langkah dengan kolom yang sama;
+ * total ekspektasi transisi hanya tersedia lewat expectedTransitionCounts().
+ * <p>
+ * Satu writer untuk satu urutan dan satu thread. Field konfigurasi harus diatur sebelum langkah pertama.
+ */
+public class PosteriorWriter implements PosteriorListener, Closeable {
+
+    /// Format keluaran
+    public enum Format {
+        /// record biner berukuran tetap (lihat dokumentasi kelas)
+        BINARY,
+        /// teks CSV dengan header
+        CSV
+    }
+
+    static final int MAGIC = 0x504D4D48; // "HMMP" dalam little-endian
+    static final int VERSION = 1;
+
+    static final int FLAG_GAMMA = 1;
+    static final int FLAG_TOP_K = 2;
+    static final int FLAG_ENTROPY = 4;
+    static final int FLAG_STEP_TRANSITIONS = 8;
+    static final int FLAG_EXPECTED_TRANSITIONS = 16;
+    static final int FLAG_SINGLE_PRECISION = 32;
+
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+
+    /// tulis gamma per langkah
+    public boolean writeGamma = true;
+
+    /// jika > 0 (dan kurang dari nstates), hanya k state dengan gamma terbesar yang ditulis per langkah
+    public int topK = 0;
+
+    /// tulis entropi posterior per langkah (dalam nat)
+    public boolean writeEntropy = true;
+
+    /// tulis xi(t-1, i, j) untuk setiap transisi non-nol di setiap langkah
+    public boolean writeStepTransitions = false;
+
+    /// akumulasikan total xi per transisi (ekspektasi jumlah transisi) dan tulis sebagai penutup
+    public boolean expectedTransitions = false;
+
+    /// simpan nilai real sebagai float32 (hanya format BINARY)
+    public boolean singlePrecision = false;
+
+    private final CompiledModel compiled;
+    private final List<String> stateNames;
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer;
+
+    private boolean started;
+    private boolean closed;
+    private int nextStep;
+    private int k;
+    private int selected; // jumlah state terbaik yang dicari per langkah: k untuk top-k, 1 (argmax) selain itu
+
+    // Buffer kerja, dialokasikan sekali saat langkah pertama
+    private double[] prevAlpha;
+    private double[] emittedBeta;
+    private double[] stepTransitions;
+    private double[] transitionTotals;
+    private int[] topStates;
+    private double[] topProbs;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * @param model Model asal (untuk nama state di header CSV).
+     * @param compiled Model terkompilasi yang sama dengan yang dipakai forward-backward.
+     * @param channel Tujuan keluaran; ditutup oleh close().
+     * @param format Format keluaran.
+     * @throws IllegalArgumentException Jika model memakai emisi kontinu.
+     */
+    public PosteriorWriter(Model model, CompiledModel compiled, WritableByteChannel channel, Format format) {
+        this(model, compiled, channel, format, DEFAULT_BUFFER_BYTES);
+    }
+
+    public PosteriorWriter(Model model, CompiledModel compiled, WritableByteChannel channel, Format format, int bufferBytes) {
+        if (compiled.isContinuous()) {
+            throw new IllegalArgumentException("Posterior writer requires a model with discrete emissions.");
+        }
+        if (bufferBytes < 16) {
+            throw new IllegalArgumentException("Buffer of " + bufferBytes + " bytes is too small");
+        }
+        this.compiled = compiled;
+        this.stateNames = model.stateIndexToName;
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Membuka (atau menimpa) file tujuan.
+     */
+    public static PosteriorWriter open(Model model, CompiledModel compiled, Path path, Format format) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new PosteriorWriter(model, compiled, channel, format);
+    }
+
+    /**
+     * Jumlah langkah yang sudah ditulis.
+     */
+    public int steps() {
+        return nextStep;
+    }
+
+    /**
+     * Total xi per transisi sejauh ini: element[i][j] adalah ekspektasi jumlah transisi i -> j.
+     *
+     * @throws IllegalArgumentException Jika expectedTransitions tidak diaktifkan.
+     */
+    public double[][] expectedTransitionCounts() {
+        if (!expectedTransitions) {
+            throw new IllegalArgumentException("Expected transition counts are not enabled");
+        }
+        TransitionGraph graph = compiled.graph;
+        double[][] counts = new double[graph.nstates][graph.nstates];
+        if (transitionTotals != null) {
+            for (int state = 0; state < graph.nstates; ++state) {
+                for (int edge = graph.outStart[state]; edge < graph.outStart[state + 1]; ++edge) {
+                    counts[state][graph.outTarget[edge]] = transitionTotals[edge];
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void onStep(int step, int symbol, double[] alpha, double[] beta, double[] gamma) {
+        if (closed) {
+            throw new IllegalArgumentException("Posterior writer is closed");
+        }
+        if (step != nextStep) {
+            throw new IllegalArgumentException("Expected step " + nextStep + " but got " + step + "; use one writer per sequence");
+        }
+        try {
+            if (!started) {
+                start();
+            }
+            if (writeStepTransitions || expectedTransitions) {
+                computeTransitions(symbol, beta);
+            }
+            if (format == Format.BINARY) {
+                writeBinaryStep(step, gamma);
+            } else {
+                writeCsvStep(step, gamma);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.arraycopy(alpha, 0, prevAlpha, 0, prevAlpha.length);
+        ++nextStep;
+    }
+
+    /**
+     * Menulis penutup (jika ada), mengosongkan buffer, lalu menutup channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!started) {
+                start();
+            }
+            if (format == Format.BINARY && expectedTransitions) {
+                putInt(-1);
+                for (double total : transitionTotals) {
+                    putDouble(total);
+                }
+            }
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // bagian: per langkah
+
+    private void start() throws IOException {
+        started = true;
+        int nstates = compiled.nstates;
+        TransitionGraph graph = compiled.graph;
+        k = topK > 0 && topK < nstates ? topK : nstates;
+        selected = writeGamma && k < nstates ? k : 1;
+
+        prevAlpha = new double[nstates];
+        prevAlpha[0] = 1.0; // Sebelum langkah 0 semua massa ada di state 'begin'
+        if (writeStepTransitions || expectedTransitions) {
+            emittedBeta = new double[nstates];
+            stepTransitions = new double[graph.nedges];
+        }
+        if (expectedTransitions) {
+            transitionTotals = new double[graph.nedges];
+        }
+        topStates = new int[selected];
+        topProbs = new double[selected];
+
+        if (format == Format.BINARY) {
+            writeBinaryHeader();
+        } else {
+            writeCsvHeader();
+        }
+    }
+
+    // xi(t-1, i, j) sebanding dengan alpha(t-1, i) * a(i, j) * b(j, o_t) * beta(t, j), dinormalisasi per langkah
+    private void computeTransitions(int symbol, double[] beta) {
+        TransitionGraph graph = compiled.graph;
+        System.arraycopy(beta, 0, emittedBeta, 0, emittedBeta.length);
+        Algorithms.scaleByEmission(compiled, symbol, emittedBeta, 1.0);
+
+        double sum = 0.0;
+        for (int state = 0; state < graph.nstates; ++state) {
+            double from = prevAlpha[state];
+            for (int edge = graph.outStart[state], end = graph.outStart[state + 1]; edge < end; ++edge) {
+                double value = from * graph.outProb[edge] * emittedBeta[graph.outTarget[edge]];
+                stepTransitions[edge] = value;
+                sum += value;
+            }
+        }
+        for (int edge = 0; edge < stepTransitions.length; ++edge) {
+            stepTransitions[edge] /= sum;
+        }
+        if (transitionTotals != null) {
+            for (int edge = 0; edge < stepTransitions.length; ++edge) {
+                transitionTotals[edge] += stepTransitions[edge];
+            }
+        }
+    }
+
+    // Mengisi topStates/topProbs dengan state bergamma terbesar (urut menurun, indeks kecil lebih dulu jika seri)
+    private void selectTop(double[] gamma) {
+        int filled = 0;
+        for (int state = 0; state < gamma.length; ++state) {
+            double value = gamma[state];
+            if (filled == selected && value <= topProbs[selected - 1]) {
+                continue;
+            }
+            int pos = filled < selected ? filled++ : selected - 1;
+            while (pos > 0 && topProbs[pos - 1] < value) {
+                topProbs[pos] = topProbs[pos - 1];
+                topStates[pos] = topStates[pos - 1];
+                --pos;
+            }
+            topProbs[pos] = value;
+            topStates[pos] = state;
+        }
+    }
+
+    private static double entropy(double[] gamma) {
+        double entropy = 0.0;
+        for (double value : gamma) {
+            if (value > 0.0) {
+                entropy -= value * Math.log(value);
+            }
+        }
+        return entropy;
+    }
+
+    // bagian: format biner
+
+    private int flags() {
+        int flags = 0;
+        if (writeGamma) {
+            flags |= k < compiled.nstates ? FLAG_GAMMA | FLAG_TOP_K : FLAG_GAMMA;
+        }
+        if (writeEntropy) {
+            flags |= FLAG_ENTROPY;
+        }
+        if (writeStepTransitions) {
+            flags |= FLAG_STEP_TRANSITIONS;
+        }
+        if (expectedTransitions) {
+            flags |= FLAG_EXPECTED_TRANSITIONS;
+        }
+        if (singlePrecision) {
+            flags |= FLAG_SINGLE_PRECISION;
+        }
+        return flags;
+    }
+
+    private void writeBinaryHeader() throws IOException {
+        TransitionGraph graph = compiled.graph;
+        putInt(MAGIC);
+        putInt(VERSION);
+        putInt(flags());
+        putInt(compiled.nstates);
+        putInt(writeGamma ? k : 0);
+        putInt(graph.nedges);
+        if (writeStepTransitions || expectedTransitions) {
+            for (int state = 0; state < graph.nstates; ++state) {
+                for (int edge = graph.outStart[state]; edge < graph.outStart[state + 1]; ++edge) {
+                    putInt(state);
+                    putInt(graph.outTarget[edge]);
+                }
+            }
+        }
+    }
+
+    private void writeBinaryStep(int step, double[] gamma) throws IOException {
+        selectTop(gamma);
+        putInt(step);
+        putInt(topStates[0]);
+        putReal(topProbs[0]);
+        if (writeEntropy) {
+            putReal(entropy(gamma));
+        }
+        if (writeGamma) {
+            if (k < gamma.length) {
+                for (int i = 0; i < k; ++i) {
+                    putInt(topStates[i]);
+                    putReal(topProbs[i]);
+                }
+            } else {
+                for (double value : gamma) {
+                    putReal(value);
+                }
+            }
+        }
+        if (writeStepTransitions) {
+            for (double value : stepTransitions) {
+                putReal(value);
+            }
+        }
+    }
+
+    // bagian: format CSV
+
+    private void writeCsvHeader() throws IOException {
+        TransitionGraph graph = compiled.graph;
+        line.setLength(0);
+        line.append("step,argmax,confidence");
+        if (writeEntropy) {
+            line.append(",entropy");
+        }
+        if (writeGamma) {
+            if (k < compiled.nstates) {
+                for (int i = 1; i <= k; ++i) {
+                    line.append(",top").append(i).append("_state,top").append(i).append("_prob");
+                }
+            } else {
+                for (String name : stateNames) {
+                    line.append(",gamma_").append(name);
+                }
+            }
+        }
+        if (writeStepTransitions) {
+            for (int state = 0; state < graph.nstates; ++state) {
+                for (int edge = graph.outStart[state]; edge < graph.outStart[state + 1]; ++edge) {
+                    line.append(",xi_").append(stateNames.get(state)).append('_').append(stateNames.get(graph.outTarget[edge]));
+                }
+            }
+        }
+        line.append('\n');
+        putBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeCsvStep(int step, double[] gamma) throws IOException {
+        selectTop(gamma);
+        line.setLength(0);
+        line.append(step).append(',').append(stateNames.get(topStates[0])).append(',').append(topProbs[0]);
+        if (writeEntropy) {
+            line.append(',').append(entropy(gamma));
+        }
+        if (writeGamma) {
+            if (k < gamma.length) {
+                for (int i = 0; i < k; ++i) {
+                    line.append(',').append(stateNames.get(topStates[i])).append(',').append(topProbs[i]);
+                }
+            } else {
+                for (double value : gamma) {
+                    line.append(',').append(value);
+                }
+            }
+        }
+        if (writeStepTransitions) {
+            for (double value : stepTransitions) {
+                line.append(',').append(value);
+            }
+        }
+        line.append('\n');
+        putChars(line);
+    }
+
+    // bagian: buffer
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    private void putReal(double value) throws IOException {
+        if (singlePrecision) {
+            ensure(4);
+            buffer.putFloat((float) value);
+        } else {
+            putDouble(value);
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    // Baris data hanya berisi angka dan nama state; nama non-ASCII dikodekan lewat putBytes
+    private void putChars(CharSequence chars) throws IOException {
+        int length = chars.length();
+        for (int i = 0; i < length; ++i) {
+            if (chars.charAt(i) >= 0x80) {
+                putBytes(chars.toString().getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        for (int i = 0; i < length; ++i) {
+            ensure(1);
+            buffer.put((byte) chars.charAt(i));
+        }
+    }
+}
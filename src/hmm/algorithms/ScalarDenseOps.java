@@ -0,0 +1,35 @@
+package hmm.algorithms;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Implementasi skalar DenseOps. Urutan penjumlahan dan aturan tie (indeks pertama) sama dengan
+ * loop CSR, sehingga hasilnya identik dengan jalur graf jarang.
+ */
+final class ScalarDenseOps implements DenseOps {
+    @Override
+    public double dot(double[] matrix, int offset, double[] vector, int length) {
+        double sum = 0.0;
+        for (int i = 0; i < length; ++i) {
+            sum += matrix[offset + i] * vector[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int argmaxSum(double[] matrix, int offset, double[] vector, int length) {
+        double best = Double.NEGATIVE_INFINITY;
+        int bestIndex = -1;
+        for (int i = 0; i < length; ++i) {
+            double value = matrix[offset + i] + vector[i];
+            if (value > best) {
+                best = value;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+}
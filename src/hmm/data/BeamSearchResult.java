@@ -0,0 +1,70 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class BeamSearchResult {
+    /// urutan state terbaik di antara jalur yang bertahan; array kosong jika semua jalur terpangkas
+    /// atau observasi mustahil menurut model
+    public final int[] path;
+
+    /// log probabilitas path (-Infinity jika path kosong); batas bawah dari skor Viterbi penuh
+    public final double logProbability;
+
+    /// jumlah langkah yang diproses
+    public final int steps;
+
+    /// jumlah transisi (out-edge dari state aktif) yang dievaluasi di semua langkah
+    public final long evaluatedTransitions;
+
+    /// jumlah state aktif yang dipertahankan, dijumlahkan untuk semua langkah
+    public final long activeStates;
+
+    /// jumlah state aktif terbanyak dalam satu langkah
+    public final int peakActiveStates;
+
+    /// jumlah kandidat yang dibuang karena log probabilitasnya di luar logBeamWidth dari yang terbaik
+    public final long prunedByThreshold;
+
+    /// jumlah kandidat yang dibuang karena melebihi maxActiveStates
+    public final long prunedByWidth;
+
+    public BeamSearchResult(int[] path, double logProbability, int steps, long evaluatedTransitions,
+                            long activeStates, int peakActiveStates, long prunedByThreshold, long prunedByWidth) {
+        this.path = path;
+        this.logProbability = logProbability;
+        this.steps = steps;
+        this.evaluatedTransitions = evaluatedTransitions;
+        this.activeStates = activeStates;
+        this.peakActiveStates = peakActiveStates;
+        this.prunedByThreshold = prunedByThreshold;
+        this.prunedByWidth = prunedByWidth;
+    }
+
+    /**
+     * Rata-rata jumlah state aktif per langkah.
+     */
+    public double averageActiveStates() {
+        return steps == 0 ? 0.0 : (double) activeStates / steps;
+    }
+
+    /**
+     * Fraksi kandidat (state yang dapat dicapai dari state aktif) yang dipangkas.
+     */
+    public double prunedFraction() {
+        long candidates = activeStates + prunedByThreshold + prunedByWidth;
+        return candidates == 0 ? 0.0 : (double) (prunedByThreshold + prunedByWidth) / candidates;
+    }
+
+    @Override
+    public String toString() {
+        return "Steps=" + steps +
+                ", Evaluated Transitions=" + evaluatedTransitions +
+                ", Average Active States=" + String.format("%.2f", averageActiveStates()) +
+                ", Peak Active States=" + peakActiveStates +
+                ", Pruned By Threshold=" + prunedByThreshold +
+                ", Pruned By Width=" + prunedByWidth +
+                ", log-probability=" + logProbability;
+    }
+}
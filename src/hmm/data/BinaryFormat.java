@@ -0,0 +1,410 @@
+package hmm.data;
+
+import hmm.metrics.Metrics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Format biner ringkas (little-endian) untuk model dan data observasi.
+ *
+ * Model (magic "HMMM"):
+ *   int32 magic, int32 versi, int32 nstates, int32 alphabetSize, int32 panjang blok nama (byte),
+ *   blok nama (int32 panjang + byte UTF-8 per state, diberi padding ke kelipatan 8),
+ *   float64[nstates * nstates] transitionProb, float64[nstates * alphabetSize] stateSymbolProb.
+ *
+ * Data (magic "HMMD"):
+ *   int32 magic, int32 versi, int32 flags, int32 nsequences, int32 nstates, int32 alphabetSize,
+ *   int64 totalSteps, int64[nsequences + 1] offset langkah awal tiap urutan (jika FLAG_SEQUENCE_INDEX),
+ *   lalu kolom int32[totalSteps] waktu (dilewati jika FLAG_IMPLICIT_TIMES), int32[totalSteps] indeks state,
+ *   dan indeks simbol: uint8 (FLAG_SYMBOLS_U8), uint16 (FLAG_SYMBOLS_U16) atau int32[totalSteps].
+ *   Versi 1 selalu memakai tiga kolom int32; versi 2 memakai lebar simbol yang sama seperti
+ *   ExperimentData, sehingga kolomnya bisa dibungkus langsung tanpa salinan.
+ *
+ * Data dibaca lewat MappedDataset (memory-mapped, tanpa salinan).
+ */
+public class BinaryFormat {
+    static final int MODEL_MAGIC = 0x4D4D4D48; // "HMMM" dalam little-endian
+    static final int DATA_MAGIC = 0x444D4D48;  // "HMMD" dalam little-endian
+    static final int VERSION = 1;
+    static final int DATA_VERSION = 2;
+
+    /// flag: file data memiliki indeks offset per urutan
+    static final int FLAG_SEQUENCE_INDEX = 1;
+
+    /// flag (versi 2): nomor waktu sama dengan indeks langkah dalam urutan, kolom waktu tidak ditulis
+    static final int FLAG_IMPLICIT_TIMES = 2;
+
+    /// flag (versi 2): lebar kolom simbol; tanpa keduanya int32
+    static final int FLAG_SYMBOLS_U8 = 4;
+    static final int FLAG_SYMBOLS_U16 = 8;
+
+    static final int DATA_HEADER_BYTES = 32;
+
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Mengecek apakah file diawali magic model biner.
+     */
+    public static boolean isBinaryModel(Path path) throws IOException {
+        return readMagic(path) == MODEL_MAGIC;
+    }
+
+    /**
+     * Mengecek apakah file diawali magic data biner.
+     */
+    public static boolean isBinaryData(Path path) throws IOException {
+        return readMagic(path) == DATA_MAGIC;
+    }
+
+    // Dibuka lewat FileInputStream agar file yang tidak ada melempar FileNotFoundException
+    // dengan pesan yang sama seperti saat file teks dibuka (mis. "x (No such file or directory)")
+    private static int readMagic(Path path) throws IOException {
+        try (InputStream in = new FileInputStream(path.toFile())) {
+            byte[] magic = new byte[4];
+            for (int read = 0; read < magic.length; ) {
+                int n = in.read(magic, read, magic.length - read);
+                if (n < 0) {
+                    return 0;
+                }
+                read += n;
+            }
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        }
+    }
+
+    /**
+     * Menulis model ke file biner.
+     *
+     * @throws IllegalArgumentException Jika model memakai alphabet token (kamus simbol dan emisi jarang)
+     *                                  atau emisi kontinu, yang belum didukung format biner.
+     */
+    public static void writeModel(Model model, Path path) throws IOException {
+        if (model.symbols != null || model.stateSymbolProb == null) {
+            throw new IllegalArgumentException("The binary model format only supports single-letter alphabets with a dense emission table.");
+        }
+        int nstates = model.stateIndexToName.size();
+        List<byte[]> names = new ArrayList<>(nstates);
+        int namesBytes = 0;
+        for (String name : model.stateIndexToName) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            names.add(encoded);
+            namesBytes += 4 + encoded.length;
+        }
+        int padding = (8 - (20 + namesBytes) % 8) % 8;
+
+        try (LittleEndianWriter out = new LittleEndianWriter(path)) {
+            out.putInt(MODEL_MAGIC);
+            out.putInt(VERSION);
+            out.putInt(nstates);
+            out.putInt(model.alphabetSize);
+            out.putInt(namesBytes + padding);
+            for (byte[] name : names) {
+                out.putInt(name.length);
+                out.putBytes(name);
+            }
+            out.putBytes(new byte[padding]);
+            for (int i = 0; i < nstates; ++i) {
+                for (int j = 0; j < nstates; ++j) {
+                    out.putDouble(model.transitionProb[i][j]);
+                }
+            }
+            for (int i = 0; i < nstates; ++i) {
+                for (int k = 0; k < model.alphabetSize; ++k) {
+                    out.putDouble(model.stateSymbolProb[i][k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Membaca model dari file biner dengan validasi yang sama seperti Model.readModel.
+     *
+     * @throws IllegalArgumentException Jika file bukan model biner atau isinya tidak valid.
+     */
+    public static Model readModel(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return readModel(buffer, path);
+    }
+
+    /**
+     * Sama seperti readModel(path), tetapi dari isi file yang sudah dibaca ke memori
+     * (mis. agar hash dan model berasal dari bytes yang sama).
+     *
+     * @param content Isi file model biner.
+     * @param path File asal, hanya untuk pesan kesalahan.
+     */
+    public static Model readModel(byte[] content, Path path) {
+        return readModel(ByteBuffer.wrap(content), path);
+    }
+
+    /**
+     * Mengecek apakah isi file diawali magic model biner.
+     */
+    public static boolean isBinaryModel(byte[] content) {
+        return content.length >= 4
+                && ByteBuffer.wrap(content, 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() == MODEL_MAGIC;
+    }
+
+    private static Model readModel(ByteBuffer buffer, Path path) {
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MODEL_MAGIC) {
+                throw new IllegalArgumentException("Not a binary model file: " + path);
+            }
+            checkVersion(buffer.getInt(), path);
+
+            int nstates = buffer.getInt();
+            if (nstates < 2) {
+                throw new IllegalArgumentException("There must be at least two states: begin and end");
+            }
+
+            // bagian: semua ukuran di header dicek terhadap sisa file sebelum array dialokasikan
+            Model model = new Model();
+            model.alphabetSize = checkCount(buffer.getInt(), "alphabet size", path);
+            int namesLength = checkLength(buffer.getInt(), buffer.remaining(), "state name block", path);
+            if ((long) nstates + model.alphabetSize > (buffer.remaining() - namesLength) / 8 / nstates) {
+                throw new IllegalArgumentException("Truncated binary model file: " + path);
+            }
+            int namesEnd = namesLength + buffer.position();
+            model.stateNameToIndex = new HashMap<>();
+            model.stateIndexToName = new ArrayList<>(nstates);
+            for (int i = 0; i < nstates; ++i) {
+                byte[] name = new byte[checkLength(buffer.getInt(), namesEnd - buffer.position(), "state name", path)];
+                buffer.get(name);
+                String stateName = new String(name, StandardCharsets.UTF_8);
+                model.stateNameToIndex.put(stateName, i);
+                model.stateIndexToName.add(stateName);
+            }
+            buffer.position(namesEnd);
+
+            model.transitionProb = new double[nstates][nstates];
+            for (int i = 0; i < nstates; ++i) {
+                buffer.asDoubleBuffer().get(model.transitionProb[i]);
+                buffer.position(buffer.position() + nstates * 8);
+            }
+            model.stateSymbolProb = new double[nstates][model.alphabetSize];
+            for (int i = 0; i < nstates; ++i) {
+                buffer.asDoubleBuffer().get(model.stateSymbolProb[i]);
+                buffer.position(buffer.position() + model.alphabetSize * 8);
+            }
+
+            // bagian: validasi struktur sama seperti format teks
+            for (int i = 0; i < nstates; ++i) {
+                if (model.transitionProb[nstates - 1][i] != 0.0) {
+                    throw new IllegalArgumentException("Transition from the ending state is forbidden (state: " + model.stateIndexToName.get(nstates - 1) + ")");
+                }
+                if (model.transitionProb[i][0] != 0.0) {
+                    throw new IllegalArgumentException("Transition to the starting state is forbidden (state: " + model.stateIndexToName.get(0) + ")");
+                }
+            }
+            Metrics.record(Metrics.Stage.PARSE_MODEL, startNanos, startBytes, 0);
+            return model;
+        } catch (java.nio.BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated binary model file: " + path);
+        }
+    }
+
+    /**
+     * Menulis satu atau lebih urutan observasi ke file data biner beserta indeks offset per urutan.
+     *
+     * @param model Model yang dipakai untuk membaca urutan (untuk jumlah state dan alphabet).
+     * @param sequences Urutan observasi.
+     * @param path File tujuan.
+     */
+    public static void writeExperimentData(Model model, List<ExperimentData> sequences, Path path) throws IOException {
+        long totalSteps = 0;
+        boolean implicitTimes = true;
+        for (ExperimentData data : sequences) {
+            totalSteps += data.size();
+            implicitTimes &= data.hasImplicitTimes();
+        }
+        int symbolBytes = symbolBytes(model.alphabetSize);
+        int flags = FLAG_SEQUENCE_INDEX
+                | (implicitTimes ? FLAG_IMPLICIT_TIMES : 0)
+                | (symbolBytes == 1 ? FLAG_SYMBOLS_U8 : symbolBytes == 2 ? FLAG_SYMBOLS_U16 : 0);
+
+        try (LittleEndianWriter out = new LittleEndianWriter(path)) {
+            out.putInt(DATA_MAGIC);
+            out.putInt(DATA_VERSION);
+            out.putInt(flags);
+            out.putInt(sequences.size());
+            out.putInt(model.stateIndexToName.size());
+            out.putInt(model.alphabetSize);
+            out.putLong(totalSteps);
+
+            long offset = 0;
+            out.putLong(offset);
+            for (ExperimentData data : sequences) {
+                offset += data.size();
+                out.putLong(offset);
+            }
+
+            // bagian: kolom waktu (jika perlu), state, lalu simbol
+            if (!implicitTimes) {
+                for (ExperimentData data : sequences) {
+                    for (int t = 0; t < data.size(); ++t) {
+                        out.putInt(data.time(t));
+                    }
+                }
+            }
+            for (ExperimentData data : sequences) {
+                for (int t = 0; t < data.size(); ++t) {
+                    out.putInt(data.state(t));
+                }
+            }
+            for (ExperimentData data : sequences) {
+                for (int t = 0; t < data.size(); ++t) {
+                    int symbol = data.symbol(t);
+                    if (symbolBytes == 1) {
+                        out.putByte(symbol);
+                    } else if (symbolBytes == 2) {
+                        out.putShort(symbol);
+                    } else {
+                        out.putInt(symbol);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lebar kolom simbol (byte) untuk alphabet tertentu, sama seperti kolom ExperimentData.
+     */
+    static int symbolBytes(int alphabetSize) {
+        return alphabetSize <= 1 << 8 ? 1 : alphabetSize <= 1 << 16 ? 2 : 4;
+    }
+
+    /**
+     * Memastikan jumlah dari header tidak negatif.
+     *
+     * @throws IllegalArgumentException Jika value negatif (file rusak).
+     */
+    static int checkCount(int value, String what, Path path) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Corrupt binary file " + path + ": negative " + what + " (" + value + ")");
+        }
+        return value;
+    }
+
+    /**
+     * Memastikan panjang blok (byte) dari header tidak negatif dan muat di sisa file.
+     *
+     * @throws IllegalArgumentException Jika panjangnya negatif atau melebihi available.
+     */
+    static int checkLength(int value, long available, String what, Path path) {
+        checkCount(value, what + " length", path);
+        if (value > available) {
+            throw new IllegalArgumentException("Truncated binary file " + path + ": " + what + " of " + value + " bytes");
+        }
+        return value;
+    }
+
+    static void checkVersion(int version, Path path) {
+        checkVersion(version, VERSION, path);
+    }
+
+    static void checkVersion(int version, int latest, Path path) {
+        if (version < VERSION || version > latest) {
+            throw new IllegalArgumentException("Unsupported binary format version " + version + " in " + path);
+        }
+    }
+
+    /**
+     * Penulis little-endian dengan buffer tetap di atas FileChannel.
+     */
+    private static class LittleEndianWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        LittleEndianWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putShort(int value) throws IOException {
+            ensure(2);
+            buffer.putShort((short) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int pos = 0; pos < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - pos);
+                buffer.put(bytes, pos, length);
+                pos += length;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    static MappedByteBuffer mapReadOnly(FileChannel channel, long position, long size, Path path) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column of " + size + " bytes in " + path + " is too large to map; split the data into several files");
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+}
@@ -0,0 +1,214 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Bentuk terkompilasi dari Model yang dipakai oleh semua kernel dekoding: graf transisi
+ * (TransitionGraph) ditambah tabel emisi yang disusun ulang per simbol. Kolom emisi satu simbol
+ * untuk semua state berada berurutan di memori (emission[s * nstates + j]), sehingga setiap
+ * langkah membaca satu blok contiguous, bukan satu elemen dari setiap baris stateSymbolProb.
+ * Bentuk log dihitung sekali di sini, bukan sekali per pemanggilan Viterbi.
+ * Untuk alphabet besar (lebih dari DENSE_EMISSION_MAX_CELLS sel) kolom disimpan jarang:
+ * hanya state yang mengemisikan simbol tersebut (columnStart, columnState, columnProb),
+ * dan kernel melewati state lain di langkah itu.
+ * Untuk model dengan emisi kontinu hanya graf transisi dan continuousEmissions yang terisi
+ * (alphabetSize 0, tanpa tabel emisi diskrit).
+ * Dimensi tabel divalidasi saat kompilasi, jadi kernel hanya perlu memvalidasi indeks simbol.
+ * Objek ini immutable setelah dibuat (array publiknya tidak boleh diubah) dan aman dipakai
+ * bersama oleh banyak thread; perubahan pada Model setelah kompilasi tidak terlihat di sini.
+ */
+public class CompiledModel {
+    /// di atas jumlah sel ini (nstates * alphabetSize) emisi dikompilasi dalam bentuk kolom jarang
+    public static final int DENSE_EMISSION_MAX_CELLS = 1 << 20;
+
+    /// jumlah state
+    public final int nstates;
+
+    /// jumlah simbol yang dapat diemisikan
+    public final int alphabetSize;
+
+    /// transisi non-nol model
+    public final TransitionGraph graph;
+
+    /// tabel emisi symbol-major: element[s * nstates + j] = stateSymbolProb[j][s]; null untuk kolom jarang
+    public final double[] emission;
+
+    /// log dari emission (probabilitas 0 menjadi -Infinity); null untuk kolom jarang
+    public final double[] logEmission;
+
+    /// state yang mengemisikan simbol s berada di indeks columnStart[s] .. columnStart[s + 1] - 1; null untuk tabel padat
+    public final int[] columnStart;
+
+    /// state setiap entri kolom, menaik di dalam satu kolom
+    public final int[] columnState;
+
+    /// probabilitas emisi setiap entri kolom
+    public final double[] columnProb;
+
+    /// log dari columnProb
+    public final double[] columnLogProb;
+
+    /// emisi kontinu model; null untuk emisi diskrit
+    public final EmissionModel continuousEmissions;
+
+    /**
+     * Mengompilasi model dengan graf transisi yang sudah ada.
+     *
+     * @param model Model HMM (tabel emisi padat maupun jarang).
+     * @param graph Hasil TransitionGraph.compile(model).
+     * @throws IllegalArgumentException Jika dimensi tabel emisi tidak cocok dengan jumlah state.
+     */
+    public CompiledModel(Model model, TransitionGraph graph) {
+        int n = graph.nstates;
+        continuousEmissions = model.continuousEmissions;
+        if (continuousEmissions != null) {
+            if (continuousEmissions.nstates() != n) {
+                throw new IllegalArgumentException("Emission model has " + continuousEmissions.nstates() + " states, expected " + n + ".");
+            }
+            nstates = n;
+            alphabetSize = 0;
+            this.graph = graph;
+            emission = null;
+            logEmission = null;
+            columnStart = null;
+            columnState = null;
+            columnProb = null;
+            columnLogProb = null;
+            return;
+        }
+
+        double[][] stateSymbolProb = model.stateSymbolProb;
+        SparseEmissions sparse = stateSymbolProb == null ? model.sparseStateSymbolProb : null;
+        int alphabet;
+        if (sparse != null) {
+            if (sparse.nstates != n) {
+                throw new IllegalArgumentException("Emission table has " + sparse.nstates + " rows, expected " + n + ".");
+            }
+            alphabet = sparse.alphabetSize;
+        } else {
+            if (stateSymbolProb == null) {
+                throw new IllegalArgumentException("Model has no emission table.");
+            }
+            if (stateSymbolProb.length != n) {
+                throw new IllegalArgumentException("Emission table has " + stateSymbolProb.length + " rows, expected " + n + ".");
+            }
+            alphabet = n > 0 ? stateSymbolProb[0].length : 0;
+            for (int state = 0; state < n; ++state) {
+                if (stateSymbolProb[state].length != alphabet) {
+                    throw new IllegalArgumentException("Emission table must have the same number of symbols for every state.");
+                }
+            }
+        }
+
+        nstates = n;
+        alphabetSize = alphabet;
+        this.graph = graph;
+
+        if ((long) n * alphabet <= DENSE_EMISSION_MAX_CELLS) {
+            // bagian: transpose ke symbol-major
+            emission = new double[n * alphabet];
+            logEmission = new double[n * alphabet];
+            for (int state = 0; state < n; ++state) {
+                if (sparse != null) {
+                    for (int entry = sparse.rowStart[state]; entry < sparse.rowStart[state + 1]; ++entry) {
+                        emission[sparse.symbols[entry] * n + state] = sparse.probs[entry];
+                    }
+                } else {
+                    double[] row = stateSymbolProb[state];
+                    for (int symbol = 0; symbol < alphabet; ++symbol) {
+                        emission[symbol * n + state] = row[symbol];
+                    }
+                }
+            }
+            for (int i = 0; i < emission.length; ++i) {
+                logEmission[i] = Math.log(emission[i]);
+            }
+            columnStart = null;
+            columnState = null;
+            columnProb = null;
+            columnLogProb = null;
+            return;
+        }
+
+        // bagian: kolom jarang per simbol (counting sort menurut simbol, state tetap menaik)
+        emission = null;
+        logEmission = null;
+        columnStart = new int[alphabet + 1];
+        int count = 0;
+        for (int state = 0; state < n; ++state) {
+            if (sparse != null) {
+                for (int entry = sparse.rowStart[state]; entry < sparse.rowStart[state + 1]; ++entry) {
+                    ++columnStart[sparse.symbols[entry] + 1];
+                    ++count;
+                }
+            } else {
+                for (int symbol = 0; symbol < alphabet; ++symbol) {
+                    if (stateSymbolProb[state][symbol] != 0.0) {
+                        ++columnStart[symbol + 1];
+                        ++count;
+                    }
+                }
+            }
+        }
+        for (int symbol = 0; symbol < alphabet; ++symbol) {
+            columnStart[symbol + 1] += columnStart[symbol];
+        }
+
+        columnState = new int[count];
+        columnProb = new double[count];
+        columnLogProb = new double[count];
+        int[] next = new int[alphabet];
+        System.arraycopy(columnStart, 0, next, 0, alphabet);
+        for (int state = 0; state < n; ++state) {
+            if (sparse != null) {
+                for (int entry = sparse.rowStart[state]; entry < sparse.rowStart[state + 1]; ++entry) {
+                    putColumnEntry(next, sparse.symbols[entry], state, sparse.probs[entry]);
+                }
+            } else {
+                for (int symbol = 0; symbol < alphabet; ++symbol) {
+                    if (stateSymbolProb[state][symbol] != 0.0) {
+                        putColumnEntry(next, symbol, state, stateSymbolProb[state][symbol]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void putColumnEntry(int[] next, int symbol, int state, double prob) {
+        int index = next[symbol]++;
+        columnState[index] = state;
+        columnProb[index] = prob;
+        columnLogProb[index] = Math.log(prob);
+    }
+
+    /**
+     * Mengompilasi transisi dan emisi dari model yang sudah dibaca.
+     */
+    public static CompiledModel compile(Model model) {
+        return new CompiledModel(model, TransitionGraph.compile(model));
+    }
+
+    /**
+     * Apakah model memakai emisi kontinu (continuousEmissions).
+     */
+    public boolean isContinuous() {
+        return continuousEmissions != null;
+    }
+
+    /**
+     * Apakah emisi disimpan sebagai tabel padat symbol-major (emission, logEmission).
+     */
+    public boolean hasDenseEmission() {
+        return emission != null;
+    }
+
+    /**
+     * Offset kolom emisi simbol di dalam emission dan logEmission (hanya untuk tabel padat).
+     */
+    public int emissionOffset(int symbol) {
+        return symbol * nstates;
+    }
+}
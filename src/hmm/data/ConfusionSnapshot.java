@@ -0,0 +1,200 @@
+package hmm.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Salinan immutable confusion matrix pada satu saat, beserta metrik per state dan rata-ratanya.
+ * Jumlah baris dan kolom dihitung sekali saat konstruksi, sehingga setiap metrik O(1)
+ * (rata-rata macro O(nstates)).
+ */
+public class ConfusionSnapshot {
+    /// jumlah state
+    public final int nstates;
+
+    /// counts[predicted * nstates + real] adalah jumlah langkah dengan prediksi predicted saat state sebenarnya real
+    private final long[] counts;
+
+    /// jumlah semua langkah yang tercatat
+    public final long total;
+
+    // rowSums[i]: jumlah prediksi state i; colSums[j]: jumlah langkah dengan state sebenarnya j
+    private final long[] rowSums;
+    private final long[] colSums;
+
+    /**
+     * @param nstates Jumlah state.
+     * @param counts Confusion matrix row-major (predicted * nstates + real); array disalin, sehingga perubahan
+     *               berikutnya pada array pemanggil tidak memengaruhi snapshot.
+     */
+    public ConfusionSnapshot(int nstates, long[] counts) {
+        if (counts.length != nstates * nstates) {
+            throw new IllegalArgumentException("Confusion counts must have " + nstates + " x " + nstates + " entries");
+        }
+        this.nstates = nstates;
+        this.counts = counts.clone();
+        this.rowSums = new long[nstates];
+        this.colSums = new long[nstates];
+
+        long sum = 0;
+        for (int predicted = 0; predicted < nstates; ++predicted) {
+            for (int real = 0; real < nstates; ++real) {
+                long count = this.counts[predicted * nstates + real];
+                rowSums[predicted] += count;
+                colSums[real] += count;
+                sum += count;
+            }
+        }
+        this.total = sum;
+    }
+
+    public long count(int predicted, int real) {
+        return counts[predicted * nstates + real];
+    }
+
+    /**
+     * Salinan confusion matrix row-major (predicted * nstates + real).
+     */
+    public long[] counts() {
+        return counts.clone();
+    }
+
+    public long truePositives(int state) {
+        return counts[state * nstates + state];
+    }
+
+    public long falsePositives(int state) {
+        return rowSums[state] - truePositives(state);
+    }
+
+    public long falseNegatives(int state) {
+        return colSums[state] - truePositives(state);
+    }
+
+    public long trueNegatives(int state) {
+        return total - rowSums[state] - colSums[state] + truePositives(state);
+    }
+
+    /**
+     * TP / (TP + FP), atau 0 jika state tidak pernah diprediksi.
+     */
+    public double precision(int state) {
+        return rowSums[state] == 0 ? 0.0 : (double) truePositives(state) / rowSums[state];
+    }
+
+    /**
+     * TP / (TP + FN), atau 0 jika state tidak pernah muncul sebagai state sebenarnya.
+     */
+    public double recall(int state) {
+        return colSums[state] == 0 ? 0.0 : (double) truePositives(state) / colSums[state];
+    }
+
+    public double fMeasure(int state) {
+        return harmonicMean(precision(state), recall(state));
+    }
+
+    /**
+     * Apakah state muncul sebagai prediksi atau state sebenarnya; hanya state seperti ini
+     * yang ikut dalam rata-rata macro (state begin/end tidak pernah muncul).
+     */
+    public boolean isObserved(int state) {
+        return rowSums[state] != 0 || colSums[state] != 0;
+    }
+
+    public double macroPrecision() {
+        double sum = 0.0;
+        int observed = 0;
+        for (int state = 0; state < nstates; ++state) {
+            if (isObserved(state)) {
+                sum += precision(state);
+                ++observed;
+            }
+        }
+        return observed == 0 ? 0.0 : sum / observed;
+    }
+
+    public double macroRecall() {
+        double sum = 0.0;
+        int observed = 0;
+        for (int state = 0; state < nstates; ++state) {
+            if (isObserved(state)) {
+                sum += recall(state);
+                ++observed;
+            }
+        }
+        return observed == 0 ? 0.0 : sum / observed;
+    }
+
+    /**
+     * Rata-rata f-measure per state (bukan f-measure dari macro precision dan macro recall).
+     */
+    public double macroFMeasure() {
+        double sum = 0.0;
+        int observed = 0;
+        for (int state = 0; state < nstates; ++state) {
+            if (isObserved(state)) {
+                sum += fMeasure(state);
+                ++observed;
+            }
+        }
+        return observed == 0 ? 0.0 : sum / observed;
+    }
+
+    /**
+     * Precision dari TP dan FP yang dijumlahkan untuk semua state. Karena setiap langkah punya
+     * tepat satu prediksi dan satu state sebenarnya, nilai ini sama dengan akurasi, begitu juga
+     * microRecall dan microFMeasure.
+     */
+    public double microPrecision() {
+        long truePositives = 0;
+        for (int state = 0; state < nstates; ++state) {
+            truePositives += truePositives(state);
+        }
+        return total == 0 ? 0.0 : (double) truePositives / total;
+    }
+
+    public double microRecall() {
+        return microPrecision();
+    }
+
+    public double microFMeasure() {
+        return microPrecision();
+    }
+
+    /**
+     * Estimasi per state dalam bentuk yang sama dengan Estimation.getStatePredictionEstimations.
+     *
+     * @throws ArithmeticException Jika sebuah hitungan melebihi Integer.MAX_VALUE.
+     */
+    public List<PredictionEstimation> estimations() {
+        List<PredictionEstimation> estimations = new ArrayList<>(nstates);
+        for (int state = 0; state < nstates; ++state) {
+            PredictionEstimation estimation = new PredictionEstimation();
+            estimation.truePositives = Math.toIntExact(truePositives(state));
+            estimation.falsePositives = Math.toIntExact(falsePositives(state));
+            estimation.trueNegatives = Math.toIntExact(trueNegatives(state));
+            estimation.falseNegatives = Math.toIntExact(falseNegatives(state));
+            estimation.fMeasure = fMeasure(state);
+            estimations.add(estimation);
+        }
+        return estimations;
+    }
+
+    private static double harmonicMean(double precision, double recall) {
+        return precision + recall == 0.0 ? 0.0 : 2.0 * (precision * recall) / (precision + recall);
+    }
+
+    @Override
+    public String toString() {
+        return "Total=" + total +
+                ", macro f-measure=" + String.format("%.4f", macroFMeasure()) +
+                ", macro precision=" + String.format("%.4f", macroPrecision()) +
+                ", macro recall=" + String.format("%.4f", macroRecall()) +
+                ", micro f-measure=" + String.format("%.4f", microFMeasure());
+    }
+}
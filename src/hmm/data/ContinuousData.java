@@ -0,0 +1,183 @@
+package hmm.data;
+
+import hmm.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Data eksperimen dengan observasi kontinu (vektor bernilai real per langkah), pasangan dari
+ * ExperimentData untuk model dengan emisi kontinu (Model.continuousEmissions).
+ * Observasi disimpan row-major dalam satu array: element[t * dimension + k].
+ *
+ * Format teks:
+ *   nsteps dimension
+ *   lalu nsteps baris: step_number real_state_name x_1 ... x_dimension
+ */
+public class ContinuousData implements LabeledSequence {
+    /// jumlah langkah
+    private int nsteps;
+
+    /// jumlah komponen setiap observasi
+    private int dimension;
+
+    /// element[t] adalah nomor waktu langkah t; null jika waktu sama dengan indeks langkah
+    private int[] times;
+
+    /// element[t] adalah indeks state sebenarnya pada langkah t
+    private int[] states = new int[0];
+
+    /// observasi row-major: element[t * dimension + k]
+    private double[] observations = new double[0];
+
+    /**
+     * Jumlah langkah observasi.
+     */
+    @Override
+    public int size() {
+        return nsteps;
+    }
+
+    /**
+     * Jumlah komponen setiap observasi.
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Nomor waktu langkah t.
+     */
+    public int time(int t) {
+        checkStep(t);
+        return times == null ? t : times[t];
+    }
+
+    /**
+     * Indeks state sebenarnya pada langkah t.
+     */
+    @Override
+    public int state(int t) {
+        checkStep(t);
+        return states[t];
+    }
+
+    /**
+     * Komponen k observasi pada langkah t.
+     */
+    public double value(int t, int k) {
+        checkStep(t);
+        if (k < 0 || k >= dimension) {
+            throw new IndexOutOfBoundsException("Component " + k + " out of range [0, " + dimension + ")");
+        }
+        return observations[t * dimension + k];
+    }
+
+    /**
+     * Array observasi row-major (element[t * dimension + k]) tanpa salinan, untuk kernel decoding.
+     * Isinya tidak boleh diubah.
+     */
+    public double[] observations() {
+        return observations;
+    }
+
+    /**
+     * Mengganti seluruh isi data dengan kolom yang diberikan (array dipakai langsung, tidak disalin).
+     *
+     * @param times Nomor waktu per langkah, atau null jika sama dengan indeks langkah.
+     * @param states Indeks state sebenarnya per langkah.
+     * @param observations Observasi row-major dengan panjang states.length * dimension.
+     * @param dimension Jumlah komponen setiap observasi.
+     */
+    public void setColumns(int[] times, int[] states, double[] observations, int dimension) {
+        if ((times != null && times.length != states.length) || (long) states.length * dimension != observations.length) {
+            throw new IllegalArgumentException("Columns must describe the same number of steps");
+        }
+        this.nsteps = states.length;
+        this.dimension = dimension;
+        this.times = times;
+        this.states = states;
+        this.observations = observations;
+    }
+
+    private void checkStep(int t) {
+        if (t < 0 || t >= nsteps) {
+            throw new IndexOutOfBoundsException("Step " + t + " out of range [0, " + nsteps + ")");
+        }
+    }
+
+    /**
+     * Membaca data eksperimen kontinu dari stream.
+     *
+     * @param model      Model HMM terkait untuk referensi nama state dan dimensi observasi.
+     * @param dataSource InputStream untuk membaca data eksperimen.
+     * @throws IOException              Jika terjadi masalah I/O.
+     * @throws IllegalArgumentException Jika data eksperimen tidak valid atau dimensinya tidak cocok dengan model.
+     * @throws NoSuchElementException   Jika format file tidak sesuai.
+     */
+    public void readContinuousData(Model model, InputStream dataSource) throws IOException, IllegalArgumentException, NoSuchElementException {
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        TokenReader reader = new TokenReader(dataSource);
+
+        try {
+            int steps = reader.nextInt();
+            int dim = reader.nextInt();
+
+            if (steps == 0) {
+                throw new IllegalArgumentException("Empty experiment hmm.data");
+            }
+            if (steps < 0) {
+                throw new IllegalArgumentException("Number of steps in experiment hmm.data must not be negative: " + steps);
+            }
+            if (model.continuousEmissions == null) {
+                throw new IllegalArgumentException("Model does not have continuous emissions.");
+            }
+            if (dim != model.continuousEmissions.dimension()) {
+                throw new IllegalArgumentException("Observation dimension " + dim + " does not match the model's dimension " + model.continuousEmissions.dimension() + ".");
+            }
+            if ((long) steps * dim > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Experiment hmm.data of " + steps + " steps x " + dim + " components is too large");
+            }
+
+            NameTable stateNames = new NameTable(model.stateIndexToName);
+            int[] stepTimes = null; // baru dialokasikan jika ada nomor waktu yang tidak sama dengan indeks langkah
+            int[] stepStates = new int[steps];
+            double[] values = new double[steps * dim];
+
+            for (int i = 0; i < steps; ++i) {
+                int stepNumber = reader.nextInt();
+                if (stepTimes != null) {
+                    stepTimes[i] = stepNumber;
+                } else if (stepNumber != i) {
+                    stepTimes = new int[steps];
+                    for (int t = 0; t < i; ++t) {
+                        stepTimes[t] = t;
+                    }
+                    stepTimes[i] = stepNumber;
+                }
+                int stateInd = reader.nextName(stateNames);
+                if (stateInd < 0) {
+                    throw new IllegalArgumentException("Unknown state name in experiment hmm.data: " + reader.lastToken());
+                }
+                stepStates[i] = stateInd;
+
+                for (int k = 0; k < dim; ++k) {
+                    values[i * dim + k] = reader.nextDouble();
+                }
+            }
+
+            setColumns(stepTimes, stepStates, values, dim);
+            Metrics.record(Metrics.Stage.PARSE_DATA, startNanos, startBytes, steps);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class DecodingResult {
+    /// urutan state Viterbi, null jika Viterbi tidak diminta,
+    /// array kosong jika observasi mustahil menurut model
+    public final int[] viterbiPath;
+
+    /// log probabilitas urutan Viterbi (-Infinity jika mustahil, NaN jika tidak diminta)
+    public final double viterbiLogProbability;
+
+    /// state posterior paling mungkin per langkah, null jika posterior tidak diminta,
+    /// array kosong jika observasi mustahil menurut model
+    public final int[] posteriorPath;
+
+    /// log P(O | model) dari forward ter-skala (-Infinity jika mustahil, NaN jika tidak diminta)
+    public final double logLikelihood;
+
+    public DecodingResult(int[] viterbiPath, double viterbiLogProbability,
+                          int[] posteriorPath, double logLikelihood) {
+        this.viterbiPath = viterbiPath;
+        this.viterbiLogProbability = viterbiLogProbability;
+        this.posteriorPath = posteriorPath;
+        this.logLikelihood = logLikelihood;
+    }
+}
@@ -0,0 +1,135 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Emisi Gaussian dengan kovarians diagonal: satu Gaussian per state.
+ * log N(x; mu, diag(var)) = -0.5 * (d * log(2 pi) + sum log var_k) - 0.5 * sum (x_k - mu_k)^2 / var_k.
+ * Parameter disimpan dimensi-major (element[k * nstates + j]) sehingga untuk satu komponen
+ * observasi, loop di atas semua state membaca array contiguous dan dapat divektorisasi oleh JIT.
+ * Bagian konstan (log normalizer) dihitung sekali saat konstruksi.
+ */
+public class DiagonalGaussianEmissions implements EmissionModel {
+    private static final double LOG_TWO_PI = Math.log(2.0 * Math.PI);
+
+    private final int nstates;
+    private final int dimension;
+
+    /// mean dimensi-major: element[k * nstates + j]
+    private final double[] means;
+
+    /// 0.5 / variance dimensi-major; 0 untuk state yang tidak mengemisikan
+    private final double[] halfInverseVariances;
+
+    /// log normalizer per state; -Infinity untuk state yang tidak mengemisikan
+    private final double[] logNormalizers;
+
+    /**
+     * @param stateMeans element[j] adalah vektor mean state j, atau null jika state j tidak mengemisikan observasi.
+     * @param stateVariances element[j] adalah vektor variance state j (null jika stateMeans[j] null).
+     * @param dimension Jumlah komponen setiap observasi.
+     * @throws IllegalArgumentException Jika panjang vektor tidak sama dengan dimension atau variance tidak positif.
+     */
+    public DiagonalGaussianEmissions(double[][] stateMeans, double[][] stateVariances, int dimension) {
+        int n = stateMeans.length;
+        if (stateVariances.length != n) {
+            throw new IllegalArgumentException("Means and variances must be given for the same number of states.");
+        }
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Observation dimension must be at least 1");
+        }
+
+        this.nstates = n;
+        this.dimension = dimension;
+        this.means = new double[dimension * n];
+        this.halfInverseVariances = new double[dimension * n];
+        this.logNormalizers = new double[n];
+
+        for (int state = 0; state < n; ++state) {
+            double[] mean = stateMeans[state];
+            double[] variance = stateVariances[state];
+            if (mean == null || variance == null) {
+                if (mean != variance) {
+                    throw new IllegalArgumentException("State " + state + " must have both mean and variance, or neither.");
+                }
+                logNormalizers[state] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            if (mean.length != dimension || variance.length != dimension) {
+                throw new IllegalArgumentException("Gaussian parameters of state " + state + " must have dimension " + dimension + ".");
+            }
+
+            double logNormalizer = dimension * LOG_TWO_PI;
+            for (int k = 0; k < dimension; ++k) {
+                checkVariance(variance[k], state);
+                means[k * n + state] = mean[k];
+                halfInverseVariances[k * n + state] = 0.5 / variance[k];
+                logNormalizer += Math.log(variance[k]);
+            }
+            logNormalizers[state] = -0.5 * logNormalizer;
+        }
+    }
+
+    static void checkVariance(double variance, int state) {
+        if (!(variance > 0.0) || Double.isInfinite(variance)) {
+            throw new IllegalArgumentException("Variance must be positive and finite (state " + state + ", variance " + variance + ").");
+        }
+    }
+
+    @Override
+    public int nstates() {
+        return nstates;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public int scratchLength() {
+        return 0;
+    }
+
+    /**
+     * Apakah state memiliki Gaussian (mengemisikan observasi).
+     */
+    public boolean isEmitting(int state) {
+        return logNormalizers[state] != Double.NEGATIVE_INFINITY;
+    }
+
+    /// komponen k vektor mean state (hanya bermakna untuk state yang mengemisikan)
+    public double mean(int state, int k) {
+        return means[k * nstates + state];
+    }
+
+    /// komponen k vektor variance state (hanya bermakna untuk state yang mengemisikan)
+    public double variance(int state, int k) {
+        return 0.5 / halfInverseVariances[k * nstates + state];
+    }
+
+    @Override
+    public void logDensities(double[] observations, int offset, double[] target, double[] scratch) {
+        int n = nstates;
+        for (int state = 0; state < n; ++state) {
+            target[state] = 0.0;
+        }
+
+        // bagian: jarak Mahalanobis diagonal, satu komponen observasi untuk semua state sekaligus
+        for (int k = 0; k < dimension; ++k) {
+            double x = observations[offset + k];
+            int base = k * n;
+            for (int state = 0; state < n; ++state) {
+                double diff = x - means[base + state];
+                target[state] += diff * diff * halfInverseVariances[base + state];
+            }
+        }
+
+        for (int state = 0; state < n; ++state) {
+            target[state] = logNormalizers[state] - target[state];
+        }
+    }
+}
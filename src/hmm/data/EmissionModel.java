@@ -0,0 +1,39 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Model emisi kontinu: densitas observasi vektor bernilai real untuk setiap state, sebagai
+ * alternatif tabel emisi diskrit (stateSymbolProb). Kernel Viterbi dan forward-backward
+ * memanggil logDensities sekali per langkah untuk semua state sekaligus.
+ * Implementasi harus immutable dan aman dipakai bersama oleh banyak thread; semua buffer
+ * sementara diberikan oleh pemanggil sehingga evaluasi tidak mengalokasikan objek.
+ */
+public interface EmissionModel {
+    /**
+     * Jumlah state (termasuk 'begin' dan 'end').
+     */
+    int nstates();
+
+    /**
+     * Jumlah komponen setiap observasi.
+     */
+    int dimension();
+
+    /**
+     * Panjang minimal buffer scratch untuk logDensities (0 jika tidak dibutuhkan).
+     */
+    int scratchLength();
+
+    /**
+     * Menulis log densitas observasi observations[offset, offset + dimension()) untuk setiap
+     * state ke target[0, nstates()). State yang tidak mengemisikan observasi (seperti 'begin'
+     * dan 'end') mendapat -Infinity.
+     *
+     * @param scratch Buffer sementara dengan panjang minimal scratchLength().
+     */
+    void logDensities(double[] observations, int offset, double[] target, double[] scratch);
+}
@@ -1,56 +1,389 @@
 package hmm.data;
 
+import hmm.metrics.Metrics;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 import java.util.*;
 
 /*
  * © 2025 hendrowunga, University of Sanata Dharma
  * Created on 5/25/25
  */
-public class ExperimentData {
-    /// Triple hmm.data: (waktu, indeks state, indeks simbol yang diemisikan)
-    public List<TimeStateSymbolTuple> timeStateSymbol;
+public class ExperimentData implements LabeledSequence {
+    /// Triple hmm.data: (waktu, indeks state, indeks simbol yang diemisikan).
+    /// Secara default berupa view atas kolom primitif di bawah (tuple dibuat saat get dipanggil).
+    /// View dapat diubah seperti ArrayList: perubahan pertama menyalin isinya ke ArrayList baru yang
+    /// menggantikan field ini. Jika field diganti dengan list lain, list itulah sumber datanya:
+    /// semua method membaca langsung dari list tersebut, sehingga perubahan pada list selalu terlihat.
+    public volatile List<TimeStateSymbolTuple> timeStateSymbol;
+
+    private final TupleView view = new TupleView();
+
+    /// jumlah langkah
+    private int nsteps;
+
+    // Kolom dibaca dengan get(t) absolut (posisi buffer tidak pernah diubah). Data dari
+    // readExperimentData/setColumns membungkus array di heap; data dari MappedDataset menunjuk
+    // langsung ke halaman file tanpa salinan.
+
+    /// element[t] adalah nomor waktu langkah t; null jika waktu sama dengan indeks langkah
+    private IntBuffer times;
+
+    /// element[t] adalah indeks state sebenarnya pada langkah t
+    private IntBuffer states = IntBuffer.allocate(0);
+
+    /// indeks simbol per langkah; hanya satu yang terisi, sesuai ukuran alphabet (tanpa tanda)
+    private ByteBuffer byteSymbols = ByteBuffer.allocate(0);
+    private ShortBuffer shortSymbols;
+    private IntBuffer intSymbols;
+
+    public ExperimentData() {
+        timeStateSymbol = view;
+    }
+
+    /**
+     * Jumlah langkah observasi.
+     */
+    @Override
+    public int size() {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        if (tuples != view) {
+            return tuples == null ? 0 : tuples.size();
+        }
+        return nsteps;
+    }
+
+    /**
+     * Nomor waktu langkah t.
+     */
+    public int time(int t) {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        if (tuples != view) {
+            return tuples.get(t).time;
+        }
+        checkStep(t);
+        return times == null ? t : times.get(t);
+    }
+
+    /**
+     * Indeks state sebenarnya pada langkah t.
+     */
+    @Override
+    public int state(int t) {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        if (tuples != view) {
+            return tuples.get(t).stateIndex;
+        }
+        checkStep(t);
+        return states.get(t);
+    }
+
+    /**
+     * Indeks simbol yang diemisikan pada langkah t.
+     */
+    public int symbol(int t) {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        if (tuples != view) {
+            return tuples.get(t).symbolIndex;
+        }
+        checkStep(t);
+        if (byteSymbols != null) {
+            return byteSymbols.get(t) & 0xFF;
+        }
+        if (shortSymbols != null) {
+            return shortSymbols.get(t) & 0xFFFF;
+        }
+        return intSymbols.get(t);
+    }
+
+    /**
+     * Menyalin semua indeks simbol ke target (panjang minimal size()).
+     */
+    public void copySymbols(int[] target) {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        int length = size();
+        if (target.length < length) {
+            throw new IllegalArgumentException("Target of length " + target.length + " cannot hold " + length + " symbols");
+        }
+        if (tuples != view) {
+            for (int t = 0; t < length; ++t) {
+                target[t] = tuples.get(t).symbolIndex;
+            }
+        } else if (byteSymbols != null) {
+            for (int t = 0; t < nsteps; ++t) {
+                target[t] = byteSymbols.get(t) & 0xFF;
+            }
+        } else if (shortSymbols != null) {
+            for (int t = 0; t < nsteps; ++t) {
+                target[t] = shortSymbols.get(t) & 0xFFFF;
+            }
+        } else {
+            intSymbols.duplicate().get(target, 0, nsteps);
+        }
+    }
+
+    /**
+     * true jika nomor waktu setiap langkah sama dengan indeks langkahnya.
+     */
+    boolean hasImplicitTimes() {
+        List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+        if (tuples != view) {
+            for (int t = 0, length = size(); t < length; ++t) {
+                if (tuples.get(t).time != t) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return times == null;
+    }
+
+    /**
+     * Mengganti isi hmm.data dengan kolom yang diberikan. Array tidak disalin kecuali simbol
+     * yang dipadatkan ke byte/short bila nilainya muat.
+     *
+     * @param times   Nomor waktu per langkah, atau null jika sama dengan indeks langkah.
+     * @param states  Indeks state sebenarnya per langkah.
+     * @param symbols Indeks simbol per langkah.
+     * @throws IllegalArgumentException Jika panjang kolom berbeda.
+     */
+    public void setColumns(int[] times, int[] states, int[] symbols) {
+        if (states.length != symbols.length || (times != null && times.length != states.length)) {
+            throw new IllegalArgumentException("Columns must have the same length");
+        }
+        int minSymbol = 0;
+        int maxSymbol = 0;
+        for (int symbol : symbols) {
+            minSymbol = Math.min(minSymbol, symbol);
+            maxSymbol = Math.max(maxSymbol, symbol);
+        }
+
+        this.nsteps = states.length;
+        this.times = isIdentity(times, nsteps) ? null : IntBuffer.wrap(times);
+        this.states = IntBuffer.wrap(states);
+        if (minSymbol < 0 || maxSymbol >= 1 << 16) {
+            // indeks tidak valid tetap disimpan apa adanya; algoritma yang memvalidasinya
+            byteSymbols = null;
+            shortSymbols = null;
+            intSymbols = IntBuffer.wrap(symbols);
+        } else if (maxSymbol < 1 << 8) {
+            byte[] packed = new byte[nsteps];
+            for (int t = 0; t < nsteps; ++t) {
+                packed[t] = (byte) symbols[t];
+            }
+            setSymbols(ByteBuffer.wrap(packed));
+        } else {
+            short[] packed = new short[nsteps];
+            for (int t = 0; t < nsteps; ++t) {
+                packed[t] = (short) symbols[t];
+            }
+            setSymbols(ShortBuffer.wrap(packed));
+        }
+        this.timeStateSymbol = view; // ditulis terakhir (volatile) agar kolom terlihat lengkap oleh thread lain
+    }
+
+    /**
+     * Memakai kolom yang sudah berupa buffer tanpa menyalinnya, mis. view memory-mapped dari
+     * MappedDataset. Nilai dibaca dengan indeks absolut dari 0 sampai states.limit() - 1;
+     * isi buffer tidak boleh berubah selama objek ini dipakai.
+     *
+     * @param times   Nomor waktu per langkah, atau null jika sama dengan indeks langkah.
+     * @param states  Indeks state sebenarnya per langkah.
+     * @param symbols Indeks simbol per langkah: ByteBuffer (u8), ShortBuffer (u16) atau IntBuffer.
+     */
+    void wrapColumns(IntBuffer times, IntBuffer states, Buffer symbols) {
+        if (symbols.limit() != states.limit() || (times != null && times.limit() != states.limit())) {
+            throw new IllegalArgumentException("Columns must have the same length");
+        }
+        this.nsteps = states.limit();
+        this.times = times;
+        this.states = states;
+        setSymbols(symbols);
+        this.timeStateSymbol = view; // ditulis terakhir (volatile) agar kolom terlihat lengkap oleh thread lain
+    }
+
+    private void setSymbols(Buffer symbols) {
+        byteSymbols = symbols instanceof ByteBuffer ? (ByteBuffer) symbols : null;
+        shortSymbols = symbols instanceof ShortBuffer ? (ShortBuffer) symbols : null;
+        intSymbols = symbols instanceof IntBuffer ? (IntBuffer) symbols : null;
+        if (byteSymbols == null && shortSymbols == null && intSymbols == null) {
+            throw new IllegalArgumentException("Unsupported symbol column " + symbols.getClass().getName());
+        }
+    }
+
+    private static boolean isIdentity(int[] times, int length) {
+        if (times == null) {
+            return true;
+        }
+        for (int t = 0; t < length; ++t) {
+            if (times[t] != t) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkStep(int t) {
+        if (t < 0 || t >= nsteps) {
+            throw new IndexOutOfBoundsException("Step " + t + " out of range [0, " + nsteps + ")");
+        }
+    }
 
     /**
      * Membaca hmm.data eksperimen dari stream.
      * Asumsi stream memiliki format yang benar.
      *
-     * @param model      Model HMM terkait untuk referensi nama state.
+     * @param model      Model HMM terkait untuk referensi nama state dan alphabet simbol.
      * @param dataSource InputStream untuk membaca hmm.data eksperimen.
      * @throws IOException              Jika terjadi masalah I/O.
      * @throws IllegalArgumentException Jika hmm.data eksperimen tidak valid.
      * @throws NoSuchElementException   Jika format file tidak sesuai.
      */
     public void readExperimentData(Model model, InputStream dataSource) throws IOException, IllegalArgumentException, NoSuchElementException {
-        Scanner scanner = new Scanner(dataSource);
-        // Seperti Model.java, asumsikan InputStream/Scanner dikelola di luar.
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        TokenReader reader = new TokenReader(dataSource);
+        // Seperti Model.java, asumsikan InputStream dikelola di luar.
 
-        int nsteps = scanner.nextInt();
+        try {
+            int nsteps = reader.nextInt();
 
-        if (nsteps == 0) {
-            throw new IllegalArgumentException("Empty experiment hmm.data");
-        }
+            if (nsteps == 0) {
+                throw new IllegalArgumentException("Empty experiment hmm.data");
+            }
+            if (nsteps < 0) {
+                throw new IllegalArgumentException("Number of steps in experiment hmm.data must not be negative: " + nsteps);
+            }
+
+            // bagian: parse langsung ke kolom primitif lokal; field baru diganti setelah semua langkah valid,
+            // sehingga pembacaan yang gagal tidak mengubah isi objek ini
+            NameTable stateNames = new NameTable(model.stateIndexToName);
+            int[] times = null; // baru dialokasikan jika ada nomor waktu yang tidak sama dengan indeks langkah
+            int[] states = new int[nsteps];
+            byte[] newByteSymbols = null;
+            short[] newShortSymbols = null;
+            int[] newIntSymbols = null;
+            if (model.alphabetSize <= 1 << 8) {
+                newByteSymbols = new byte[nsteps];
+            } else if (model.alphabetSize <= 1 << 16) {
+                newShortSymbols = new short[nsteps];
+            } else {
+                newIntSymbols = new int[nsteps];
+            }
 
-        timeStateSymbol = new ArrayList<>(nsteps);
+            for (int i = 0; i < nsteps; ++i) {
+                int stepNumber = reader.nextInt();
+                if (times != null) {
+                    times[i] = stepNumber;
+                } else if (stepNumber != i) {
+                    times = new int[nsteps];
+                    for (int t = 0; t < i; ++t) {
+                        times[t] = t;
+                    }
+                    times[i] = stepNumber;
+                }
+                int stateInd = reader.nextName(stateNames);
+                if (stateInd < 0) {
+                    String stateName = reader.lastToken();
+                    reader.next(); // simbol tetap dibaca seperti sebelumnya
+                    throw new IllegalArgumentException("Unknown state name in experiment hmm.data: " + stateName);
+                }
 
-        for (int i = 0; i < nsteps; ++i) {
-            int stepNumber = scanner.nextInt();
-            String stateName = scanner.next();
-            String symbol = scanner.next(); // String untuk kemudahan baca
+                int symbolInd;
+                if (model.symbols != null) {
+                    // Alphabet token: simbol dicari di kamus model
+                    symbolInd = reader.nextSymbol(model.symbols);
+                    if (symbolInd < 0) {
+                        throw new IllegalArgumentException("Unknown symbol '" + reader.lastToken() + "' in experiment hmm.data.");
+                    }
+                } else {
+                    symbolInd = reader.nextSymbol();
+                    if (symbolInd < 0) {
+                        symbolInd = Model.symbolToInd(reader.lastToken()); // Panggil helper function dari Model (melempar pesan error)
+                    }
+                }
+                if (symbolInd >= model.alphabetSize) {
+                    throw new IllegalArgumentException("Symbol '" + reader.lastToken() + "' in experiment hmm.data is out of model's alphabet range.");
+                }
 
-            Integer stateInd = model.stateNameToIndex.get(stateName);
-            if (stateInd == null) {
-                throw new IllegalArgumentException("Unknown state name in experiment hmm.data: " + stateName);
+                states[i] = stateInd;
+                if (newByteSymbols != null) {
+                    newByteSymbols[i] = (byte) symbolInd;
+                } else if (newShortSymbols != null) {
+                    newShortSymbols[i] = (short) symbolInd;
+                } else {
+                    newIntSymbols[i] = symbolInd;
+                }
             }
 
-            int symbolInd = Model.symbolToInd(symbol); // Panggil helper function dari Model
-            if (symbolInd < 0 || symbolInd >= model.alphabetSize) {
-                throw new IllegalArgumentException("Symbol '" + symbol + "' in experiment hmm.data is out of model's alphabet range.");
+            this.nsteps = nsteps;
+            this.times = times == null ? null : IntBuffer.wrap(times);
+            this.states = IntBuffer.wrap(states);
+            this.byteSymbols = newByteSymbols == null ? null : ByteBuffer.wrap(newByteSymbols);
+            this.shortSymbols = newShortSymbols == null ? null : ShortBuffer.wrap(newShortSymbols);
+            this.intSymbols = newIntSymbols == null ? null : IntBuffer.wrap(newIntSymbols);
+            this.timeStateSymbol = view; // ditulis terakhir (volatile) agar kolom terlihat lengkap oleh thread lain
+            Metrics.record(Metrics.Stage.PARSE_DATA, startNanos, startBytes, nsteps);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * View List atas kolom agar kode lama yang memakai timeStateSymbol tetap berjalan.
+     * Setelah field diganti (oleh pemanggil atau oleh perubahan pertama lewat view ini),
+     * semua operasi diteruskan ke list yang sedang dipakai.
+     */
+    private class TupleView extends AbstractList<TimeStateSymbolTuple> implements RandomAccess {
+        @Override
+        public TimeStateSymbolTuple get(int t) {
+            List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+            if (tuples != this) {
+                return tuples.get(t);
             }
+            return new TimeStateSymbolTuple(time(t), state(t), symbol(t));
+        }
 
+        @Override
+        public int size() {
+            return ExperimentData.this.size();
+        }
+
+        @Override
+        public TimeStateSymbolTuple set(int t, TimeStateSymbolTuple tuple) {
+            return mutable().set(t, tuple);
+        }
 
-            timeStateSymbol.add(new TimeStateSymbolTuple(stepNumber, stateInd, symbolInd));
+        @Override
+        public void add(int t, TimeStateSymbolTuple tuple) {
+            mutable().add(t, tuple);
+            ++modCount;
+        }
+
+        @Override
+        public TimeStateSymbolTuple remove(int t) {
+            TimeStateSymbolTuple removed = mutable().remove(t);
+            ++modCount;
+            return removed;
+        }
+
+        // List yang dapat diubah: list pemanggil jika ada, selain itu salinan kolom ke ArrayList
+        // yang menjadi isi baru field timeStateSymbol (perilaku sama seperti sebelum data disimpan per kolom)
+        private List<TimeStateSymbolTuple> mutable() {
+            synchronized (ExperimentData.this) {
+                List<TimeStateSymbolTuple> tuples = timeStateSymbol;
+                if (tuples == this) {
+                    tuples = new ArrayList<>(this);
+                    timeStateSymbol = tuples;
+                }
+                return tuples;
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Emisi campuran Gaussian (GMM) dengan kovarians diagonal: setiap state memiliki sejumlah
+ * komponen berbobot. log p(x | state) = log sum_c w_c N(x; mu_c, diag(var_c)), dihitung dengan
+ * log-sum-exp agar tidak underflow.
+ * Seperti DiagonalGaussianEmissions, parameter semua komponen disimpan dimensi-major
+ * (element[k * ncomponents + c]), sehingga log densitas semua komponen dihitung dalam satu
+ * sapuan contiguous per komponen observasi; hasil per komponen ditulis ke buffer scratch.
+ */
+public class GaussianMixtureEmissions implements EmissionModel {
+    private static final double LOG_TWO_PI = Math.log(2.0 * Math.PI);
+
+    private final int nstates;
+    private final int dimension;
+    private final int ncomponents;
+
+    /// komponen state j berada di indeks componentStart[j] .. componentStart[j + 1] - 1
+    private final int[] componentStart;
+
+    /// mean dimensi-major: element[k * ncomponents + c]
+    private final double[] means;
+
+    /// 0.5 / variance dimensi-major
+    private final double[] halfInverseVariances;
+
+    /// log bobot ditambah log normalizer Gaussian setiap komponen
+    private final double[] logNormalizers;
+
+    /**
+     * Membangun GMM dari daftar komponen dalam urutan sembarang.
+     *
+     * @param nstates Jumlah state; state tanpa komponen tidak mengemisikan observasi.
+     * @param componentStates State pemilik setiap komponen.
+     * @param weights Bobot setiap komponen (tidak negatif).
+     * @param componentMeans Vektor mean setiap komponen.
+     * @param componentVariances Vektor variance setiap komponen.
+     * @param dimension Jumlah komponen setiap observasi.
+     * @throws IllegalArgumentException Jika parameter tidak valid.
+     */
+    public GaussianMixtureEmissions(int nstates, int[] componentStates, double[] weights,
+                                    double[][] componentMeans, double[][] componentVariances, int dimension) {
+        int count = componentStates.length;
+        if (weights.length != count || componentMeans.length != count || componentVariances.length != count) {
+            throw new IllegalArgumentException("Every mixture component needs a state, weight, mean and variance.");
+        }
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Observation dimension must be at least 1");
+        }
+
+        this.nstates = nstates;
+        this.dimension = dimension;
+        this.ncomponents = count;
+        this.componentStart = new int[nstates + 1];
+        this.means = new double[dimension * count];
+        this.halfInverseVariances = new double[dimension * count];
+        this.logNormalizers = new double[count];
+
+        // bagian: counting sort stabil menurut state
+        for (int i = 0; i < count; ++i) {
+            int state = componentStates[i];
+            if (state < 0 || state >= nstates) {
+                throw new IndexOutOfBoundsException("Invalid state index " + state + " in mixture component " + i);
+            }
+            ++componentStart[state + 1];
+        }
+        for (int state = 0; state < nstates; ++state) {
+            componentStart[state + 1] += componentStart[state];
+        }
+        int[] next = new int[nstates];
+        System.arraycopy(componentStart, 0, next, 0, nstates);
+
+        for (int i = 0; i < count; ++i) {
+            int state = componentStates[i];
+            int c = next[state]++;
+            double[] mean = componentMeans[i];
+            double[] variance = componentVariances[i];
+            if (mean.length != dimension || variance.length != dimension) {
+                throw new IllegalArgumentException("Gaussian parameters of state " + state + " must have dimension " + dimension + ".");
+            }
+            if (!(weights[i] >= 0.0)) {
+                throw new IllegalArgumentException("Mixture weight must not be negative (state " + state + ", weight " + weights[i] + ").");
+            }
+
+            double logNormalizer = dimension * LOG_TWO_PI;
+            for (int k = 0; k < dimension; ++k) {
+                DiagonalGaussianEmissions.checkVariance(variance[k], state);
+                means[k * count + c] = mean[k];
+                halfInverseVariances[k * count + c] = 0.5 / variance[k];
+                logNormalizer += Math.log(variance[k]);
+            }
+            logNormalizers[c] = Math.log(weights[i]) - 0.5 * logNormalizer;
+        }
+    }
+
+    @Override
+    public int nstates() {
+        return nstates;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    /// jumlah komponen dari semua state
+    public int componentCount() {
+        return ncomponents;
+    }
+
+    /// jumlah komponen state
+    public int componentCount(int state) {
+        return componentStart[state + 1] - componentStart[state];
+    }
+
+    @Override
+    public int scratchLength() {
+        return ncomponents;
+    }
+
+    @Override
+    public void logDensities(double[] observations, int offset, double[] target, double[] scratch) {
+        int count = ncomponents;
+        for (int c = 0; c < count; ++c) {
+            scratch[c] = 0.0;
+        }
+
+        // bagian: jarak Mahalanobis diagonal untuk semua komponen sekaligus
+        for (int k = 0; k < dimension; ++k) {
+            double x = observations[offset + k];
+            int base = k * count;
+            for (int c = 0; c < count; ++c) {
+                double diff = x - means[base + c];
+                scratch[c] += diff * diff * halfInverseVariances[base + c];
+            }
+        }
+
+        // bagian: log-sum-exp komponen per state
+        for (int state = 0; state < nstates; ++state) {
+            int start = componentStart[state];
+            int end = componentStart[state + 1];
+            double max = Double.NEGATIVE_INFINITY;
+            for (int c = start; c < end; ++c) {
+                scratch[c] = logNormalizers[c] - scratch[c];
+                max = Math.max(max, scratch[c]);
+            }
+            if (max == Double.NEGATIVE_INFINITY) {
+                target[state] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            double sum = 0.0;
+            for (int c = start; c < end; ++c) {
+                sum += Math.exp(scratch[c] - max);
+            }
+            target[state] = max + Math.log(sum);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Urutan observasi yang menyimpan state sebenarnya di setiap langkah, dipakai untuk evaluasi
+ * prediksi (confusion matrix). Diimplementasikan oleh ExperimentData dan ContinuousData.
+ */
+public interface LabeledSequence {
+    /**
+     * Jumlah langkah.
+     */
+    int size();
+
+    /**
+     * Indeks state sebenarnya pada langkah t.
+     */
+    int state(int t);
+}
@@ -0,0 +1,224 @@
+package hmm.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Dataset observasi biner (lihat BinaryFormat) yang dibaca lewat FileChannel.map.
+ * Kolom waktu, state, dan simbol tidak disalin ke heap: times/states/symbols mengembalikan
+ * buffer yang langsung menunjuk ke halaman file, sehingga membuka file multi-GB hanya
+ * membaca header dan indeks offset. toExperimentData membungkus buffer yang sama, jadi decoder
+ * juga membaca simbol langsung dari file.
+ */
+public class MappedDataset implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+
+    /// jumlah state dan ukuran alphabet model yang dipakai saat konversi
+    public final int nstates;
+    public final int alphabetSize;
+
+    /// element[s] adalah langkah global pertama urutan s; element[nsequences] = totalSteps
+    private final long[] offsets;
+
+    /// lebar kolom simbol dalam byte: 1 (uint8), 2 (uint16) atau 4 (int32)
+    public final int symbolBytes;
+
+    /// null jika nomor waktu sama dengan indeks langkah (kolom tidak ada di file)
+    private final MappedByteBuffer timeColumn;
+    private final MappedByteBuffer stateColumn;
+    private final MappedByteBuffer symbolColumn;
+
+    private MappedDataset(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+
+        ByteBuffer header = BinaryFormat.mapReadOnly(channel, 0, Math.min(channel.size(), BinaryFormat.DATA_HEADER_BYTES), path);
+        if (header.remaining() < BinaryFormat.DATA_HEADER_BYTES || header.getInt() != BinaryFormat.DATA_MAGIC) {
+            throw new IllegalArgumentException("Not a binary data file: " + path);
+        }
+        int version = header.getInt();
+        BinaryFormat.checkVersion(version, BinaryFormat.DATA_VERSION, path);
+        int flags = header.getInt();
+        if (version == 1) {
+            flags &= BinaryFormat.FLAG_SEQUENCE_INDEX; // versi 1: selalu tiga kolom int32
+        }
+        boolean implicitTimes = (flags & BinaryFormat.FLAG_IMPLICIT_TIMES) != 0;
+        symbolBytes = (flags & BinaryFormat.FLAG_SYMBOLS_U8) != 0 ? 1
+                : (flags & BinaryFormat.FLAG_SYMBOLS_U16) != 0 ? 2 : 4;
+        int nsequences = BinaryFormat.checkCount(header.getInt(), "sequence count", path);
+        nstates = BinaryFormat.checkCount(header.getInt(), "state count", path);
+        alphabetSize = BinaryFormat.checkCount(header.getInt(), "alphabet size", path);
+        long totalSteps = header.getLong();
+        if (totalSteps < 0) {
+            throw new IllegalArgumentException("Corrupt binary file " + path + ": negative step count (" + totalSteps + ")");
+        }
+
+        // bagian: indeks offset per urutan (tanpa indeks berarti satu urutan)
+        long position = BinaryFormat.DATA_HEADER_BYTES;
+        if ((flags & BinaryFormat.FLAG_SEQUENCE_INDEX) != 0) {
+            if (8L * (nsequences + 1L) > channel.size() - position) {
+                throw new IllegalArgumentException("Truncated binary data file: " + path);
+            }
+            offsets = new long[nsequences + 1];
+            BinaryFormat.mapReadOnly(channel, position, 8L * offsets.length, path).asLongBuffer().get(offsets);
+            position += 8L * offsets.length;
+            if (offsets[0] != 0 || offsets[nsequences] != totalSteps) {
+                throw new IllegalArgumentException("Corrupt sequence index in " + path);
+            }
+            for (int s = 0; s < nsequences; ++s) {
+                if (offsets[s] > offsets[s + 1]) {
+                    throw new IllegalArgumentException("Corrupt sequence index in " + path);
+                }
+            }
+        } else {
+            offsets = new long[]{0, totalSteps};
+        }
+
+        int bytesPerStep = (implicitTimes ? 4 : 8) + symbolBytes;
+        if (totalSteps > (channel.size() - position) / bytesPerStep) {
+            throw new IllegalArgumentException("Truncated binary data file: " + path);
+        }
+        long columnBytes = 4L * totalSteps;
+        if (implicitTimes) {
+            timeColumn = null;
+        } else {
+            timeColumn = BinaryFormat.mapReadOnly(channel, position, columnBytes, path);
+            position += columnBytes;
+        }
+        stateColumn = BinaryFormat.mapReadOnly(channel, position, columnBytes, path);
+        symbolColumn = BinaryFormat.mapReadOnly(channel, position + columnBytes, symbolBytes * totalSteps, path);
+    }
+
+    /**
+     * Membuka file data biner. Hanya header dan indeks yang dibaca; kolom dipetakan ke memori.
+     *
+     * @throws IllegalArgumentException Jika file bukan data biner atau header/indeksnya rusak.
+     */
+    public static MappedDataset open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedDataset(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Jumlah urutan observasi dalam file.
+     */
+    public int sequenceCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Total langkah semua urutan.
+     */
+    public long totalSteps() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Panjang urutan ke-sequence.
+     */
+    public int length(int sequence) {
+        checkSequence(sequence);
+        return (int) (offsets[sequence + 1] - offsets[sequence]);
+    }
+
+    /**
+     * Nomor waktu tiap langkah urutan; view tanpa salinan ke file.
+     *
+     * @return null jika nomor waktu sama dengan indeks langkah (file tidak menyimpan kolom waktu).
+     */
+    public IntBuffer times(int sequence) {
+        return timeColumn == null ? null : column(timeColumn, 4, sequence).asIntBuffer();
+    }
+
+    /**
+     * Indeks state sebenarnya tiap langkah urutan; view tanpa salinan ke file.
+     */
+    public IntBuffer states(int sequence) {
+        return column(stateColumn, 4, sequence).asIntBuffer();
+    }
+
+    /**
+     * Indeks simbol (tanpa tanda) tiap langkah urutan; view tanpa salinan ke file.
+     *
+     * @return ByteBuffer, ShortBuffer, atau IntBuffer sesuai symbolBytes.
+     */
+    public Buffer symbols(int sequence) {
+        ByteBuffer view = column(symbolColumn, symbolBytes, sequence);
+        return symbolBytes == 1 ? view : symbolBytes == 2 ? view.asShortBuffer() : view.asIntBuffer();
+    }
+
+    /**
+     * Membungkus urutan sebagai ExperimentData tanpa menyalin kolom: data hanya membaca halaman file
+     * yang dipetakan, dan tetap valid setelah dataset ditutup. Indeks state dan simbol divalidasi
+     * terhadap model dengan satu kali baca.
+     *
+     * @throws IllegalArgumentException Jika model tidak cocok dengan file atau indeks di luar rentang.
+     */
+    public ExperimentData toExperimentData(int sequence, Model model) {
+        if (model.stateIndexToName.size() != nstates || model.alphabetSize != alphabetSize) {
+            throw new IllegalArgumentException("Binary data " + path + " was written for " + nstates + " states and "
+                    + alphabetSize + " symbols, model has " + model.stateIndexToName.size() + " states and "
+                    + model.alphabetSize + " symbols");
+        }
+        IntBuffer states = states(sequence);
+        Buffer symbols = symbols(sequence);
+        int nsteps = states.limit();
+        if (nsteps == 0) {
+            throw new IllegalArgumentException("Empty experiment data");
+        }
+
+        ExperimentData data = new ExperimentData();
+        data.wrapColumns(times(sequence), states, symbols);
+        for (int t = 0; t < nsteps; ++t) {
+            int state = states.get(t);
+            if (state < 0 || state >= nstates) {
+                throw new IllegalArgumentException("Unknown state index in binary data: " + state);
+            }
+            int symbol = data.symbol(t);
+            if (symbol < 0 || symbol >= alphabetSize) {
+                throw new IllegalArgumentException("Symbol index " + symbol + " in binary data is out of model's alphabet range.");
+            }
+        }
+        return data;
+    }
+
+    private ByteBuffer column(MappedByteBuffer column, int width, int sequence) {
+        checkSequence(sequence);
+        ByteBuffer view = column.duplicate();
+        view.position((int) (width * offsets[sequence]));
+        view.limit((int) (width * offsets[sequence + 1]));
+        // slice() mengembalikan urutan byte big-endian, jadi urutan harus diset ulang
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void checkSequence(int sequence) {
+        if (sequence < 0 || sequence >= sequenceCount()) {
+            throw new IndexOutOfBoundsException("Sequence index " + sequence + " out of range [0, " + sequenceCount() + ")");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // pemetaan tetap berlaku sampai buffer di-GC; menutup channel hanya melepas file descriptor
+        channel.close();
+    }
+}
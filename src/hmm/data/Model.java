@@ -1,17 +1,32 @@
 package hmm.data;
 
+import hmm.metrics.Metrics;
+
 import java.util.*;
 import java.io.InputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /*
  * © 2025 hendrowunga, University of Sanata Dharma
  * Created on 5/25/25
  */
 public class Model {
-    /// jumlah simbol emisi yang berbeda
+    /// keyword setelah jumlah simbol di file model: simbol berupa token sembarang, bukan huruf 'a'..'z'
+    public static final String TOKEN_ALPHABET_KEYWORD = "tokens";
+
+    /// keyword pengganti jumlah simbol di file model: emisi Gaussian diagonal, diikuti dimensi observasi
+    public static final String GAUSSIAN_KEYWORD = "gaussian";
+
+    /// keyword pengganti jumlah simbol di file model: emisi campuran Gaussian, diikuti dimensi observasi
+    public static final String GMM_KEYWORD = "gmm";
+
+    /// jumlah simbol emisi yang berbeda (0 untuk emisi kontinu)
     public int alphabetSize;
 
+    /// kamus simbol untuk alphabet token; null jika simbol adalah huruf tunggal 'a'..'z' (lihat symbolToInd)
+    public SymbolDictionary symbols;
+
     /// konversi nama state (string) ke indeks (integer)
     public Map<String, Integer> stateNameToIndex;
 
@@ -23,92 +38,268 @@ public class Model {
     public double[][] transitionProb;
 
     /// element[i][j] adalah probabilitas emisi simbol j dari state i.
+    /// null jika emisi disimpan dalam bentuk jarang (sparseStateSymbolProb).
     public double[][] stateSymbolProb;
 
+    /// probabilitas emisi dalam bentuk jarang per state, dipakai untuk alphabet token;
+    /// null jika stateSymbolProb dipakai. Untuk emisi diskrit tepat satu dari keduanya tidak null.
+    public SparseEmissions sparseStateSymbolProb;
+
+    /// emisi kontinu (observasi vektor real, lihat ContinuousData); null untuk emisi diskrit.
+    /// Jika tidak null, stateSymbolProb dan sparseStateSymbolProb bernilai null.
+    public EmissionModel continuousEmissions;
+
     /**
      * Membaca deskripsi model dari stream.
      * Asumsi stream memiliki format yang benar.
-     * Menggunakan Scanner untuk kemudahan parsing token.
+     * Token diparse langsung dari byte oleh TokenReader (tanpa Scanner/regex).
+     * Jika jumlah simbol diikuti keyword TOKEN_ALPHABET_KEYWORD, simbol emisi boleh berupa token
+     * sembarang; id-nya diberikan berurutan sesuai kemunculan pertama (lihat symbols) dan emisi
+     * disimpan dalam bentuk jarang.
+     * Jika posisi jumlah simbol berisi GAUSSIAN_KEYWORD atau GMM_KEYWORD diikuti dimensi observasi,
+     * model memakai emisi kontinu: setiap baris emisi berisi nama state, (bobot komponen untuk GMM,)
+     * vektor mean, lalu vektor variance.
      *
      * @param modelSource InputStream untuk membaca model.
      * @throws IOException Jika terjadi masalah I/O saat membaca file.
      * @throws IllegalArgumentException Jika hmm.data model tidak valid (misal: kurang dari 2 state).
-     * @throws NoSuchElementException Jika format file tidak sesuai dan Scanner tidak bisa menemukan token yang diharapkan.
+     * @throws NoSuchElementException Jika format file tidak sesuai dan token yang diharapkan tidak ditemukan.
      */
     public void readModel(InputStream modelSource) throws IOException, IllegalArgumentException, NoSuchElementException {
-        Scanner scanner = new Scanner(modelSource);
-        // Menggunakan try-finally jika Scanner tidak dibuat dalam try-with-resources di luar
-        // Untuk kesederhanaan porting, kita asumsikan Scanner dibuat di sini dan tidak perlu ditutup di sini,
-        // karena InputStream dasarnya dikelola oleh pemanggil.
-        // Dalam aplikasi nyata, menggunakan try-with-resources untuk Scanner di method main lebih baik.
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        parseModel(modelSource);
+        Metrics.record(Metrics.Stage.PARSE_MODEL, startNanos, startBytes, 0);
+    }
 
-        // bagian: membaca states
-        int nstates = scanner.nextInt();
+    // Isi readModel; dipisah agar return lebih awal (emisi kontinu/token) tetap tercatat di metrik
+    private void parseModel(InputStream modelSource) throws IOException, IllegalArgumentException, NoSuchElementException {
+        TokenReader reader = new TokenReader(modelSource);
+        // InputStream dasarnya dikelola oleh pemanggil, jadi tidak ditutup di sini.
 
-        if (nstates < 2) {
-            throw new IllegalArgumentException("There must be at least two states: begin and end");
-        }
+        try {
+            // bagian: membaca states
+            int nstates = reader.nextInt();
 
-        stateNameToIndex = new HashMap<>();
-        stateIndexToName = new ArrayList<>();
-        for (int i = 0; i < nstates; ++i) {
-            String stateName = scanner.next();
-            stateNameToIndex.put(stateName, i);
-            stateIndexToName.add(stateName);
-        }
+            if (nstates < 2) {
+                throw new IllegalArgumentException("There must be at least two states: begin and end");
+            }
 
-        // bagian: membaca alphabet
-        alphabetSize = scanner.nextInt();
+            stateNameToIndex = new HashMap<>();
+            stateIndexToName = new ArrayList<>();
+            for (int i = 0; i < nstates; ++i) {
+                String stateName = reader.next();
+                stateNameToIndex.put(stateName, i);
+                stateIndexToName.add(stateName);
+            }
+            NameTable stateNames = new NameTable(stateIndexToName);
+
+            // bagian: membaca alphabet (atau jenis emisi kontinu beserta dimensinya)
+            boolean gaussian = reader.nextIs(GAUSSIAN_KEYWORD);
+            boolean mixture = !gaussian && reader.nextIs(GMM_KEYWORD);
+            int dimension = 0;
+            continuousEmissions = null;
+            if (gaussian || mixture) {
+                dimension = reader.nextInt();
+                if (dimension < 1) {
+                    throw new IllegalArgumentException("Observation dimension must be at least 1");
+                }
+                alphabetSize = 0;
+                symbols = null;
+            } else {
+                alphabetSize = reader.nextInt();
+                symbols = reader.nextIs(TOKEN_ALPHABET_KEYWORD) ? new SymbolDictionary() : null;
+            }
 
-        // bagian: membaca transisi
-        int ntransitions = scanner.nextInt();
-        transitionProb = new double[nstates][nstates]; // Defaultnya 0.0
+            // bagian: membaca transisi
+            int ntransitions = reader.nextInt();
+            transitionProb = new double[nstates][nstates]; // Defaultnya 0.0
 
-        for (int i = 0; i < ntransitions; ++i) {
-            String stateName = scanner.next();
-            String targetStateName = scanner.next();
-            double prob = scanner.nextDouble();
+            for (int i = 0; i < ntransitions; ++i) {
+                int fromInd = reader.nextName(stateNames);
+                String stateName = fromInd < 0 ? reader.lastToken() : stateIndexToName.get(fromInd);
+                int toInd = reader.nextName(stateNames);
+                String targetStateName = toInd < 0 ? reader.lastToken() : stateIndexToName.get(toInd);
+                double prob = reader.nextDouble();
 
-            Integer fromInd = stateNameToIndex.get(stateName);
-            Integer toInd = stateNameToIndex.get(targetStateName);
+                if (fromInd < 0 || toInd < 0) {
+                    throw new IllegalArgumentException("Unknown state name in transitions: " + stateName + " or " + targetStateName);
+                }
 
-            if (fromInd == null || toInd == null) {
-                throw new IllegalArgumentException("Unknown state name in transitions: " + stateName + " or " + targetStateName);
+                if (fromInd + 1 == nstates) {
+                    throw new IllegalArgumentException("Transition from the ending state is forbidden (state: " + stateName + ")");
+                }
+
+                if (toInd == 0) {
+                    throw new IllegalArgumentException("Transition to the starting state is forbidden (state: " + targetStateName + ")");
+                }
+
+                transitionProb[fromInd][toInd] = prob;
             }
 
-            if (fromInd + 1 == nstates) {
-                throw new IllegalArgumentException("Transition from the ending state is forbidden (state: " + stateName + ")");
+            // bagian: membaca probabilitas emisi state-simbol
+            int nemissions = reader.nextInt();
+            if (gaussian || mixture) {
+                readContinuousEmissions(reader, stateNames, nstates, nemissions, dimension, mixture);
+                return;
             }
+            if (symbols != null) {
+                readTokenEmissions(reader, stateNames, nstates, nemissions);
+                return;
+            }
+            sparseStateSymbolProb = null;
+            stateSymbolProb = new double[nstates][alphabetSize]; // Defaultnya 0.0
+
+            for (int i = 0; i < nemissions; ++i) {
+                int stateInd = reader.nextName(stateNames);
+                String stateName = stateInd < 0 ? reader.lastToken() : null;
+                int symbolInd = reader.nextSymbol();
+                String symbol = symbolInd < 0 ? reader.lastToken() : null;
+                double prob = reader.nextDouble();
+
+                if (stateInd < 0) {
+                    throw new IllegalArgumentException("Unknown state name in emissions: " + stateName);
+                }
+
+                if (symbolInd < 0) {
+                    symbolInd = symbolToInd(symbol); // Memanggil helper function (melempar pesan error yang sesuai)
+                }
+                if (symbolInd >= alphabetSize) {
+                    throw new IllegalArgumentException("Symbol '" + (char) ('a' + symbolInd) + "' is out of expected alphabet range.");
+                }
+
+                stateSymbolProb[stateInd][symbolInd] = prob;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Emisi dengan simbol token: dikumpulkan sebagai daftar entri lalu disusun menjadi tabel jarang
+    private void readTokenEmissions(TokenReader reader, NameTable stateNames, int nstates, int nemissions) {
+        int capacity = Math.max(16, Math.min(nemissions, 1 << 16));
+        int[] entryStates = new int[capacity];
+        int[] entrySymbols = new int[capacity];
+        double[] entryProbs = new double[capacity];
+
+        for (int i = 0; i < nemissions; ++i) {
+            int stateInd = reader.nextName(stateNames);
+            String stateName = stateInd < 0 ? reader.lastToken() : null;
+            int symbolInd = reader.nextSymbolAdding(symbols);
+            String symbol = symbolInd >= alphabetSize ? reader.lastToken() : null;
+            double prob = reader.nextDouble();
 
-            if (toInd == 0) {
-                throw new IllegalArgumentException("Transition to the starting state is forbidden (state: " + targetStateName + ")");
+            if (stateInd < 0) {
+                throw new IllegalArgumentException("Unknown state name in emissions: " + stateName);
+            }
+            if (symbolInd >= alphabetSize) {
+                throw new IllegalArgumentException("Symbol '" + symbol + "' is out of expected alphabet range.");
             }
 
-            transitionProb[fromInd][toInd] = prob;
+            if (i == entryStates.length) {
+                entryStates = Arrays.copyOf(entryStates, i * 2);
+                entrySymbols = Arrays.copyOf(entrySymbols, i * 2);
+                entryProbs = Arrays.copyOf(entryProbs, i * 2);
+            }
+            entryStates[i] = stateInd;
+            entrySymbols[i] = symbolInd;
+            entryProbs[i] = prob;
         }
 
-        // bagian: membaca probabilitas emisi state-simbol
-        int nemissions = scanner.nextInt();
-        stateSymbolProb = new double[nstates][alphabetSize]; // Defaultnya 0.0
+        stateSymbolProb = null;
+        sparseStateSymbolProb = SparseEmissions.fromEntries(nstates, alphabetSize,
+                entryStates, entrySymbols, entryProbs, nemissions);
+    }
+
+    // Emisi kontinu: satu Gaussian per state, atau satu komponen campuran per baris untuk GMM
+    private void readContinuousEmissions(TokenReader reader, NameTable stateNames, int nstates,
+                                         int nemissions, int dimension, boolean mixture) {
+        double[][] means = new double[mixture ? nemissions : nstates][];
+        double[][] variances = new double[means.length][];
+        int[] componentStates = new int[mixture ? nemissions : 0];
+        double[] weights = new double[componentStates.length];
 
         for (int i = 0; i < nemissions; ++i) {
-            String stateName = scanner.next();
-            String symbol = scanner.next(); // Menggunakan String untuk kemudahan baca
-            double prob = scanner.nextDouble();
+            int stateInd = reader.nextName(stateNames);
+            String stateName = stateInd < 0 ? reader.lastToken() : null;
+            double weight = mixture ? reader.nextDouble() : 1.0;
+            double[] mean = new double[dimension];
+            double[] variance = new double[dimension];
+            for (int k = 0; k < dimension; ++k) {
+                mean[k] = reader.nextDouble();
+            }
+            for (int k = 0; k < dimension; ++k) {
+                variance[k] = reader.nextDouble();
+            }
 
-            Integer stateInd = stateNameToIndex.get(stateName);
-            if (stateInd == null) {
+            if (stateInd < 0) {
                 throw new IllegalArgumentException("Unknown state name in emissions: " + stateName);
             }
 
-            int symbolInd = symbolToInd(symbol); // Memanggil helper function
-            if (symbolInd < 0 || symbolInd >= alphabetSize) {
-                throw new IllegalArgumentException("Symbol '" + symbol + "' is out of expected alphabet range.");
+            int slot = mixture ? i : stateInd; // Gaussian tunggal: baris terakhir untuk state yang sama yang dipakai
+            means[slot] = mean;
+            variances[slot] = variance;
+            if (mixture) {
+                componentStates[i] = stateInd;
+                weights[i] = weight;
             }
+        }
 
+        stateSymbolProb = null;
+        sparseStateSymbolProb = null;
+        continuousEmissions = mixture
+                ? new GaussianMixtureEmissions(nstates, componentStates, weights, means, variances, dimension)
+                : new DiagonalGaussianEmissions(means, variances, dimension);
+    }
 
-            stateSymbolProb[stateInd][symbolInd] = prob;
+    /**
+     * Probabilitas emisi simbol dari state, dari tabel padat maupun jarang.
+     */
+    public double emissionProb(int state, int symbol) {
+        if (stateSymbolProb != null) {
+            return stateSymbolProb[state][symbol];
+        }
+        return sparseStateSymbolProb.get(state, symbol);
+    }
+
+    /**
+     * Indeks simbol menurut alphabet model: lewat kamus untuk alphabet token,
+     * atau huruf 'a'..'z' (symbolToInd) untuk alphabet huruf.
+     *
+     * @throws IllegalArgumentException Jika simbol tidak dikenal atau di luar alphabet.
+     */
+    public int symbolIndex(String symbol) {
+        int index = symbols != null ? symbols.find(symbol) : symbolToInd(symbol);
+        if (index < 0 || index >= alphabetSize) {
+            throw new IllegalArgumentException("Symbol '" + symbol + "' is out of model's alphabet range.");
+        }
+        return index;
+    }
+
+    /**
+     * Membuat salinan model yang berdiri sendiri (tabel probabilitas dan nama state disalin).
+     */
+    public Model copy() {
+        Model copy = new Model();
+        copy.alphabetSize = alphabetSize;
+        copy.stateNameToIndex = new HashMap<>(stateNameToIndex);
+        copy.stateIndexToName = new ArrayList<>(stateIndexToName);
+        copy.transitionProb = new double[transitionProb.length][];
+        for (int i = 0; i < transitionProb.length; ++i) {
+            copy.transitionProb[i] = transitionProb[i].clone();
+        }
+        copy.symbols = symbols; // kamus tidak berubah setelah model dibaca, jadi dipakai bersama
+        copy.continuousEmissions = continuousEmissions; // immutable
+        if (stateSymbolProb != null) {
+            copy.stateSymbolProb = new double[stateSymbolProb.length][];
+            for (int i = 0; i < stateSymbolProb.length; ++i) {
+                copy.stateSymbolProb[i] = stateSymbolProb[i].clone();
+            }
+        }
+        if (sparseStateSymbolProb != null) {
+            copy.sparseStateSymbolProb = sparseStateSymbolProb.copy();
         }
+        return copy;
     }
 
     /**
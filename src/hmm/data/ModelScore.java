@@ -0,0 +1,27 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class ModelScore {
+    /// indeks model dalam daftar yang diberikan ke MultiModelScorer
+    public final int model;
+
+    /// log P(O | model) jika exact, selain itu batas atas log-likelihood saat model dieliminasi
+    /// (-Infinity jika observasi mustahil menurut model)
+    public final double logLikelihood;
+
+    /// false jika model dieliminasi lebih awal karena tidak mungkin masuk peringkat teratas
+    public final boolean exact;
+
+    /// jumlah langkah yang diproses untuk model ini
+    public final int steps;
+
+    public ModelScore(int model, double logLikelihood, boolean exact, int steps) {
+        this.model = model;
+        this.logLikelihood = logLikelihood;
+        this.exact = exact;
+        this.steps = steps;
+    }
+}
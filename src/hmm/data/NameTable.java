@@ -0,0 +1,75 @@
+package hmm.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Tabel hash open-addressing dari nama (UTF-8) ke indeks, dicari langsung dari potongan byte
+ * tanpa membuat String. Jika ada nama ganda, indeks terakhir yang dipakai (sama seperti HashMap.put).
+ */
+final class NameTable {
+    private final byte[][] names;
+
+    /// slot berisi indeks + 1 (0 berarti kosong); ukuran selalu pangkat dua
+    private final int[] slots;
+    private final int mask;
+
+    NameTable(List<String> nameList) {
+        names = new byte[nameList.size()][];
+        int capacity = Integer.highestOneBit(Math.max(4, nameList.size() * 2) - 1) << 1;
+        slots = new int[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = nameList.get(i).getBytes(StandardCharsets.UTF_8);
+            int slot = hash(names[i], 0, names[i].length) & mask;
+            while (slots[slot] != 0 && !equal(names[slots[slot] - 1], names[i], 0, names[i].length)) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Mencari indeks nama yang sama dengan bytes[offset, offset + length).
+     *
+     * @return Indeks nama, atau -1 jika tidak ada.
+     */
+    int find(byte[] bytes, int offset, int length) {
+        int slot = hash(bytes, offset, length) & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (equal(names[index], bytes, offset, length)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // FNV-1a 32-bit (dipakai juga oleh SymbolDictionary)
+    static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; ++i) {
+            h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equal(byte[] name, byte[] bytes, int offset, int length) {
+        if (name.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (name[i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+package hmm.data;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class PosteriorMatrix {
+    /// jumlah langkah waktu (panjang urutan observasi)
+    public final int nsteps;
+
+    /// jumlah state pada model
+    public final int nstates;
+
+    /// element[t] adalah koefisien skala c(t) = P(o_t | o_0..o_{t-1}); untuk emisi kontinu c(t) / exp(m(t)),
+    /// dengan m(t) log densitas emisi terbesar di langkah t (lihat Algorithms.calcScaledForwardBackward).
+    public final double[] scale;
+
+    /// log P(O | model) = jumlah log c(t) untuk semua langkah.
+    /// -Infinity jika observasi mustahil menurut model; alpha, beta, dan scale kemudian semuanya 0.
+    public double logLikelihood;
+
+    // alpha dan beta ter-skala disimpan row-major: element[t * nstates + i].
+    // Hanya salah satu pasangan (double atau float) yang dialokasikan.
+    private final double[] alphaDouble;
+    private final double[] betaDouble;
+    private final float[] alphaFloat;
+    private final float[] betaFloat;
+
+    /**
+     * Membuat matriks posterior kosong.
+     *
+     * @param nsteps Jumlah langkah waktu.
+     * @param nstates Jumlah state.
+     * @param singlePrecision true untuk menyimpan alpha dan beta sebagai float (setengah memori).
+     */
+    public PosteriorMatrix(int nsteps, int nstates, boolean singlePrecision) {
+        long cells = (long) nsteps * nstates;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Posterior matrix of " + nsteps + " steps x " + nstates + " states is too large");
+        }
+
+        this.nsteps = nsteps;
+        this.nstates = nstates;
+        this.scale = new double[nsteps];
+        if (singlePrecision) {
+            alphaDouble = null;
+            betaDouble = null;
+            alphaFloat = new float[(int) cells];
+            betaFloat = new float[(int) cells];
+        } else {
+            alphaDouble = new double[(int) cells];
+            betaDouble = new double[(int) cells];
+            alphaFloat = null;
+            betaFloat = null;
+        }
+    }
+
+    public boolean isSinglePrecision() {
+        return alphaFloat != null;
+    }
+
+    /**
+     * true jika urutan observasi memiliki probabilitas 0 menurut model (posterior kosong).
+     */
+    public boolean isImpossible() {
+        return logLikelihood == Double.NEGATIVE_INFINITY;
+    }
+
+    /// alpha^(t, i): probabilitas forward ter-skala, jumlah per langkah adalah 1.
+    public double alpha(int step, int state) {
+        int ind = step * nstates + state;
+        return alphaDouble != null ? alphaDouble[ind] : alphaFloat[ind];
+    }
+
+    /// beta^(t, i): probabilitas backward ter-skala dengan koefisien langkah t + 1.
+    public double beta(int step, int state) {
+        int ind = step * nstates + state;
+        return betaDouble != null ? betaDouble[ind] : betaFloat[ind];
+    }
+
+    /**
+     * Probabilitas posterior P(q_t = i | O). Karena alpha dan beta diskalakan
+     * dengan koefisien yang sama, hasil kalinya langsung merupakan probabilitas marginal.
+     */
+    public double gamma(int step, int state) {
+        return alpha(step, state) * beta(step, state);
+    }
+
+    /**
+     * State dengan probabilitas posterior tertinggi di langkah tertentu.
+     * Jika ada beberapa nilai maksimum yang sama, state dengan indeks terkecil dipilih.
+     */
+    public int argmax(int step) {
+        int offset = step * nstates;
+        int bestState = 0;
+        double bestGamma = -1.0;
+
+        for (int state = 0; state < nstates; ++state) {
+            int ind = offset + state;
+            double gamma = alphaDouble != null
+                    ? alphaDouble[ind] * betaDouble[ind]
+                    : (double) alphaFloat[ind] * betaFloat[ind];
+            if (gamma > bestGamma) {
+                bestGamma = gamma;
+                bestState = state;
+            }
+        }
+
+        return bestState;
+    }
+
+    /**
+     * Mengisi urutan state paling mungkin per langkah ke dalam array milik pemanggil.
+     *
+     * @param path Array tujuan dengan panjang minimal nsteps.
+     */
+    public void argmaxPath(int[] path) {
+        if (path.length < nsteps) {
+            throw new IllegalArgumentException("Path array must hold at least " + nsteps + " steps");
+        }
+        for (int t = 0; t < nsteps; ++t) {
+            path[t] = argmax(t);
+        }
+    }
+
+    /**
+     * Menyimpan satu baris alpha ter-skala.
+     */
+    public void setAlphaRow(int step, double[] row) {
+        setRow(step, row, alphaDouble, alphaFloat);
+    }
+
+    /**
+     * Menyimpan satu baris beta ter-skala.
+     */
+    public void setBetaRow(int step, double[] row) {
+        setRow(step, row, betaDouble, betaFloat);
+    }
+
+    private void setRow(int step, double[] row, double[] doubleStorage, float[] floatStorage) {
+        int offset = step * nstates;
+        if (doubleStorage != null) {
+            System.arraycopy(row, 0, doubleStorage, offset, nstates);
+        } else {
+            for (int state = 0; state < nstates; ++state) {
+                floatStorage[offset + state] = (float) row[state];
+            }
+        }
+    }
+
+    /**
+     * Tampilan lama (alpha, beta) dalam bentuk List bersarang. Tampilan ini lazy:
+     * pasangan SimpleEntry hanya dibuat saat diakses, tidak disimpan.
+     */
+    public List<List<Map.Entry<Double, Double>>> asEntryList() {
+        return new AbstractList<List<Map.Entry<Double, Double>>>() {
+            @Override
+            public List<Map.Entry<Double, Double>> get(final int step) {
+                if (step < 0 || step >= nsteps) {
+                    throw new IndexOutOfBoundsException("Step " + step + " out of bounds [0, " + nsteps + ")");
+                }
+                return new AbstractList<Map.Entry<Double, Double>>() {
+                    @Override
+                    public Map.Entry<Double, Double> get(int state) {
+                        if (state < 0 || state >= nstates) {
+                            throw new IndexOutOfBoundsException("State " + state + " out of bounds [0, " + nstates + ")");
+                        }
+                        return new AbstractMap.SimpleImmutableEntry<>(alpha(step, state), beta(step, state));
+                    }
+
+                    @Override
+                    public int size() {
+                        return nstates;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return nsteps;
+            }
+        };
+    }
+}
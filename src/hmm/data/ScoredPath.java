@@ -0,0 +1,18 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class ScoredPath {
+    /// urutan state per langkah
+    public final int[] path;
+
+    /// log probabilitas gabungan urutan state dan observasi menurut model
+    public final double logProbability;
+
+    public ScoredPath(int[] path, double logProbability) {
+        this.path = path;
+        this.logProbability = logProbability;
+    }
+}
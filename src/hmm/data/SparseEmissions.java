@@ -0,0 +1,141 @@
+package hmm.data;
+
+import java.util.Arrays;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Tabel probabilitas emisi dalam bentuk jarang per state (CSR): hanya pasangan (state, simbol)
+ * dengan probabilitas non-nol yang disimpan, sehingga memori sebanding dengan jumlah entri
+ * non-nol, bukan nstates * alphabetSize. Di dalam setiap baris, entri diurutkan menurut simbol.
+ * Struktur (rowStart, symbols) tetap setelah dibuat; nilai probs boleh diubah di tempat
+ * (misalnya oleh M-step Baum-Welch).
+ */
+public class SparseEmissions {
+    /// jumlah state
+    public final int nstates;
+
+    /// jumlah simbol yang dapat diemisikan
+    public final int alphabetSize;
+
+    /// entri state i berada di indeks rowStart[i] .. rowStart[i + 1] - 1
+    public final int[] rowStart;
+
+    /// simbol setiap entri, menaik di dalam satu baris
+    public final int[] symbols;
+
+    /// probabilitas emisi setiap entri
+    public final double[] probs;
+
+    private SparseEmissions(int nstates, int alphabetSize, int[] rowStart, int[] symbols, double[] probs) {
+        this.nstates = nstates;
+        this.alphabetSize = alphabetSize;
+        this.rowStart = rowStart;
+        this.symbols = symbols;
+        this.probs = probs;
+    }
+
+    /**
+     * Membangun tabel dari daftar entri dalam urutan sembarang. Jika pasangan (state, simbol) yang
+     * sama muncul lebih dari sekali, entri terakhir yang dipakai (sama seperti menulis ke tabel padat).
+     * Entri dengan probabilitas 0 dibuang.
+     *
+     * @param entryStates State setiap entri.
+     * @param entrySymbols Simbol setiap entri.
+     * @param entryProbs Probabilitas setiap entri.
+     * @param count Jumlah entri yang dipakai dari ketiga array.
+     * @throws IndexOutOfBoundsException Jika state atau simbol di luar jangkauan.
+     */
+    public static SparseEmissions fromEntries(int nstates, int alphabetSize,
+                                              int[] entryStates, int[] entrySymbols, double[] entryProbs, int count) {
+        // bagian: counting sort stabil menurut state
+        int[] rowStart = new int[nstates + 1];
+        for (int i = 0; i < count; ++i) {
+            int state = entryStates[i];
+            int symbol = entrySymbols[i];
+            if (state < 0 || state >= nstates) {
+                throw new IndexOutOfBoundsException("Invalid state index " + state + " in emission entry " + i);
+            }
+            if (symbol < 0 || symbol >= alphabetSize) {
+                throw new IndexOutOfBoundsException("Invalid symbol index " + symbol + " in emission entry " + i);
+            }
+            ++rowStart[state + 1];
+        }
+        for (int state = 0; state < nstates; ++state) {
+            rowStart[state + 1] += rowStart[state];
+        }
+        int[] next = Arrays.copyOf(rowStart, nstates);
+        int[] order = new int[count];
+        for (int i = 0; i < count; ++i) {
+            order[next[entryStates[i]]++] = i;
+        }
+
+        // bagian: urutkan setiap baris menurut simbol (lalu urutan masukan), buang duplikat dan nol
+        int[] symbols = new int[count];
+        double[] probs = new double[count];
+        int[] compactStart = new int[nstates + 1];
+        long[] keys = new long[count];
+        int out = 0;
+        for (int state = 0; state < nstates; ++state) {
+            int start = rowStart[state];
+            int end = rowStart[state + 1];
+            for (int k = start; k < end; ++k) {
+                keys[k] = ((long) entrySymbols[order[k]] << 32) | order[k];
+            }
+            Arrays.sort(keys, start, end);
+
+            compactStart[state] = out;
+            for (int k = start; k < end; ++k) {
+                int symbol = (int) (keys[k] >>> 32);
+                if (k + 1 < end && (int) (keys[k + 1] >>> 32) == symbol) {
+                    continue; // entri berikutnya untuk simbol yang sama menimpa yang ini
+                }
+                double prob = entryProbs[(int) keys[k]];
+                if (prob != 0.0) {
+                    symbols[out] = symbol;
+                    probs[out] = prob;
+                    ++out;
+                }
+            }
+        }
+        compactStart[nstates] = out;
+
+        return new SparseEmissions(nstates, alphabetSize, compactStart,
+                Arrays.copyOf(symbols, out), Arrays.copyOf(probs, out));
+    }
+
+    /**
+     * Jumlah entri non-nol yang disimpan.
+     */
+    public int nonZeros() {
+        return rowStart[nstates];
+    }
+
+    /**
+     * Indeks entri untuk pasangan (state, simbol), dicari dengan binary search di baris state.
+     *
+     * @return Indeks entri, atau -1 jika probabilitasnya 0 (tidak disimpan).
+     */
+    public int indexOf(int state, int symbol) {
+        int index = Arrays.binarySearch(symbols, rowStart[state], rowStart[state + 1], symbol);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Probabilitas emisi simbol dari state (0 jika tidak disimpan).
+     */
+    public double get(int state, int symbol) {
+        int index = indexOf(state, symbol);
+        return index >= 0 ? probs[index] : 0.0;
+    }
+
+    /**
+     * Salinan yang berdiri sendiri (nilai probs disalin, struktur dipakai bersama karena tidak berubah).
+     */
+    public SparseEmissions copy() {
+        return new SparseEmissions(nstates, alphabetSize, rowStart, symbols, probs.clone());
+    }
+}
@@ -0,0 +1,135 @@
+package hmm.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Kamus simbol emisi: token string sembarang (tanpa whitespace) dipetakan ke id int yang rapat
+ * (0, 1, 2, ... sesuai urutan pertama kali ditambahkan). Memakai tabel hash open-addressing
+ * primitif (int[] slot, probing linear) dan menyimpan semua nama dalam satu array byte UTF-8,
+ * sehingga jutaan simbol tidak membutuhkan jutaan objek. Pencarian dari potongan byte (dipakai
+ * TokenReader) tidak membuat String.
+ * Objek ini tidak thread-safe untuk penambahan; setelah model selesai dibaca hanya dipakai untuk
+ * pencarian, yang aman dilakukan bersamaan.
+ */
+public class SymbolDictionary {
+    /// nama simbol id i berada di bytes[offsets[i], offsets[i + 1])
+    private byte[] bytes = new byte[256];
+    private int[] offsets = new int[17];
+    private int size;
+
+    /// slot berisi id + 1 (0 berarti kosong); ukuran selalu pangkat dua, terisi paling banyak separuh
+    private int[] slots = new int[32];
+
+    /**
+     * Jumlah simbol dalam kamus.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Nama simbol dengan id tertentu.
+     *
+     * @throws IndexOutOfBoundsException Jika id tidak ada dalam kamus.
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Invalid symbol id " + id + " for dictionary of size " + size);
+        }
+        return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mencari id simbol.
+     *
+     * @return Id simbol, atau -1 jika tidak ada.
+     */
+    public int find(String symbol) {
+        byte[] encoded = symbol.getBytes(StandardCharsets.UTF_8);
+        return find(encoded, 0, encoded.length);
+    }
+
+    /**
+     * Mengembalikan id simbol, menambahkannya ke kamus jika belum ada.
+     */
+    public int add(String symbol) {
+        byte[] encoded = symbol.getBytes(StandardCharsets.UTF_8);
+        return add(encoded, 0, encoded.length);
+    }
+
+    int find(byte[] name, int offset, int length) {
+        int mask = slots.length - 1;
+        int slot = NameTable.hash(name, offset, length) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (equal(id, name, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int add(byte[] name, int offset, int length) {
+        int mask = slots.length - 1;
+        int slot = NameTable.hash(name, offset, length) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (equal(id, name, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // bagian: simpan nama baru
+        int id = size;
+        int start = offsets[id];
+        if (start + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(start + length, bytes.length * 2));
+        }
+        System.arraycopy(name, offset, bytes, start, length);
+        if (id + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[id + 1] = start + length;
+        ++size;
+
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] grown = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; ++id) {
+            int slot = NameTable.hash(bytes, offsets[id], offsets[id + 1] - offsets[id]) & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id + 1;
+        }
+        slots = grown;
+    }
+
+    private boolean equal(int id, byte[] name, int offset, int length) {
+        int start = offsets[id];
+        if (offsets[id + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (bytes[start + i] != name[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,299 @@
+package hmm.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Tokenizer tingkat byte untuk file .model dan .data, pengganti Scanner.
+ * Token dipisahkan whitespace ASCII; int, double, nama state, dan simbol diparse langsung
+ * dari buffer byte tanpa regex dan tanpa String perantara (String hanya dibuat untuk next()
+ * dan pesan error). Seperti Scanner, akhir stream menghasilkan NoSuchElementException dan
+ * token yang tidak sesuai tipe menghasilkan InputMismatchException.
+ */
+final class TokenReader {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /// 10^0 .. 10^22 terwakili tepat sebagai double
+    private static final double[] EXACT_POWERS_OF_TEN = new double[23];
+
+    static {
+        EXACT_POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < EXACT_POWERS_OF_TEN.length; ++i) {
+            EXACT_POWERS_OF_TEN[i] = EXACT_POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private int position;
+    private int limit;
+
+    /// token terakhir: token[0, tokenLength)
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    /// token terakhir dikembalikan oleh nextIs dan akan dibaca ulang oleh pemanggilan berikutnya
+    private boolean pushedBack;
+
+    TokenReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Membaca token berikutnya ke buffer token.
+     *
+     * @throws NoSuchElementException Jika stream sudah habis.
+     */
+    private void readToken() {
+        if (pushedBack) {
+            pushedBack = false;
+            return;
+        }
+        int b = skipWhitespace();
+        if (b < 0) {
+            throw new NoSuchElementException();
+        }
+        tokenLength = 0;
+        while (b > ' ') {
+            if (tokenLength == token.length) {
+                byte[] grown = new byte[token.length * 2];
+                System.arraycopy(token, 0, grown, 0, tokenLength);
+                token = grown;
+            }
+            token[tokenLength++] = (byte) b;
+            b = read();
+        }
+    }
+
+    private int skipWhitespace() {
+        int b = read();
+        while (b >= 0 && b <= ' ') {
+            b = read();
+        }
+        return b;
+    }
+
+    private int read() {
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF; // tanpa tanda: byte UTF-8 >= 0x80 bagian dari token, -1 hanya untuk EOF
+    }
+
+    /**
+     * Token terakhir sebagai String (untuk pesan error).
+     */
+    String lastToken() {
+        return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Token berikutnya sebagai String.
+     */
+    String next() {
+        readToken();
+        return lastToken();
+    }
+
+    /**
+     * Token berikutnya sebagai int desimal bertanda.
+     */
+    int nextInt() {
+        readToken();
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i = 1;
+        }
+        if (i == tokenLength) {
+            throw mismatch();
+        }
+        long value = 0;
+        for (; i < tokenLength; ++i) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw mismatch();
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw mismatch();
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw mismatch();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Token berikutnya sebagai double. Bentuk desimal sederhana (paling banyak 15 digit signifikan
+     * dan eksponen desimal |e| <= 22) dihitung langsung dan hasilnya tepat sama dengan
+     * Double.parseDouble; bentuk lain diserahkan ke Double.parseDouble.
+     */
+    double nextDouble() {
+        readToken();
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i = 1;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < tokenLength; ++i) {
+            int c = token[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    // nol di depan tidak menambah digit signifikan
+                } else if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    ++digits;
+                } else {
+                    return parseSlow();
+                }
+                if (seenPoint) {
+                    --exponent;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if ((c == 'e' || c == 'E') && seenDigit) {
+                return parseWithExponent(i + 1, mantissa, digits, exponent, negative);
+            } else {
+                return parseSlow();
+            }
+        }
+        if (!seenDigit) {
+            return parseSlow();
+        }
+        return scale(mantissa, digits, exponent, negative);
+    }
+
+    private double parseWithExponent(int start, long mantissa, int digits, int exponent, boolean negative) {
+        int i = start;
+        boolean negativeExponent = false;
+        if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+            negativeExponent = token[i] == '-';
+            ++i;
+        }
+        if (i == tokenLength || tokenLength - i > 4) {
+            return parseSlow();
+        }
+        int value = 0;
+        for (; i < tokenLength; ++i) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return parseSlow();
+            }
+            value = value * 10 + digit;
+        }
+        return scale(mantissa, digits, exponent + (negativeExponent ? -value : value), negative);
+    }
+
+    private double scale(long mantissa, int digits, int exponent, boolean negative) {
+        if (digits > 15 || exponent < -22 || exponent > 22) {
+            return parseSlow();
+        }
+        // mantissa dan 10^|exponent| keduanya tepat, jadi satu perkalian/pembagian dibulatkan dengan benar
+        double value = mantissa;
+        value = exponent < 0 ? value / EXACT_POWERS_OF_TEN[-exponent] : value * EXACT_POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private double parseSlow() {
+        try {
+            return Double.parseDouble(lastToken());
+        } catch (NumberFormatException e) {
+            throw mismatch();
+        }
+    }
+
+    /**
+     * Token berikutnya dicari di tabel nama.
+     *
+     * @return Indeks nama, atau -1 jika tidak ada (nama bisa diambil lewat lastToken()).
+     */
+    int nextName(NameTable table) {
+        readToken();
+        return table.find(token, 0, tokenLength);
+    }
+
+    /**
+     * Token berikutnya sebagai simbol emisi satu huruf 'a'..'z'.
+     *
+     * @return Indeks simbol, atau -1 jika token bukan simbol yang valid (lihat Model.symbolToInd untuk pesan errornya).
+     */
+    int nextSymbol() {
+        readToken();
+        if (tokenLength == 1 && token[0] >= 'a' && token[0] <= 'z') {
+            return token[0] - 'a';
+        }
+        return -1;
+    }
+
+    /**
+     * Token berikutnya dicari di kamus simbol.
+     *
+     * @return Id simbol, atau -1 jika tidak ada (token bisa diambil lewat lastToken()).
+     */
+    int nextSymbol(SymbolDictionary dictionary) {
+        readToken();
+        return dictionary.find(token, 0, tokenLength);
+    }
+
+    /**
+     * Token berikutnya sebagai simbol kamus; simbol baru ditambahkan ke kamus.
+     *
+     * @return Id simbol.
+     */
+    int nextSymbolAdding(SymbolDictionary dictionary) {
+        readToken();
+        return dictionary.add(token, 0, tokenLength);
+    }
+
+    /**
+     * Mengecek apakah token berikutnya sama dengan keyword. Jika tidak, token tersebut
+     * tidak dikonsumsi dan akan dibaca lagi oleh pemanggilan berikutnya.
+     *
+     * @param keyword Keyword ASCII.
+     */
+    boolean nextIs(String keyword) {
+        readToken();
+        boolean matches = tokenLength == keyword.length();
+        for (int i = 0; matches && i < tokenLength; ++i) {
+            matches = token[i] == keyword.charAt(i);
+        }
+        pushedBack = !matches;
+        return matches;
+    }
+
+    private InputMismatchException mismatch() {
+        return new InputMismatchException();
+    }
+}
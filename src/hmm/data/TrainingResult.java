@@ -0,0 +1,26 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+public class TrainingResult {
+    /// model hasil estimasi ulang
+    public final Model model;
+
+    /// jumlah iterasi EM yang dijalankan
+    public final int iterations;
+
+    /// element[k] adalah total log-likelihood data terhadap model sebelum iterasi k
+    public final double[] logLikelihoods;
+
+    /// true jika selisih log-likelihood sudah di bawah toleransi sebelum batas iterasi
+    public final boolean converged;
+
+    public TrainingResult(Model model, int iterations, double[] logLikelihoods, boolean converged) {
+        this.model = model;
+        this.iterations = iterations;
+        this.logLikelihoods = logLikelihoods;
+        this.converged = converged;
+    }
+}
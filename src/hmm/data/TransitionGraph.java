@@ -0,0 +1,162 @@
+package hmm.data;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Bentuk terkompilasi (CSR) dari Model.transitionProb yang hanya menyimpan transisi non-nol.
+ * Disimpan dua kali: dikelompokkan per state tujuan (daftar predecessor, untuk Viterbi dan forward)
+ * dan per state asal (daftar successor, untuk backward). Di dalam setiap kelompok, edge diurutkan
+ * menurut indeks state, sehingga urutan penjumlahan dan pemilihan nilai maksimum sama dengan
+ * loop penuh di atas matriks.
+ * Untuk graf padat disimpan juga matriks penuh yang contiguous (lihat denseInProb), sehingga
+ * kernel dapat memakai dot product / max-plus tanpa indeks tidak langsung (dan SIMD jika tersedia).
+ * Objek ini immutable setelah dibuat; array publiknya tidak boleh diubah.
+ */
+public class TransitionGraph {
+    /// graf dengan density minimal sebesar ini (dan cukup banyak state) juga disimpan dalam bentuk padat
+    public static final double DENSE_MIN_DENSITY = 0.5;
+
+    /// di bawah jumlah state ini loop CSR sudah cukup cepat, bentuk padat tidak dibangun
+    public static final int DENSE_MIN_STATES = 32;
+
+    /// jumlah state
+    public final int nstates;
+
+    /// jumlah transisi non-nol
+    public final int nedges;
+
+    /// in-edge state j berada di indeks inStart[j] .. inStart[j + 1] - 1
+    public final int[] inStart;
+
+    /// state asal setiap in-edge
+    public final int[] inSource;
+
+    /// probabilitas transisi setiap in-edge
+    public final double[] inProb;
+
+    /// log probabilitas transisi setiap in-edge
+    public final double[] inLogProb;
+
+    /// out-edge state i berada di indeks outStart[i] .. outStart[i + 1] - 1
+    public final int[] outStart;
+
+    /// state tujuan setiap out-edge
+    public final int[] outTarget;
+
+    /// probabilitas transisi setiap out-edge
+    public final double[] outProb;
+
+    /// matriks transisi ter-transpose row-major: element[j * nstates + i] = transitionProb[i][j]; null untuk graf jarang
+    public final double[] denseInProb;
+
+    /// log dari denseInProb; null untuk graf jarang
+    public final double[] denseInLogProb;
+
+    /// matriks transisi row-major: element[i * nstates + j] = transitionProb[i][j]; null untuk graf jarang
+    public final double[] denseOutProb;
+
+    /**
+     * Mengompilasi matriks transisi persegi menjadi daftar edge non-nol.
+     *
+     * @param transitionProb element[i][j] adalah probabilitas transisi dari state i ke state j.
+     * @throws IllegalArgumentException Jika matriks bukan matriks persegi.
+     */
+    public TransitionGraph(double[][] transitionProb) {
+        int n = transitionProb.length;
+        int count = 0;
+        for (int i = 0; i < n; ++i) {
+            if (transitionProb[i].length != n) {
+                throw new IllegalArgumentException("Transition matrix must be a square matrix.");
+            }
+            for (int j = 0; j < n; ++j) {
+                if (transitionProb[i][j] > 0.0) {
+                    ++count;
+                }
+            }
+        }
+
+        nstates = n;
+        nedges = count;
+        inStart = new int[n + 1];
+        inSource = new int[count];
+        inProb = new double[count];
+        inLogProb = new double[count];
+        outStart = new int[n + 1];
+        outTarget = new int[count];
+        outProb = new double[count];
+
+        // bagian: daftar predecessor, per kolom tujuan
+        int edge = 0;
+        for (int to = 0; to < n; ++to) {
+            inStart[to] = edge;
+            for (int from = 0; from < n; ++from) {
+                double prob = transitionProb[from][to];
+                if (prob > 0.0) {
+                    inSource[edge] = from;
+                    inProb[edge] = prob;
+                    inLogProb[edge] = Math.log(prob);
+                    ++edge;
+                }
+            }
+        }
+        inStart[n] = edge;
+
+        // bagian: daftar successor, per baris asal
+        edge = 0;
+        for (int from = 0; from < n; ++from) {
+            outStart[from] = edge;
+            for (int to = 0; to < n; ++to) {
+                double prob = transitionProb[from][to];
+                if (prob > 0.0) {
+                    outTarget[edge] = to;
+                    outProb[edge] = prob;
+                    ++edge;
+                }
+            }
+        }
+        outStart[n] = edge;
+
+        // bagian: bentuk padat untuk graf padat
+        if (n >= DENSE_MIN_STATES && density() >= DENSE_MIN_DENSITY && (long) n * n <= Integer.MAX_VALUE) {
+            denseInProb = new double[n * n];
+            denseInLogProb = new double[n * n];
+            denseOutProb = new double[n * n];
+            for (int from = 0; from < n; ++from) {
+                for (int to = 0; to < n; ++to) {
+                    double prob = transitionProb[from][to] > 0.0 ? transitionProb[from][to] : 0.0;
+                    denseInProb[to * n + from] = prob;
+                    denseInLogProb[to * n + from] = Math.log(prob);
+                    denseOutProb[from * n + to] = prob;
+                }
+            }
+        } else {
+            denseInProb = null;
+            denseInLogProb = null;
+            denseOutProb = null;
+        }
+    }
+
+    /**
+     * Apakah bentuk padat (denseInProb, denseInLogProb, denseOutProb) tersedia.
+     */
+    public boolean isDense() {
+        return denseInProb != null;
+    }
+
+    /**
+     * Mengompilasi transisi dari model yang sudah dibaca.
+     */
+    public static TransitionGraph compile(Model model) {
+        return new TransitionGraph(model.transitionProb);
+    }
+
+    /**
+     * Rasio transisi non-nol terhadap seluruh sel matriks (0..1).
+     */
+    public double density() {
+        return nstates == 0 ? 0.0 : (double) nedges / ((double) nstates * nstates);
+    }
+}
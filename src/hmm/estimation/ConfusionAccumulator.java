@@ -0,0 +1,205 @@
+package hmm.estimation;
+
+import hmm.data.ConfusionSnapshot;
+import hmm.data.LabeledSequence;
+import hmm.data.Model;
+import hmm.metrics.Metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Confusion matrix yang diisi bertahap dan aman dipakai oleh banyak thread sekaligus, untuk evaluasi
+ * streaming atau atas banyak urutan tanpa menyimpan seluruh prediksi.
+ * Setiap sel adalah LongAdder (ter-stripe saat ada kontensi) yang baru dibuat saat pertama kali
+ * dipakai, karena confusion matrix biasanya didominasi diagonal. Metrik dibaca lewat {@link #snapshot()}.
+ * <p>
+ * Contoh dengan decoder streaming, state sebenarnya diambil dari data berlabel:
+ * {@code new OnlineViterbiDecoder(compiled, window, accumulator.listener(labels::state))}.
+ * Dengan BatchDecoder, setiap worker dapat memanggil {@link #addAll(LabeledSequence, int[])} langsung.
+ */
+public class ConfusionAccumulator {
+    private final int nstates;
+
+    // cells[predicted * nstates + real]; null berarti hitungannya masih 0
+    private final AtomicReferenceArray<LongAdder> cells;
+
+    /**
+     * @param nstates Jumlah state (termasuk state begin/end, sama dengan indeks state model).
+     */
+    public ConfusionAccumulator(int nstates) {
+        if (nstates < 1) {
+            throw new IllegalArgumentException("Confusion matrix needs at least one state");
+        }
+        if ((long) nstates * nstates > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Confusion matrix of " + nstates + " states is too large");
+        }
+        this.nstates = nstates;
+        this.cells = new AtomicReferenceArray<>(nstates * nstates);
+    }
+
+    public ConfusionAccumulator(Model model) {
+        this(model.stateIndexToName.size());
+    }
+
+    public int nstates() {
+        return nstates;
+    }
+
+    /**
+     * Mencatat satu langkah dengan prediksi predicted saat state sebenarnya real.
+     *
+     * @throws IndexOutOfBoundsException Jika indeks state di luar [0, nstates).
+     */
+    public void add(int predicted, int real) {
+        cell(predicted, real).increment();
+    }
+
+    /**
+     * Mencatat count langkah dengan prediksi predicted saat state sebenarnya real.
+     *
+     * @throws IndexOutOfBoundsException Jika indeks state di luar [0, nstates).
+     */
+    public void add(int predicted, int real, long count) {
+        if (count != 0) {
+            cell(predicted, real).add(count);
+        }
+    }
+
+    /**
+     * Mencatat semua langkah satu urutan. predictedStates boleh lebih panjang dari realData
+     * (mis. array path milik workspace); hanya realData.size() langkah pertama yang dihitung.
+     *
+     * @throws IllegalArgumentException Jika predictedStates lebih pendek dari realData.
+     * @throws IndexOutOfBoundsException Jika indeks state di luar [0, nstates).
+     */
+    public void addAll(LabeledSequence realData, int[] predictedStates) {
+        int maxtime = realData.size();
+        if (predictedStates.length < maxtime) {
+            throw new IllegalArgumentException("Predicted states (" + predictedStates.length + " steps) do not cover real hmm.data (" + maxtime + " steps).");
+        }
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        for (int t = 0; t < maxtime; ++t) {
+            add(predictedStates[t], realData.state(t));
+        }
+        Metrics.record(Metrics.Stage.CONFUSION_MATRIX, startNanos, startBytes, maxtime);
+    }
+
+    /**
+     * Seperti Estimation.combineConfusionMatrix, tetapi menambahkan ke accumulator ini.
+     *
+     * @throws IllegalArgumentException Jika ukuran hmm.data asli dan hmm.data prediksi tidak cocok.
+     * @throws IndexOutOfBoundsException Jika indeks state di luar [0, nstates).
+     */
+    public void addAll(LabeledSequence realData, List<Integer> predictedStates) {
+        int maxtime = predictedStates.size();
+        if (maxtime != realData.size()) {
+            throw new IllegalArgumentException("Predicted states (" + maxtime + " steps) and real hmm.data (" + realData.size() + " steps) must have the same size.");
+        }
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        for (int t = 0; t < maxtime; ++t) {
+            add(predictedStates.get(t), realData.state(t));
+        }
+        Metrics.record(Metrics.Stage.CONFUSION_MATRIX, startNanos, startBytes, maxtime);
+    }
+
+    /**
+     * Listener untuk decoder streaming (mis. OnlineViterbiDecoder) yang mengirim state terprediksi
+     * berurutan mulai langkah 0. State sebenarnya langkah t diambil dari realStateAt(t).
+     * Listener menyimpan nomor langkahnya sendiri, jadi hanya untuk satu decoder (satu thread).
+     */
+    public IntConsumer listener(IntUnaryOperator realStateAt) {
+        return new IntConsumer() {
+            private int step = 0;
+
+            @Override
+            public void accept(int predicted) {
+                add(predicted, realStateAt.applyAsInt(step++));
+            }
+        };
+    }
+
+    /**
+     * Menambahkan semua hitungan accumulator lain (mis. dari shard atau worker lain) ke accumulator ini.
+     *
+     * @throws IllegalArgumentException Jika jumlah state berbeda.
+     */
+    public void merge(ConfusionAccumulator other) {
+        merge(other.snapshot());
+    }
+
+    /**
+     * Menambahkan hitungan sebuah snapshot ke accumulator ini.
+     *
+     * @throws IllegalArgumentException Jika jumlah state berbeda.
+     */
+    public void merge(ConfusionSnapshot snapshot) {
+        if (snapshot.nstates != nstates) {
+            throw new IllegalArgumentException("Cannot merge confusion matrix of " + snapshot.nstates + " states into one of " + nstates + " states");
+        }
+        for (int predicted = 0; predicted < nstates; ++predicted) {
+            for (int real = 0; real < nstates; ++real) {
+                long count = snapshot.count(predicted, real);
+                if (count != 0) {
+                    cellAt(predicted * nstates + real).add(count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Membaca semua sel menjadi snapshot immutable. Jika ada thread yang masih menambahkan,
+     * snapshot mungkin memuat sebagian penambahan yang sedang berjalan (setiap sel tetap konsisten).
+     */
+    public ConfusionSnapshot snapshot() {
+        long[] counts = new long[nstates * nstates];
+        for (int index = 0; index < counts.length; ++index) {
+            LongAdder cell = cells.get(index);
+            if (cell != null) {
+                counts[index] = cell.sum();
+            }
+        }
+        return new ConfusionSnapshot(nstates, counts);
+    }
+
+    /**
+     * Mengosongkan semua hitungan. Sebaiknya tidak dipanggil saat thread lain masih menambahkan.
+     */
+    public void reset() {
+        for (int index = 0; index < cells.length(); ++index) {
+            LongAdder cell = cells.get(index);
+            if (cell != null) {
+                cell.reset();
+            }
+        }
+    }
+
+    private LongAdder cell(int predicted, int real) {
+        if (predicted < 0 || predicted >= nstates) {
+            throw new IndexOutOfBoundsException("Predicted state index " + predicted + " out of bounds [0, " + (nstates - 1) + "]");
+        }
+        if (real < 0 || real >= nstates) {
+            throw new IndexOutOfBoundsException("Real state index " + real + " out of bounds [0, " + (nstates - 1) + "]");
+        }
+        return cellAt(predicted * nstates + real);
+    }
+
+    private LongAdder cellAt(int index) {
+        LongAdder cell = cells.get(index);
+        if (cell == null) {
+            cells.compareAndSet(index, null, new LongAdder());
+            cell = cells.get(index);
+        }
+        return cell;
+    }
+}
@@ -1,7 +1,9 @@
 package hmm.estimation;
-import hmm.data.ExperimentData;
+import hmm.data.LabeledSequence;
 import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
 import hmm.data.PredictionEstimation;
+import hmm.metrics.Metrics;
 
 import java.util.*;
 
@@ -56,30 +58,53 @@ public class Estimation {
         return mostProbableStates;
     }
 
+    /**
+     * Sama seperti getMostProbableStates(List), tetapi langsung membaca matriks posterior
+     * primitif tanpa boxing pasangan (alpha, beta).
+     *
+     * @param posterior Hasil dari Algorithms.calcScaledForwardBackward.
+     * @return List indeks state paling mungkin di setiap langkah waktu.
+     */
+    public static List<Integer> getMostProbableStates(PosteriorMatrix posterior) {
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
+        int maxtime = posterior.nsteps;
+        List<Integer> mostProbableStates = new ArrayList<>(maxtime);
+
+        for (int t = 0; t < maxtime; ++t) {
+            mostProbableStates.add(posterior.argmax(t));
+        }
+
+        Metrics.record(Metrics.Stage.POSTERIOR_ARGMAX, startNanos, startBytes, maxtime);
+        return mostProbableStates;
+    }
+
     /**
      * Menggabungkan hasil prediksi state ke dalam Confusion Matrix.
      * confusionMatrix[i][j] adalah jumlah elemen dengan prediksi state i saat state sebenarnya j.
      *
-     * @param realData Data eksperimen asli (dengan state sebenarnya).
+     * @param realData Data eksperimen asli (dengan state sebenarnya), diskrit maupun kontinu.
      * @param predictedStates List state yang diprediksi (hasil Viterbi atau FB).
      * @param model Model HMM terkait (untuk jumlah state).
      * @return Confusion Matrix (array 2D).
      * @throws IllegalArgumentException Jika ukuran hmm.data asli dan hmm.data prediksi tidak cocok.
      */
-    public static int[][] combineConfusionMatrix(ExperimentData realData,
+    public static int[][] combineConfusionMatrix(LabeledSequence realData,
                                                  List<Integer> predictedStates, Model model) {
+        long startNanos = Metrics.startNanos();
+        long startBytes = Metrics.startBytes();
         int maxtime = predictedStates.size();
         int nstates = model.stateIndexToName.size(); // Gunakan jumlah state dari model
         int[][] confusionMatrix = new int[nstates][nstates]; // Defaultnya 0
 
         // Cek apakah ukuran hmm.data asli dan prediksi cocok
-        if (maxtime != realData.timeStateSymbol.size()) {
-            throw new IllegalArgumentException("Predicted states (" + maxtime + " steps) and real hmm.data (" + realData.timeStateSymbol.size() + " steps) must have the same size.");
+        if (maxtime != realData.size()) {
+            throw new IllegalArgumentException("Predicted states (" + maxtime + " steps) and real hmm.data (" + realData.size() + " steps) must have the same size.");
         }
 
         for (int t = 0; t < maxtime; ++t) {
             int predictedInd = predictedStates.get(t);
-            int realInd = realData.timeStateSymbol.get(t).stateIndex; // Mengakses TimeStateSymbolTuple
+            int realInd = realData.state(t); // Mengakses kolom state
 
             // Cek batas indeks sebelum akses array
             if (predictedInd < 0 || predictedInd >= nstates) {
@@ -93,6 +118,7 @@ public class Estimation {
             confusionMatrix[predictedInd][realInd]++;
         }
 
+        Metrics.record(Metrics.Stage.CONFUSION_MATRIX, startNanos, startBytes, maxtime);
         return confusionMatrix;
     }
 
@@ -0,0 +1,184 @@
+package hmm.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Histogram latensi lock-free dengan bucket log-linear: setiap pangkat dua dibagi menjadi
+ * 8 sub-bucket, sehingga persentil akurat sampai sekitar 12.5%. Pencatatan O(1) dan aman dari
+ * banyak thread; pembacaan saat pencatatan masih berjalan bersifat perkiraan (gunakan snapshot()
+ * agar jumlah, persentil dan maksimum yang dilaporkan konsisten).
+ */
+public class LatencyHistogram {
+    // Jumlah bit sub-bucket per pangkat dua (8 sub-bucket)
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Mencatat satu durasi dalam nanodetik (nilai negatif dianggap 0).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double meanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) totalNanos.sum() / n;
+    }
+
+    /**
+     * Batas atas bucket yang memuat persentil q (0 < q <= 1), dibatasi oleh nilai maksimum yang tercatat.
+     *
+     * @return Latensi dalam nanodetik, atau 0 jika belum ada catatan.
+     */
+    public long percentileNanos(double q) {
+        return snapshot().percentileNanos(q);
+    }
+
+    /**
+     * Salinan bucket saat ini. Jumlah, persentil, rata-rata dan maksimum dari satu snapshot
+     * konsisten satu sama lain, walaupun pencatatan berjalan bersamaan.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKETS; ++i) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+            if (copy[i] != 0) {
+                highest = i;
+            }
+        }
+        long max = 0;
+        long sum = 0;
+        if (total > 0) {
+            // max dan totalNanos diperbarui setelah bucket; batasi ke rentang bucket yang terlihat
+            max = Math.min(Math.max(maxNanos.get(), bucketLowerBound(highest)), bucketUpperBound(highest));
+            sum = Math.min(Math.max(totalNanos.sum(), 0), max * total);
+        }
+        return new Snapshot(copy, total, sum, max);
+    }
+
+    /**
+     * Isi histogram pada satu saat; lihat snapshot().
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+
+        /// jumlah catatan, sama dengan jumlah semua bucket
+        public final long count;
+
+        /// jumlah durasi (nanodetik)
+        public final long totalNanos;
+
+        /// durasi terbesar (nanodetik), 0 jika belum ada catatan
+        public final long maxNanos;
+
+        Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public double meanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Batas atas bucket yang memuat persentil q (0 < q <= 1), dibatasi oleh maxNanos.
+         *
+         * @return Latensi dalam nanodetik, atau 0 jika belum ada catatan.
+         */
+        public long percentileNanos(double q) {
+            if (q <= 0.0 || q > 1.0) {
+                throw new IllegalArgumentException("Percentile must be in (0, 1]");
+            }
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(q * count);
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+    /**
+     * Mengosongkan histogram. Catatan yang masuk bersamaan dengan reset bisa hilang sebagian.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    // Nilai < SUB_BUCKETS punya bucket sendiri; selain itu bucket ditentukan oleh pangkat dua
+    // tertinggi dan SUB_BUCKET_BITS bit berikutnya
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,337 @@
+package hmm.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Lapisan metrik untuk tahap-tahap utama (parsing, Viterbi, forward, backward, argmax posterior,
+ * confusion matrix): histogram durasi per panggilan, throughput observasi, byte yang dialokasikan
+ * per panggilan, dan counter event (probabilitas nol, underflow, request gagal).
+ * <p>
+ * Pengukuran dilakukan per panggilan (bukan per langkah):
+ * <pre>
+ *     long startNanos = Metrics.startNanos();
+ *     long startBytes = Metrics.startBytes();
+ *     ... kerja ...
+ *     Metrics.record(Metrics.Stage.VITERBI, startNanos, startBytes, maxtime);
+ * </pre>
+ * Saat nonaktif, startNanos mengembalikan 0 dan record langsung kembali, sehingga biayanya hanya
+ * satu pembacaan volatile per panggilan. Pengukuran tidak mengalokasikan objek.
+ * <p>
+ * System property: hmm.metrics=true mengaktifkan metrik (juga bisa lewat setEnabled atau JMX);
+ * hmm.metrics.jmx=false mematikan pendaftaran MBean; hmm.metrics.dumpSeconds=N mencetak dump
+ * teks ke System.err setiap N detik (hmm.metrics.dumpFormat=json untuk JSON).
+ */
+public final class Metrics {
+
+    /// Tahap yang diukur
+    public enum Stage {
+        PARSE_MODEL("parseModel"),
+        PARSE_DATA("parseData"),
+        VITERBI("viterbi"),
+        FORWARD("forward"),
+        BACKWARD("backward"),
+        POSTERIOR_ARGMAX("posteriorArgmax"),
+        CONFUSION_MATRIX("confusionMatrix");
+
+        /// nama di dump dan MBean
+        public final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    /// Event yang dihitung
+    public enum Event {
+        /// observasi mustahil menurut model (log probabilitas -Infinity atau likelihood nol)
+        ZERO_PROBABILITY("zeroProbability"),
+        /// koefisien skala forward subnormal: hampir semua massa probabilitas hilang dalam satu langkah
+        UNDERFLOW("underflow"),
+        /// request server yang gagal
+        REQUEST_ERROR("requestError");
+
+        /// nama di dump dan MBean
+        public final String label;
+
+        Event(String label) {
+            this.label = label;
+        }
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("hmm.metrics");
+
+    private static final StageMetrics[] STAGES = new StageMetrics[Stage.values().length];
+    private static final LongAdder[] EVENTS = new LongAdder[Event.values().length];
+
+    // Bean alokasi per thread (HotSpot); null jika tidak didukung
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    private static boolean mbeansRegistered;
+    private static ScheduledExecutorService dumpScheduler;
+
+    static {
+        for (Stage stage : Stage.values()) {
+            STAGES[stage.ordinal()] = new StageMetrics(stage.label);
+        }
+        for (Event event : Event.values()) {
+            EVENTS[event.ordinal()] = new LongAdder();
+        }
+
+        if (enabled && !"false".equals(System.getProperty("hmm.metrics.jmx"))) {
+            registerMBeans();
+        }
+        long dumpSeconds = Long.getLong("hmm.metrics.dumpSeconds", 0L);
+        if (dumpSeconds > 0) {
+            startPeriodicDump(dumpSeconds, TimeUnit.SECONDS, System.err,
+                    "json".equals(System.getProperty("hmm.metrics.dumpFormat")));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+                if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                    return hotspot;
+                }
+            }
+        } catch (LinkageError | RuntimeException e) {
+            // JVM tanpa com.sun.management: alokasi tidak diukur
+        }
+        return null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    // bagian: pengukuran
+
+    /**
+     * Waktu mulai sebuah tahap, atau 0 jika metrik nonaktif.
+     */
+    public static long startNanos() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Jumlah byte yang sudah dialokasikan thread ini, atau -1 jika metrik nonaktif
+     * atau JVM tidak mendukungnya.
+     */
+    public static long startBytes() {
+        return enabled ? threadAllocatedBytes() : -1L;
+    }
+
+    /**
+     * Mencatat satu panggilan tahap yang dimulai pada startNanos (dari {@link #startNanos()}).
+     *
+     * @param steps Jumlah observasi yang diproses panggilan ini.
+     */
+    public static void record(Stage stage, long startNanos, long startBytes, long steps) {
+        if (startNanos == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = -1L;
+        if (startBytes >= 0) {
+            long endBytes = threadAllocatedBytes();
+            bytes = endBytes >= 0 ? endBytes - startBytes : -1L;
+        }
+        STAGES[stage.ordinal()].record(nanos, steps, bytes);
+    }
+
+    /**
+     * Menghitung satu event jika metrik aktif.
+     */
+    public static void event(Event event) {
+        if (enabled) {
+            EVENTS[event.ordinal()].increment();
+        }
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ALLOCATION == null) {
+            return -1L;
+        }
+        // -1 untuk thread yang tidak didukung (mis. virtual thread pada sebagian JVM)
+        return ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // bagian: pembacaan
+
+    public static StageMetrics stage(Stage stage) {
+        return STAGES[stage.ordinal()];
+    }
+
+    public static long eventCount(Event event) {
+        return EVENTS[event.ordinal()].sum();
+    }
+
+    /**
+     * Mengosongkan semua metrik.
+     */
+    public static void reset() {
+        for (StageMetrics stage : STAGES) {
+            stage.reset();
+        }
+        for (LongAdder event : EVENTS) {
+            event.reset();
+        }
+    }
+
+    /**
+     * Semua metrik sebagai satu objek JSON. Nilai latensi tiap tahap diambil dari satu snapshot.
+     */
+    public static String toJson() {
+        StringBuilder out = new StringBuilder();
+        out.append("{\"enabled\":").append(enabled).append(",\"stages\":{");
+        for (int i = 0; i < STAGES.length; ++i) {
+            StageMetrics stage = STAGES[i];
+            LatencyHistogram.Snapshot latency = stage.latency().snapshot();
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"').append(stage.name).append("\":{")
+                    .append("\"calls\":").append(latency.count)
+                    .append(",\"meanMicros\":").append(latency.meanNanos() / 1e3)
+                    .append(",\"p50Micros\":").append(latency.percentileNanos(0.50) / 1e3)
+                    .append(",\"p90Micros\":").append(latency.percentileNanos(0.90) / 1e3)
+                    .append(",\"p99Micros\":").append(latency.percentileNanos(0.99) / 1e3)
+                    .append(",\"maxMicros\":").append(latency.maxNanos / 1e3)
+                    .append(",\"observations\":").append(stage.getObservations())
+                    .append(",\"observationsPerSecond\":").append(stage.observationsPerSecond(latency))
+                    .append(",\"allocatedBytesPerCall\":").append(stage.getAllocatedBytesPerCall())
+                    .append('}');
+        }
+        out.append("},\"events\":{");
+        for (Event event : Event.values()) {
+            if (event.ordinal() > 0) {
+                out.append(',');
+            }
+            out.append('"').append(event.label).append("\":").append(eventCount(event));
+        }
+        return out.append("}}").toString();
+    }
+
+    /**
+     * Semua metrik sebagai teks, satu baris per tahap yang pernah dipanggil.
+     */
+    public static String toText() {
+        StringBuilder out = new StringBuilder("Metrics (enabled=" + enabled + ")\n");
+        for (StageMetrics stage : STAGES) {
+            LatencyHistogram.Snapshot latency = stage.latency().snapshot();
+            if (latency.count == 0) {
+                continue;
+            }
+            out.append(String.format("  %-16s calls=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus obs/s=%.0f bytes/call=%.0f%n",
+                    stage.name, latency.count, latency.meanNanos() / 1e3, latency.percentileNanos(0.50) / 1e3,
+                    latency.percentileNanos(0.99) / 1e3, latency.maxNanos / 1e3, stage.observationsPerSecond(latency),
+                    stage.getAllocatedBytesPerCall()));
+        }
+        out.append("  events:");
+        for (Event event : Event.values()) {
+            out.append(' ').append(event.label).append('=').append(eventCount(event));
+        }
+        return out.append('\n').toString();
+    }
+
+    // bagian: ekspor
+
+    /**
+     * Mendaftarkan MBean hmm:type=Metrics,name=control dan hmm:type=Metrics,stage=NAMA
+     * ke platform MBeanServer. Pemanggilan berikutnya tidak berpengaruh.
+     */
+    public static synchronized void registerMBeans() {
+        if (mbeansRegistered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new Control(), new ObjectName("hmm:type=Metrics,name=control"));
+            for (StageMetrics stage : STAGES) {
+                server.registerMBean(stage, new ObjectName("hmm:type=Metrics,stage=" + stage.name));
+            }
+            mbeansRegistered = true;
+        } catch (JMException e) {
+            System.err.println("Warning: metrics MBeans could not be registered. Details: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mencetak dump metrik secara periodik dari thread daemon.
+     *
+     * @return Handle untuk menghentikan dump (cancel).
+     */
+    public static synchronized ScheduledFuture<?> startPeriodicDump(long period, TimeUnit unit, PrintStream out, boolean json) {
+        if (dumpScheduler == null) {
+            dumpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hmm-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return dumpScheduler.scheduleAtFixedRate(
+                () -> out.print(json ? toJson() + "\n" : toText()), period, period, unit);
+    }
+
+    // MBean kontrol; delegasi ke method statis
+    private static final class Control implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean value) {
+            Metrics.setEnabled(value);
+        }
+
+        @Override
+        public long getZeroProbabilityEvents() {
+            return eventCount(Event.ZERO_PROBABILITY);
+        }
+
+        @Override
+        public long getUnderflowEvents() {
+            return eventCount(Event.UNDERFLOW);
+        }
+
+        @Override
+        public long getRequestErrors() {
+            return eventCount(Event.REQUEST_ERROR);
+        }
+
+        @Override
+        public String getJson() {
+            return toJson();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
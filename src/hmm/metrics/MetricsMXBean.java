@@ -0,0 +1,25 @@
+package hmm.metrics;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Kontrol dan counter event JMX, terdaftar sebagai hmm:type=Metrics,name=control.
+ */
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getZeroProbabilityEvents();
+
+    long getUnderflowEvents();
+
+    long getRequestErrors();
+
+    String getJson();
+
+    void reset();
+}
@@ -0,0 +1,105 @@
+package hmm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Metrik satu tahap: histogram durasi per panggilan, jumlah observasi (langkah) yang diproses
+ * dan jumlah byte yang dialokasikan thread pemanggil selama tahap berjalan.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+    /// nama tahap, dipakai di dump dan nama MBean
+    public final String name;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder observations = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocationSamples = new LongAdder();
+
+    StageMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, long steps, long bytes) {
+        latency.record(nanos);
+        observations.add(steps);
+        if (bytes >= 0) {
+            allocatedBytes.add(bytes);
+            allocationSamples.increment();
+        }
+    }
+
+    void reset() {
+        latency.reset();
+        observations.reset();
+        allocatedBytes.reset();
+        allocationSamples.reset();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    // Tiap atribut MXBean dibaca terpisah; dump gabungan memakai satu snapshot per tahap (lihat Metrics)
+
+    @Override
+    public long getCalls() {
+        return latency.snapshot().count;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.meanNanos() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.percentileNanos(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latency.percentileNanos(0.90) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.percentileNanos(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.snapshot().maxNanos / 1e3;
+    }
+
+    @Override
+    public long getObservations() {
+        return observations.sum();
+    }
+
+    /**
+     * Observasi per detik waktu yang dihabiskan di tahap ini (bukan per detik wall clock).
+     */
+    @Override
+    public double getObservationsPerSecond() {
+        return observationsPerSecond(latency.snapshot());
+    }
+
+    double observationsPerSecond(LatencyHistogram.Snapshot snapshot) {
+        return snapshot.totalNanos == 0 ? 0.0 : observations.sum() * 1e9 / snapshot.totalNanos;
+    }
+
+    /**
+     * Rata-rata byte yang dialokasikan per panggilan, atau -1 jika JVM tidak mendukung
+     * pengukuran alokasi per thread.
+     */
+    @Override
+    public double getAllocatedBytesPerCall() {
+        long samples = allocationSamples.sum();
+        return samples == 0 ? -1.0 : (double) allocatedBytes.sum() / samples;
+    }
+}
@@ -0,0 +1,29 @@
+package hmm.metrics;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Atribut JMX untuk satu tahap (mis. Viterbi), terdaftar sebagai hmm:type=Metrics,stage=NAMA.
+ */
+public interface StageMetricsMXBean {
+    long getCalls();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    long getObservations();
+
+    double getObservationsPerSecond();
+
+    double getAllocatedBytesPerCall();
+}
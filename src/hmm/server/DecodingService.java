@@ -0,0 +1,447 @@
+package hmm.server;
+
+import hmm.algorithms.Algorithms;
+import hmm.algorithms.DecoderWorkspace;
+import hmm.data.BinaryFormat;
+import hmm.data.ConfusionSnapshot;
+import hmm.data.ContinuousData;
+import hmm.data.ExperimentData;
+import hmm.data.LabeledSequence;
+import hmm.data.MappedDataset;
+import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
+import hmm.estimation.ConfusionAccumulator;
+import hmm.metrics.LatencyHistogram;
+import hmm.metrics.Metrics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Menangani request decoding berbentuk JSON (satu objek per baris) untuk mode server.
+ * Model yang sudah dimuat disimpan di ModelCache, dan buffer DP dipinjam dari pool DecoderWorkspace,
+ * sehingga request berulang tidak membayar ulang pembacaan model maupun alokasi tabel.
+ * Thread-safe: handle dapat dipanggil dari banyak thread sekaligus.
+ * <p>
+ * Request: {@code {"id": 1, "op": "decode", "model": "models/default.model", "symbols": "abca"}}.
+ * <ul>
+ *     <li>op: decode (Viterbi), posterior (argmax forward-backward), evaluate (keduanya dibandingkan
+ *     dengan state sebenarnya), stats (histogram latensi per op, ditambah metrik tahap jika
+ *     hmm.metrics aktif) atau shutdown.</li>
+ *     <li>Observasi: "data" (path file data teks atau biner), atau "symbols" (string huruf atau array
+ *     simbol) untuk model diskrit, atau "observations" (array vektor) untuk model kontinu.
+ *     State sebenarnya untuk evaluate diberikan lewat "states" (array nama state) atau file data.</li>
+ * </ul>
+ * Response selalu memuat "id" dari request dan "ok"; jika gagal, "error" berisi pesan kesalahan.
+ */
+public class DecodingService {
+
+    private static final String[] OPS = {"decode", "posterior", "evaluate", "stats", "shutdown"};
+
+    /// batas bobot cache model bawaan (sel tabel probabilitas, lihat ModelCache.weight)
+    public static final long DEFAULT_CACHE_WEIGHT = 1L << 24;
+
+    private final ModelCache models;
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final LatencyHistogram invalidLatency = new LatencyHistogram();
+    private final Queue<DecoderWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+
+    private volatile Runnable shutdownHook = () -> { };
+
+    public DecodingService() {
+        this(new ModelCache(DEFAULT_CACHE_WEIGHT));
+    }
+
+    public DecodingService(ModelCache models) {
+        this.models = models;
+        for (String op : OPS) {
+            latencies.put(op, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Dipanggil (sekali per request shutdown) setelah response shutdown dibuat.
+     */
+    public void setShutdownHook(Runnable shutdownHook) {
+        this.shutdownHook = shutdownHook;
+    }
+
+    /**
+     * Memuat model ke memori sebelum request pertama.
+     *
+     * @throws IOException Jika file tidak dapat dibaca.
+     * @throws IllegalArgumentException Jika isi model tidak valid.
+     */
+    public LoadedModel preload(String modelPath) throws IOException {
+        return models.get(Paths.get(modelPath));
+    }
+
+    /**
+     * Menangani satu baris request dan mengembalikan satu baris response (tanpa newline).
+     */
+    public String handle(String line) {
+        long start = System.nanoTime();
+        Map<String, Object> response = new LinkedHashMap<>();
+        LatencyHistogram latency = invalidLatency;
+        boolean shutdown = false;
+        try {
+            Object parsed = Json.parse(line);
+            if (!(parsed instanceof Map)) {
+                throw new IllegalArgumentException("Request must be a JSON object");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> request = (Map<String, Object>) parsed;
+            response.put("id", request.get("id"));
+
+            String op = stringField(request, "op");
+            if (!latencies.containsKey(op)) {
+                throw new IllegalArgumentException("Unknown op '" + op + "'");
+            }
+            latency = latencies.get(op);
+            response.put("ok", true);
+            dispatch(op, request, response);
+            shutdown = op.equals("shutdown");
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | NoSuchElementException | UncheckedIOException e) {
+            Metrics.event(Metrics.Event.REQUEST_ERROR);
+            response.put("ok", false);
+            response.put("error", e.getMessage());
+            response.keySet().retainAll(Arrays.asList("id", "ok", "error"));
+        } catch (RuntimeException e) {
+            // Kesalahan tak terduga tidak boleh menghentikan server; cukup gagalkan request ini
+            System.err.println("ERROR: Unexpected failure while handling request. Details: " + e);
+            e.printStackTrace();
+            Metrics.event(Metrics.Event.REQUEST_ERROR);
+            response.put("ok", false);
+            response.put("error", "Internal error: " + e);
+            response.keySet().retainAll(Arrays.asList("id", "ok", "error"));
+        }
+
+        String result = Json.write(response);
+        latency.record(System.nanoTime() - start);
+        if (shutdown) {
+            shutdownHook.run();
+        }
+        return result;
+    }
+
+    /**
+     * Response {@code "ok": false} untuk request yang gagal di luar {@link #handle(String)},
+     * misalnya karena Error; seperti request yang gagal di-parse, response ini tanpa id.
+     */
+    public static String failure(Throwable e) {
+        Metrics.event(Metrics.Event.REQUEST_ERROR);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("ok", false);
+        response.put("error", "Internal error: " + e);
+        return Json.write(response);
+    }
+
+    private void dispatch(String op, Map<String, Object> request, Map<String, Object> response) {
+        switch (op) {
+            case "stats":
+                response.putAll(stats());
+                return;
+            case "shutdown":
+                return;
+            default:
+                break;
+        }
+
+        LoadedModel loaded = model(stringField(request, "model"));
+        LabeledSequence sequence = sequence(loaded.model, request);
+        boolean labeled = request.containsKey("data") || request.containsKey("states");
+
+        switch (op) {
+            case "decode": {
+                int[] path = new int[sequence.size()];
+                double logProbability = viterbi(loaded, sequence, path);
+                response.put("path", stateNames(loaded.model, logProbability == Double.NEGATIVE_INFINITY ? new int[0] : path));
+                response.put("logProbability", logProbability);
+                break;
+            }
+            case "posterior": {
+                int[] path = new int[sequence.size()];
+                double logLikelihood = posterior(loaded, sequence, path);
+                response.put("path", stateNames(loaded.model, logLikelihood == Double.NEGATIVE_INFINITY ? new int[0] : path));
+                response.put("logLikelihood", logLikelihood);
+                break;
+            }
+            default: { // evaluate
+                if (!labeled) {
+                    throw new IllegalArgumentException("evaluate needs true states: give 'states' or a labeled 'data' file");
+                }
+                int[] path = new int[sequence.size()];
+                response.put("viterbi", evaluation(loaded.model, sequence, path, viterbi(loaded, sequence, path)));
+                response.put("posterior", evaluation(loaded.model, sequence, path, posterior(loaded, sequence, path)));
+                break;
+            }
+        }
+    }
+
+    // bagian: model dan observasi
+
+    private LoadedModel model(String modelPath) {
+        Path path = Paths.get(modelPath);
+        try {
+            return models.get(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read model " + path + ": " + e, e);
+        }
+    }
+
+    private static LabeledSequence sequence(Model model, Map<String, Object> request) {
+        if (request.containsKey("data")) {
+            try {
+                return readData(model, Paths.get(stringField(request, "data")));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read data: " + e.getMessage(), e);
+            }
+        }
+
+        if (model.continuousEmissions != null) {
+            List<?> observations = listField(request, "observations");
+            int dimension = model.continuousEmissions.dimension();
+            double[] values = new double[observations.size() * dimension];
+            for (int t = 0; t < observations.size(); ++t) {
+                Object vector = observations.get(t);
+                if (!(vector instanceof List) || ((List<?>) vector).size() != dimension) {
+                    throw new IllegalArgumentException("Observation " + t + " must be an array of " + dimension + " numbers");
+                }
+                for (int k = 0; k < dimension; ++k) {
+                    values[t * dimension + k] = number(((List<?>) vector).get(k), "observations");
+                }
+            }
+            ContinuousData data = new ContinuousData();
+            data.setColumns(null, states(model, request, observations.size()), values, dimension);
+            return data;
+        }
+
+        Object symbolsField = request.get("symbols");
+        List<String> symbols = new ArrayList<>();
+        if (symbolsField instanceof String) {
+            for (char c : ((String) symbolsField).toCharArray()) {
+                symbols.add(String.valueOf(c));
+            }
+        } else {
+            for (Object symbol : listField(request, "symbols")) {
+                symbols.add(String.valueOf(symbol));
+            }
+        }
+
+        int[] symbolIndices = new int[symbols.size()];
+        for (int t = 0; t < symbolIndices.length; ++t) {
+            symbolIndices[t] = model.symbolIndex(symbols.get(t));
+        }
+        ExperimentData data = new ExperimentData();
+        data.setColumns(null, states(model, request, symbolIndices.length), symbolIndices);
+        return data;
+    }
+
+    // State sebenarnya dari field "states", atau state 0 di setiap langkah jika tidak diberikan
+    private static int[] states(Model model, Map<String, Object> request, int maxtime) {
+        int[] states = new int[maxtime];
+        if (!request.containsKey("states")) {
+            return states;
+        }
+        List<?> names = listField(request, "states");
+        if (names.size() != maxtime) {
+            throw new IllegalArgumentException("'states' has " + names.size() + " entries but there are " + maxtime + " observations");
+        }
+        for (int t = 0; t < maxtime; ++t) {
+            Integer state = model.stateNameToIndex.get(String.valueOf(names.get(t)));
+            if (state == null) {
+                throw new IllegalArgumentException("Unknown state '" + names.get(t) + "' at step " + t);
+            }
+            states[t] = state;
+        }
+        return states;
+    }
+
+    private static LabeledSequence readData(Model model, Path path) throws IOException {
+        if (model.continuousEmissions != null) {
+            if (BinaryFormat.isBinaryData(path)) {
+                throw new IllegalArgumentException("Binary data files are not supported for continuous emission models");
+            }
+            ContinuousData data = new ContinuousData();
+            try (InputStream dataStream = new FileInputStream(path.toFile())) {
+                data.readContinuousData(model, dataStream);
+            }
+            return data;
+        }
+
+        if (BinaryFormat.isBinaryData(path)) {
+            try (MappedDataset dataset = MappedDataset.open(path)) {
+                if (dataset.sequenceCount() != 1) {
+                    throw new IllegalArgumentException("Binary data file contains " + dataset.sequenceCount() + " sequences, expected exactly one");
+                }
+                return dataset.toExperimentData(0, model);
+            }
+        }
+
+        ExperimentData data = new ExperimentData();
+        try (InputStream dataStream = new FileInputStream(path.toFile())) {
+            data.readExperimentData(model, dataStream);
+        }
+        return data;
+    }
+
+    // bagian: decoding
+
+    private double viterbi(LoadedModel loaded, LabeledSequence sequence, int[] path) {
+        DecoderWorkspace workspace = borrowWorkspace();
+        try {
+            return sequence instanceof ContinuousData
+                    ? Algorithms.findMostProbableStateSequence(loaded.compiled, (ContinuousData) sequence, workspace, path)
+                    : Algorithms.findMostProbableStateSequence(loaded.compiled, (ExperimentData) sequence, workspace, path);
+        } finally {
+            workspaces.offer(workspace);
+        }
+    }
+
+    private double posterior(LoadedModel loaded, LabeledSequence sequence, int[] path) {
+        if (sequence instanceof ContinuousData) {
+            PosteriorMatrix posterior = Algorithms.calcScaledForwardBackward(loaded.compiled, (ContinuousData) sequence, false);
+            for (int t = 0; t < posterior.nsteps; ++t) {
+                path[t] = posterior.argmax(t);
+            }
+            return posterior.logLikelihood;
+        }
+
+        DecoderWorkspace workspace = borrowWorkspace();
+        try {
+            return Algorithms.findPosteriorStateSequence(loaded.compiled, (ExperimentData) sequence, workspace, path);
+        } finally {
+            workspaces.offer(workspace);
+        }
+    }
+
+    private DecoderWorkspace borrowWorkspace() {
+        DecoderWorkspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new DecoderWorkspace();
+    }
+
+    // bagian: pembentukan response
+
+    private static List<String> stateNames(Model model, int[] path) {
+        List<String> names = new ArrayList<>(path.length);
+        for (int state : path) {
+            names.add(model.stateIndexToName.get(state));
+        }
+        return names;
+    }
+
+    private static Map<String, Object> evaluation(Model model, LabeledSequence sequence, int[] path, double logProbability) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("logProbability", logProbability);
+        if (logProbability == Double.NEGATIVE_INFINITY) {
+            result.put("states", new LinkedHashMap<String, Object>());
+            return result;
+        }
+
+        ConfusionAccumulator accumulator = new ConfusionAccumulator(model);
+        accumulator.addAll(sequence, path);
+        ConfusionSnapshot snapshot = accumulator.snapshot();
+
+        // State begin dan end (indeks pertama dan terakhir) dilewati, sama seperti keluaran Main
+        Map<String, Object> states = new LinkedHashMap<>();
+        for (int state = 1; state < snapshot.nstates - 1; ++state) {
+            Map<String, Object> estimation = new LinkedHashMap<>();
+            estimation.put("truePositives", snapshot.truePositives(state));
+            estimation.put("falsePositives", snapshot.falsePositives(state));
+            estimation.put("trueNegatives", snapshot.trueNegatives(state));
+            estimation.put("falseNegatives", snapshot.falseNegatives(state));
+            estimation.put("precision", snapshot.precision(state));
+            estimation.put("recall", snapshot.recall(state));
+            estimation.put("fMeasure", snapshot.fMeasure(state));
+            states.put(model.stateIndexToName.get(state), estimation);
+        }
+        result.put("states", states);
+        result.put("macroFMeasure", snapshot.macroFMeasure());
+        result.put("microFMeasure", snapshot.microFMeasure());
+        return result;
+    }
+
+    private Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("uptimeMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("models", models.size());
+        cache.put("weight", models.weight());
+        cache.put("maxWeight", models.maxWeight());
+        cache.put("hits", models.hitCount());
+        cache.put("misses", models.missCount());
+        cache.put("evictions", models.evictionCount());
+        cache.put("invalidations", models.invalidationCount());
+        cache.put("loadFailures", models.loadFailureCount());
+        stats.put("modelCache", cache);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            latency.put(entry.getKey(), histogram(entry.getValue()));
+        }
+        latency.put("invalid", histogram(invalidLatency));
+        stats.put("latency", latency);
+        if (Metrics.isEnabled()) {
+            stats.put("metrics", Json.parse(Metrics.toJson()));
+        }
+        return stats;
+    }
+
+    // Semua nilai dari satu snapshot, agar count, persentil dan max konsisten di bawah beban bersamaan
+    private static Map<String, Object> histogram(LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", snapshot.count);
+        result.put("meanMicros", snapshot.meanNanos() / 1e3);
+        result.put("p50Micros", snapshot.percentileNanos(0.50) / 1e3);
+        result.put("p90Micros", snapshot.percentileNanos(0.90) / 1e3);
+        result.put("p99Micros", snapshot.percentileNanos(0.99) / 1e3);
+        result.put("maxMicros", snapshot.maxNanos / 1e3);
+        return result;
+    }
+
+    // bagian: akses field request
+
+    private static String stringField(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Request field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static List<?> listField(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Request field '" + name + "' must be an array");
+        }
+        return (List<?>) value;
+    }
+
+    private static double number(Object value, String name) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Request field '" + name + "' must contain numbers");
+        }
+        return ((Number) value).doubleValue();
+    }
+}
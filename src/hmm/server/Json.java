@@ -0,0 +1,337 @@
+package hmm.server;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Parser dan penulis JSON minimal untuk protokol server (satu objek per baris).
+ * Objek menjadi Map (urutan kunci dipertahankan), array menjadi List, bilangan bulat menjadi Long,
+ * bilangan lain menjadi Double.
+ */
+public class Json {
+
+    /// Kedalaman maksimum objek/array bersarang; parser rekursif, jadi input lebih dalam ditolak
+    /// sebelum stack thread habis
+    public static final int MAX_DEPTH = 256;
+
+    private final String text;
+    private int pos;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Mem-parse satu nilai JSON.
+     *
+     * @throws IllegalArgumentException Jika teks bukan JSON yang valid atau bersarang lebih dalam
+     *                                  dari {@link #MAX_DEPTH}.
+     */
+    public static Object parse(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    /**
+     * Menulis nilai (Map, List/Iterable, int[], String, Number, Boolean atau null) sebagai JSON.
+     * Bilangan NaN atau tak hingga ditulis sebagai null.
+     */
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(out, value);
+        return out.toString();
+    }
+
+    public static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                out.append("null");
+            } else {
+                out.append(number);
+            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                write(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            out.append('[');
+            for (int i = 0; i < array.length; ++i) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(array[i]);
+            }
+            out.append(']');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            Iterator<?> it = ((Iterable<?>) value).iterator();
+            while (it.hasNext()) {
+                write(out, it.next());
+                if (it.hasNext()) {
+                    out.append(',');
+                }
+            }
+            out.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // bagian: parser recursive descent
+
+    private Object readValue() {
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+            case '[':
+                if (depth == MAX_DEPTH) {
+                    throw error("Nesting deeper than " + MAX_DEPTH + " levels");
+                }
+                ++depth;
+                Object nested = c == '{' ? readObject() : readArray();
+                --depth;
+                return nested;
+            case '"':
+                return readString();
+            case 't':
+                expectWord("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectWord("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectWord("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        ++pos; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            ++pos;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected object key");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                ++pos;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        ++pos; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            ++pos;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                ++pos;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        ++pos; // '"'
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escape = text.charAt(pos++);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append(escape);
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escape + "'");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean integral = true;
+        if (peek() == '-') {
+            ++pos;
+        }
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                ++pos;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                ++pos;
+            } else {
+                break;
+            }
+        }
+        String number = text.substring(start, pos);
+        try {
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void expectWord(String word) {
+        if (!text.startsWith(word, pos)) {
+            throw error("Expected '" + word + "'");
+        }
+        pos += word.length();
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        ++pos;
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            ++pos;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of JSON request");
+    }
+}
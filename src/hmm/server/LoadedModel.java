@@ -0,0 +1,32 @@
+package hmm.server;
+
+import hmm.data.CompiledModel;
+import hmm.data.Model;
+
+import java.nio.file.Path;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Model yang sudah dibaca dan dikompilasi, disimpan oleh ModelCache di antara request.
+ * Model tidak boleh diubah setelah dimuat; CompiledModel dipakai bersama oleh semua request.
+ */
+public class LoadedModel {
+    /// file asal model
+    public final Path path;
+
+    /// model hasil pembacaan (nama state dan alphabet)
+    public final Model model;
+
+    /// bentuk terkompilasi yang dipakai decoder
+    public final CompiledModel compiled;
+
+    public LoadedModel(Path path, Model model, CompiledModel compiled) {
+        this.path = path;
+        this.model = model;
+        this.compiled = compiled;
+    }
+}
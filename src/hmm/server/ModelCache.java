@@ -0,0 +1,318 @@
+package hmm.server;
+
+import hmm.data.BinaryFormat;
+import hmm.data.CompiledModel;
+import hmm.data.Model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Cache model yang sudah dibaca dan dikompilasi, dengan kunci path file.
+ * <ul>
+ *     <li>Eviction LRU berdasarkan bobot memori: nstates^2 + nstates * alphabetSize sel
+ *     (nstates * dimensi untuk model kontinu). Model yang paling baru dimuat selalu dipertahankan,
+ *     walaupun bobotnya sendiri melebihi batas.</li>
+ *     <li>Invalidasi otomatis: setiap get membandingkan waktu modifikasi dan ukuran file dengan saat
+ *     dimuat. Jika berbeda, hash SHA-256 isi file dibandingkan; model hanya dimuat ulang jika isinya
+ *     benar-benar berubah.</li>
+ *     <li>Single-flight: banyak thread yang meminta path yang sama saat model belum ada hanya memicu
+ *     satu pembacaan; thread lain menunggu hasilnya. Pembacaan path berbeda berjalan paralel.</li>
+ * </ul>
+ * Thread-safe.
+ */
+public class ModelCache {
+
+    // Satu entri cache; future selesai setelah model dimuat (atau gagal)
+    private static final class Entry {
+        final CompletableFuture<LoadedModel> future = new CompletableFuture<>();
+
+        /// waktu modifikasi dan ukuran file saat entri dibuat (diperbarui jika hash tetap sama)
+        volatile long modifiedMillis;
+        volatile long size;
+
+        /// hash SHA-256 isi file yang dimuat; null selama pemuatan
+        volatile byte[] contentHash;
+
+        /// bobot yang sudah dihitung ke totalWeight; 0 selama pemuatan
+        long weight;
+
+        Entry(long modifiedMillis, long size) {
+            this.modifiedMillis = modifiedMillis;
+            this.size = size;
+        }
+    }
+
+    private final long maxWeight;
+
+    // Urutan akses (LRU); semua akses ke entries dan totalWeight di bawah lock ini
+    private final Object lock = new Object();
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+
+    /**
+     * @param maxWeight Batas total bobot model di cache (jumlah sel tabel probabilitas).
+     */
+    public ModelCache(long maxWeight) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Cache weight limit must be positive");
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Bobot memori model menurut cache: nstates^2 + nstates * alphabetSize,
+     * atau nstates^2 + nstates * dimensi untuk emisi kontinu.
+     */
+    public static long weight(Model model) {
+        long nstates = model.stateIndexToName.size();
+        long emissionColumns = model.continuousEmissions != null
+                ? model.continuousEmissions.dimension()
+                : model.alphabetSize;
+        return nstates * nstates + nstates * emissionColumns;
+    }
+
+    /**
+     * Mengambil model dari cache, atau memuatnya jika belum ada atau file sudah berubah.
+     *
+     * @throws IOException Jika file tidak dapat dibaca (juga jika pemuatan oleh thread lain gagal karena I/O).
+     * @throws IllegalArgumentException Jika isi model tidak valid.
+     */
+    public LoadedModel get(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        while (true) {
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            long modifiedMillis = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+
+            Entry entry;
+            Entry fresh = null;
+            synchronized (lock) {
+                entry = entries.get(key);
+                if (entry == null) {
+                    fresh = new Entry(modifiedMillis, size);
+                    entries.put(key, fresh);
+                }
+            }
+
+            if (fresh != null) {
+                misses.increment();
+                return load(key, fresh);
+            }
+
+            if (!entry.future.isDone()) {
+                // Pemuatan sedang berjalan di thread lain (single-flight)
+                hits.increment();
+                return await(entry);
+            }
+
+            if (entry.future.isCompletedExceptionally()) {
+                // Entri gagal sedang dihapus oleh thread pemuatnya; coba lagi
+                remove(key, entry);
+                continue;
+            }
+
+            if (entry.modifiedMillis == modifiedMillis && entry.size == size) {
+                hits.increment();
+                return entry.future.join();
+            }
+
+            // bagian: file berubah menurut metadata; bandingkan isi
+            if (Arrays.equals(entry.contentHash, hash(Files.readAllBytes(key)))) {
+                entry.modifiedMillis = modifiedMillis;
+                entry.size = size;
+                hits.increment();
+                return entry.future.join();
+            }
+
+            if (remove(key, entry)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Menghapus model dari cache (mis. setelah file diganti di luar kendali cache).
+     */
+    public void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized (lock) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                totalWeight -= entry.weight;
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Mengosongkan cache. Counter tidak direset.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    // bagian: pemuatan
+
+    private LoadedModel load(Path key, Entry entry) throws IOException {
+        LoadedModel loaded;
+        long weight;
+        try {
+            // Isi file dibaca sekali, sehingga hash dan model berasal dari isi yang sama
+            byte[] content = Files.readAllBytes(key);
+            Model model;
+            if (BinaryFormat.isBinaryModel(content)) {
+                model = BinaryFormat.readModel(content, key);
+            } else {
+                model = new Model();
+                model.readModel(new ByteArrayInputStream(content));
+            }
+            loaded = new LoadedModel(key, model, CompiledModel.compile(model));
+            weight = weight(model);
+            entry.contentHash = hash(content);
+        } catch (IOException | RuntimeException | Error e) {
+            loadFailures.increment();
+            remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (lock) {
+            if (entries.get(key) == entry) {
+                entry.weight = weight;
+                totalWeight += weight;
+                evictOver(entry);
+            }
+        }
+        entry.future.complete(loaded);
+        return loaded;
+    }
+
+    // Membuang entri yang paling lama tidak dipakai sampai bobot total di bawah batas; dipanggil di bawah lock
+    private void evictOver(Entry keep) {
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            Entry candidate = it.next().getValue();
+            if (candidate == keep || candidate.weight == 0) {
+                continue; // entri baru dan entri yang masih dimuat tidak di-evict
+            }
+            it.remove();
+            totalWeight -= candidate.weight;
+            evictions.increment();
+        }
+    }
+
+    private boolean remove(Path key, Entry entry) {
+        synchronized (lock) {
+            if (entries.get(key) != entry) {
+                return false;
+            }
+            entries.remove(key);
+            totalWeight -= entry.weight;
+            return true;
+        }
+    }
+
+    private static LoadedModel await(Entry entry) throws IOException {
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for model to load");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof IllegalArgumentException) {
+                throw new IllegalArgumentException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Model loading failed", cause);
+        }
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // wajib ada di setiap JVM
+        }
+    }
+
+    // bagian: statistik
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    public long loadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * Jumlah model di cache, termasuk yang sedang dimuat.
+     */
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Total bobot model yang sudah dimuat di cache.
+     */
+    public long weight() {
+        synchronized (lock) {
+            return totalWeight;
+        }
+    }
+
+    public long maxWeight() {
+        return maxWeight;
+    }
+}
@@ -0,0 +1,132 @@
+package hmm;
+
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+/**
+ * Model dan urutan acak kecil untuk test (versi ringkas dari SyntheticModels di benchmarks).
+ * State 'B' (begin) di indeks 0, 'E' (end) di indeks terakhir, state tersembunyi S1..Sn di antaranya.
+ */
+public final class TestModels {
+
+    private TestModels() {
+    }
+
+    /**
+     * Membuat model acak; setiap state tersembunyi punya transisi ke fanOut state tersembunyi dan
+     * emisi ke semua simbol.
+     */
+    public static Model generate(int hiddenStates, int alphabetSize, int fanOut, long seed) {
+        Random random = new Random(seed);
+        int nstates = hiddenStates + 2;
+
+        Model model = new Model();
+        model.alphabetSize = alphabetSize;
+        model.stateNameToIndex = new HashMap<>();
+        model.stateIndexToName = new ArrayList<>(nstates);
+        for (int i = 0; i < nstates; ++i) {
+            String name = i == 0 ? "B" : i == nstates - 1 ? "E" : "S" + i;
+            model.stateNameToIndex.put(name, i);
+            model.stateIndexToName.add(name);
+        }
+
+        model.transitionProb = new double[nstates][nstates];
+        fillRandomRow(model.transitionProb[0], 1, hiddenStates, hiddenStates, 1.0, random);
+        for (int i = 1; i <= hiddenStates; ++i) {
+            fillRandomRow(model.transitionProb[i], 1, hiddenStates, fanOut, 0.999, random);
+            model.transitionProb[i][nstates - 1] = 0.001;
+        }
+
+        model.stateSymbolProb = new double[nstates][alphabetSize];
+        for (int i = 1; i <= hiddenStates; ++i) {
+            fillRandomRow(model.stateSymbolProb[i], 0, alphabetSize, alphabetSize, 1.0, random);
+        }
+        return model;
+    }
+
+    /**
+     * Mengambil sampel urutan sepanjang length dari model (transisi ke end diabaikan).
+     */
+    public static ExperimentData sample(Model model, int length, long seed) {
+        Random random = new Random(seed);
+        int nstates = model.stateIndexToName.size();
+        int[] states = new int[length];
+        int[] symbols = new int[length];
+
+        int state = draw(model.transitionProb[0], nstates - 1, random);
+        for (int t = 0; t < length; ++t) {
+            states[t] = state;
+            symbols[t] = draw(model.stateSymbolProb[state], model.alphabetSize, random);
+            state = draw(model.transitionProb[state], nstates - 1, random);
+        }
+
+        ExperimentData data = new ExperimentData();
+        data.setColumns(null, states, symbols);
+        return data;
+    }
+
+    /**
+     * Log-probabilitas gabungan path dan urutan observasi, dimulai dari state begin.
+     */
+    public static double pathLogProbability(Model model, ExperimentData data, int[] path) {
+        double logProbability = 0.0;
+        int prev = 0;
+        for (int t = 0; t < data.size(); ++t) {
+            logProbability += Math.log(model.transitionProb[prev][path[t]])
+                    + Math.log(model.emissionProb(path[t], data.symbol(t)));
+            prev = path[t];
+        }
+        return logProbability;
+    }
+
+    // Mengisi `count` kolom acak di [from, from + width) dengan bobot acak yang dinormalisasi ke `total`
+    private static void fillRandomRow(double[] row, int from, int width, int count, double total, Random random) {
+        int[] columns = new int[width];
+        for (int k = 0; k < width; ++k) {
+            columns[k] = from + k;
+        }
+        for (int k = 0; k < count; ++k) {
+            int pick = k + random.nextInt(width - k);
+            int tmp = columns[k];
+            columns[k] = columns[pick];
+            columns[pick] = tmp;
+        }
+
+        double sum = 0.0;
+        for (int k = 0; k < count; ++k) {
+            row[columns[k]] = 0.05 + random.nextDouble();
+            sum += row[columns[k]];
+        }
+        for (int k = 0; k < count; ++k) {
+            row[columns[k]] *= total / sum;
+        }
+    }
+
+    private static int draw(double[] prob, int to, Random random) {
+        double total = 0.0;
+        for (int k = 0; k < to; ++k) {
+            total += prob[k];
+        }
+        double target = random.nextDouble() * total;
+        int last = 0;
+        for (int k = 0; k < to; ++k) {
+            if (prob[k] > 0.0) {
+                last = k;
+                target -= prob[k];
+                if (target < 0.0) {
+                    return k;
+                }
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,53 @@
+package hmm.algorithms;
+
+import hmm.TestModels;
+import hmm.data.BeamSearchResult;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class BeamViterbiDecoderTest {
+
+    @Test
+    void withoutPruningMatchesViterbi() {
+        for (long seed = 1; seed <= 5; ++seed) {
+            Model model = TestModels.generate(12, 5, 4, seed);
+            ExperimentData data = TestModels.sample(model, 500, seed);
+            CompiledModel compiled = CompiledModel.compile(model);
+
+            int[] expected = new int[data.size()];
+            double expectedLogProb = Algorithms.findMostProbableStateSequence(compiled, data, new DecoderWorkspace(), expected);
+            BeamSearchResult result = new BeamViterbiDecoder(compiled).decode(data);
+
+            assertArrayEquals(expected, result.path, "seed " + seed);
+            assertEquals(expectedLogProb, result.logProbability, 1e-9);
+            assertEquals(0, result.prunedByThreshold + result.prunedByWidth);
+        }
+    }
+
+    @Test
+    void pruningNeverBeatsViterbi() {
+        Model model = TestModels.generate(20, 6, 20, 7);
+        ExperimentData data = TestModels.sample(model, 400, 7);
+        CompiledModel compiled = CompiledModel.compile(model);
+        double exact = Algorithms.findMostProbableStateSequence(compiled, data, new DecoderWorkspace(), new int[data.size()]);
+
+        BeamViterbiDecoder decoder = new BeamViterbiDecoder(compiled);
+        decoder.maxActiveStates = 3;
+        decoder.logBeamWidth = 5.0;
+        BeamSearchResult result = decoder.decode(data);
+
+        assertTrue(result.logProbability <= exact + 1e-9);
+        assertEquals(result.logProbability, TestModels.pathLogProbability(model, data, result.path), 1e-9);
+    }
+}
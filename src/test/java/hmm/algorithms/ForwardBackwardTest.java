@@ -0,0 +1,81 @@
+package hmm.algorithms;
+
+import hmm.TestModels;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.PosteriorMatrix;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class ForwardBackwardTest {
+
+    @Test
+    void longSequenceDoesNotUnderflow() {
+        Model model = TestModels.generate(6, 4, 4, 1);
+        ExperimentData data = TestModels.sample(model, 200000, 1);
+
+        PosteriorMatrix posterior = Algorithms.calcScaledForwardBackward(model, data);
+
+        // P(O) jauh di bawah Double.MIN_VALUE; tanpa penskalaan hasilnya 0 atau NaN
+        assertTrue(posterior.logLikelihood < Math.log(Double.MIN_VALUE) * 100);
+        assertFalse(Double.isInfinite(posterior.logLikelihood) || Double.isNaN(posterior.logLikelihood));
+        assertFalse(posterior.isImpossible());
+        for (int t = 0; t < posterior.nsteps; t += 997) {
+            double sum = 0.0;
+            for (int state = 0; state < posterior.nstates; ++state) {
+                sum += posterior.gamma(t, state);
+            }
+            assertEquals(1.0, sum, 1e-9, "gamma row " + t);
+        }
+
+        double checkpointed = CheckpointedForwardBackward.run(model, data, 0, (step, symbol, alpha, beta, gamma) -> { });
+        assertEquals(posterior.logLikelihood, checkpointed, 1e-9 * Math.abs(checkpointed));
+        double viterbi = Algorithms.findMostProbableStateSequence(CompiledModel.compile(model), data, new DecoderWorkspace(), new int[data.size()]);
+        assertTrue(viterbi <= posterior.logLikelihood);
+    }
+
+    @Test
+    void checkpointedPosteriorsMatchFullMatrix() {
+        Model model = TestModels.generate(5, 3, 3, 2);
+        ExperimentData data = TestModels.sample(model, 1000, 2);
+        PosteriorMatrix posterior = Algorithms.calcScaledForwardBackward(model, data);
+
+        for (int interval : new int[]{0, 1, 7, 5000}) {
+            double[] maxError = {0.0};
+            double logLikelihood = CheckpointedForwardBackward.run(model, data, interval, (step, symbol, alpha, beta, gamma) -> {
+                for (int state = 0; state < gamma.length; ++state) {
+                    maxError[0] = Math.max(maxError[0], Math.abs(gamma[state] - posterior.gamma(step, state)));
+                }
+            });
+            assertEquals(posterior.logLikelihood, logLikelihood, 1e-9 * Math.abs(logLikelihood), "interval " + interval);
+            assertTrue(maxError[0] < 1e-9, "interval " + interval);
+        }
+    }
+
+    @Test
+    void zeroProbabilitySequenceGivesNegativeInfinity() {
+        Model model = TestModels.generate(4, 3, 4, 3);
+        for (double[] row : model.stateSymbolProb) {
+            row[2] = 0.0;
+        }
+        ExperimentData data = new ExperimentData();
+        data.setColumns(null, new int[]{1, 1, 1}, new int[]{0, 2, 1});
+
+        PosteriorMatrix posterior = Algorithms.calcScaledForwardBackward(model, data);
+
+        assertTrue(posterior.isImpossible());
+        assertEquals(Double.NEGATIVE_INFINITY, posterior.logLikelihood);
+        assertEquals(0.0, posterior.gamma(1, 1));
+        assertEquals(Double.NEGATIVE_INFINITY,
+                CheckpointedForwardBackward.run(model, data, 0, (step, symbol, alpha, beta, gamma) -> { }));
+    }
+}
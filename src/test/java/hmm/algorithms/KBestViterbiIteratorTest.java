@@ -0,0 +1,87 @@
+package hmm.algorithms;
+
+import hmm.TestModels;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.ScoredPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class KBestViterbiIteratorTest {
+
+    @Test
+    void rankingMatchesBruteForce() {
+        for (long seed = 1; seed <= 4; ++seed) {
+            // fanOut < jumlah state, sehingga sebagian path berprobabilitas nol dan tidak boleh muncul
+            Model model = TestModels.generate(4, 3, 3, seed);
+            ExperimentData data = TestModels.sample(model, 6, seed);
+
+            List<Double> expected = new ArrayList<>();
+            enumerate(model, data, 0, 0, 0.0, expected);
+            expected.sort((a, b) -> Double.compare(b, a));
+
+            KBestViterbiIterator iterator = new KBestViterbiIterator(model, data);
+            Set<String> seen = new HashSet<>();
+            int rank = 0;
+            while (iterator.hasNext()) {
+                ScoredPath path = iterator.next();
+                assertTrue(rank < expected.size(), "more paths than brute force, seed " + seed);
+                assertEquals(expected.get(rank), path.logProbability, 1e-9, "rank " + rank + ", seed " + seed);
+                assertEquals(TestModels.pathLogProbability(model, data, path.path), path.logProbability, 1e-9);
+                assertTrue(seen.add(Arrays.toString(path.path)), "duplicate path at rank " + rank);
+                ++rank;
+            }
+            assertEquals(expected.size(), rank, "seed " + seed);
+        }
+    }
+
+    @Test
+    void firstPathIsViterbi() {
+        Model model = TestModels.generate(10, 4, 5, 3);
+        ExperimentData data = TestModels.sample(model, 300, 3);
+        CompiledModel compiled = CompiledModel.compile(model);
+
+        int[] viterbi = new int[data.size()];
+        double logProb = Algorithms.findMostProbableStateSequence(compiled, data, new DecoderWorkspace(), viterbi);
+        List<ScoredPath> paths = Algorithms.findKMostProbableStateSequences(compiled, data, 50);
+
+        assertEquals(50, paths.size());
+        assertArrayEquals(viterbi, paths.get(0).path);
+        assertEquals(logProb, paths.get(0).logProbability, 1e-9);
+        for (int k = 1; k < paths.size(); ++k) {
+            assertFalse(paths.get(k).logProbability > paths.get(k - 1).logProbability, "not best-first at rank " + k);
+        }
+    }
+
+    // Menghitung log probabilitas semua path berprobabilitas non-nol
+    private static void enumerate(Model model, ExperimentData data, int t, int prev, double logProb, List<Double> out) {
+        if (t == data.size()) {
+            out.add(logProb);
+            return;
+        }
+        int nstates = model.stateIndexToName.size();
+        for (int state = 0; state < nstates; ++state) {
+            double transition = model.transitionProb[prev][state];
+            double emission = model.emissionProb(state, data.symbol(t));
+            if (transition > 0.0 && emission > 0.0) {
+                enumerate(model, data, t + 1, state, logProb + Math.log(transition) + Math.log(emission), out);
+            }
+        }
+    }
+}
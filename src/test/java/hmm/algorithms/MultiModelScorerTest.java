@@ -0,0 +1,83 @@
+package hmm.algorithms;
+
+import hmm.TestModels;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import hmm.data.ModelScore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class MultiModelScorerTest {
+
+    @Test
+    void scoresMatchPerModelForwardBackward() {
+        List<Model> models = candidates();
+        ExperimentData data = TestModels.sample(models.get(2), 2000, 5);
+        MultiModelScorer scorer = new MultiModelScorer(models);
+        scorer.earlyElimination = false;
+
+        List<ModelScore> scores = scorer.score(data);
+
+        assertEquals(models.size(), scores.size());
+        for (ModelScore score : scores) {
+            double expected = Algorithms.calcScaledForwardBackward(models.get(score.model), data).logLikelihood;
+            assertTrue(score.exact);
+            if (expected == Double.NEGATIVE_INFINITY) {
+                // Model berhenti di langkah pertama yang mustahil
+                assertEquals(expected, score.logLikelihood, "model " + score.model);
+            } else {
+                assertEquals(expected, score.logLikelihood, 1e-9 * Math.abs(expected), "model " + score.model);
+                assertEquals(data.size(), score.steps);
+            }
+        }
+        for (int rank = 1; rank < scores.size(); ++rank) {
+            assertTrue(scores.get(rank - 1).logLikelihood >= scores.get(rank).logLikelihood);
+        }
+    }
+
+    @Test
+    void earlyEliminationKeepsExactTopRanks() {
+        List<Model> models = candidates();
+        ExperimentData data = TestModels.sample(models.get(4), 5000, 9);
+        MultiModelScorer scorer = new MultiModelScorer(models);
+        scorer.earlyElimination = false;
+        List<ModelScore> full = scorer.score(data);
+
+        scorer.earlyElimination = true;
+        for (int keep = 1; keep <= 3; ++keep) {
+            scorer.keep = keep;
+            List<ModelScore> pruned = scorer.score(data);
+            for (int rank = 0; rank < keep; ++rank) {
+                assertTrue(pruned.get(rank).exact, "keep " + keep + ", rank " + rank);
+                assertEquals(full.get(rank).model, pruned.get(rank).model, "keep " + keep + ", rank " + rank);
+                assertEquals(full.get(rank).logLikelihood, pruned.get(rank).logLikelihood);
+            }
+        }
+    }
+
+    // Campuran model jarang, model padat (kernel transisi padat) dan satu model yang tidak pernah
+    // mengemisikan simbol 'c' (skor -Infinity untuk hampir semua urutan)
+    private static List<Model> candidates() {
+        List<Model> models = new ArrayList<>();
+        for (long seed = 1; seed <= 6; ++seed) {
+            models.add(TestModels.generate(5 + (int) seed, 4, 3, seed));
+        }
+        models.add(TestModels.generate(40, 4, 40, 7));
+        Model impossible = TestModels.generate(5, 4, 5, 8);
+        for (double[] row : impossible.stateSymbolProb) {
+            row[2] = 0.0;
+        }
+        models.add(impossible);
+        return models;
+    }
+}
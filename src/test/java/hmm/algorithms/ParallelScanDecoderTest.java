@@ -0,0 +1,78 @@
+package hmm.algorithms;
+
+import hmm.TestModels;
+import hmm.data.CompiledModel;
+import hmm.data.ExperimentData;
+import hmm.data.Model;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class ParallelScanDecoderTest {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    void parallelMatchesSequential() throws InterruptedException {
+        for (long seed = 1; seed <= 3; ++seed) {
+            Model model = TestModels.generate(6, 4, 3, seed);
+            ExperimentData data = TestModels.sample(model, 20000, seed);
+            CompiledModel compiled = CompiledModel.compile(model);
+            ParallelScanDecoder decoder = new ParallelScanDecoder(compiled, executor, 4);
+
+            decoder.strategy = ParallelScanDecoder.Strategy.SEQUENTIAL;
+            int[] sequentialPath = new int[data.size()];
+            double sequentialLogProb = decoder.findMostProbableStateSequence(data, sequentialPath);
+            double sequentialLikelihood = decoder.logLikelihood(data);
+
+            decoder.strategy = ParallelScanDecoder.Strategy.PARALLEL;
+            int[] parallelPath = new int[data.size()];
+            double parallelLogProb = decoder.findMostProbableStateSequence(data, parallelPath);
+            double parallelLikelihood = decoder.logLikelihood(data);
+
+            assertArrayEquals(sequentialPath, parallelPath, "seed " + seed);
+            assertEquals(sequentialLogProb, parallelLogProb, 1e-9 * Math.abs(sequentialLogProb));
+            assertEquals(sequentialLikelihood, parallelLikelihood, 1e-9 * Math.abs(sequentialLikelihood));
+        }
+    }
+
+    @Test
+    void sequentialMatchesViterbiAndForwardBackward() throws InterruptedException {
+        Model model = TestModels.generate(8, 5, 8, 11);
+        ExperimentData data = TestModels.sample(model, 3000, 11);
+        CompiledModel compiled = CompiledModel.compile(model);
+        ParallelScanDecoder decoder = new ParallelScanDecoder(compiled, executor, 4);
+        decoder.strategy = ParallelScanDecoder.Strategy.SEQUENTIAL;
+
+        int[] expected = new int[data.size()];
+        double expectedLogProb = Algorithms.findMostProbableStateSequence(compiled, data, new DecoderWorkspace(), expected);
+        int[] path = new int[data.size()];
+        double logProb = decoder.findMostProbableStateSequence(data, path);
+        double likelihood = Algorithms.calcScaledForwardBackward(compiled, data, false).logLikelihood;
+
+        assertArrayEquals(expected, path);
+        assertEquals(expectedLogProb, logProb, 1e-9 * Math.abs(expectedLogProb));
+        assertEquals(likelihood, decoder.logLikelihood(data), 1e-9 * Math.abs(likelihood));
+    }
+}
@@ -0,0 +1,117 @@
+package hmm.data;
+
+import hmm.TestModels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class BinaryFormatTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void modelRoundTrip() throws IOException {
+        Model model = TestModels.generate(7, 5, 3, 1);
+        Path path = dir.resolve("model.hmm");
+        BinaryFormat.writeModel(model, path);
+
+        assertTrue(BinaryFormat.isBinaryModel(path));
+        Model read = BinaryFormat.readModel(path);
+        assertEquals(model.stateIndexToName, read.stateIndexToName);
+        assertEquals(model.alphabetSize, read.alphabetSize);
+        for (int i = 0; i < model.transitionProb.length; ++i) {
+            assertArrayEquals(model.transitionProb[i], read.transitionProb[i]);
+            assertArrayEquals(model.stateSymbolProb[i], read.stateSymbolProb[i]);
+        }
+    }
+
+    @Test
+    void dataRoundTripWithExplicitTimes() throws IOException {
+        Model model = TestModels.generate(5, 4, 3, 2);
+        ExperimentData first = TestModels.sample(model, 300, 1);
+        ExperimentData second = TestModels.sample(model, 17, 2);
+        int[] times = new int[second.size()];
+        for (int t = 0; t < times.length; ++t) {
+            times[t] = 10 + 3 * t;
+        }
+        second.setColumns(times, columnOf(second, 1), columnOf(second, 2));
+
+        Path path = dir.resolve("data.hmmd");
+        BinaryFormat.writeExperimentData(model, Arrays.asList(first, second), path);
+
+        assertTrue(BinaryFormat.isBinaryData(path));
+        try (MappedDataset dataset = MappedDataset.open(path)) {
+            assertEquals(2, dataset.sequenceCount());
+            assertEquals(317, dataset.totalSteps());
+            assertEquals(1, dataset.symbolBytes);
+            assertSameSequence(first, dataset.toExperimentData(0, model));
+            assertSameSequence(second, dataset.toExperimentData(1, model));
+        }
+    }
+
+    @Test
+    void dataRoundTripWithImplicitTimesAndWideSymbols() throws IOException {
+        Model model = TestModels.generate(3, 300, 3, 3);
+        ExperimentData data = TestModels.sample(model, 1000, 3);
+
+        Path path = dir.resolve("wide.hmmd");
+        BinaryFormat.writeExperimentData(model, Arrays.asList(data), path);
+
+        try (MappedDataset dataset = MappedDataset.open(path)) {
+            assertEquals(2, dataset.symbolBytes);
+            assertNull(dataset.times(0));
+            ExperimentData read = dataset.toExperimentData(0, model);
+            assertTrue(read.hasImplicitTimes());
+            assertSameSequence(data, read);
+        }
+    }
+
+    @Test
+    void negativeHeaderCountIsRejected() throws IOException {
+        Model model = TestModels.generate(3, 4, 3, 4);
+        Path path = dir.resolve("corrupt.hmmd");
+        BinaryFormat.writeExperimentData(model, Arrays.asList(TestModels.sample(model, 10, 4)), path);
+
+        // Jumlah urutan berada tepat setelah magic, versi dan flags
+        byte[] content = Files.readAllBytes(path);
+        ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN).putInt(12, -1);
+        Files.write(path, content);
+
+        assertThrows(IllegalArgumentException.class, () -> MappedDataset.open(path).close());
+    }
+
+    private static int[] columnOf(ExperimentData data, int column) {
+        int[] values = new int[data.size()];
+        for (int t = 0; t < values.length; ++t) {
+            values[t] = column == 1 ? data.state(t) : data.symbol(t);
+        }
+        return values;
+    }
+
+    private static void assertSameSequence(ExperimentData expected, ExperimentData actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int t = 0; t < expected.size(); ++t) {
+            assertEquals(expected.time(t), actual.time(t), "time at step " + t);
+            assertEquals(expected.state(t), actual.state(t), "state at step " + t);
+            assertEquals(expected.symbol(t), actual.symbol(t), "symbol at step " + t);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hmm.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+ * © 2025 hendrowunga, University of Sanata Dharma
+ * Created on 10/18/26
+ */
+
+class JsonTest {
+
+    @Test
+    void parsesAndWritesRequest() {
+        String text = "{\"id\":7,\"op\":\"decode\",\"symbols\":[\"a\",\"b\"],\"beam\":2.5,\"labels\":null}";
+        Object parsed = Json.parse(text);
+
+        Map<?, ?> request = (Map<?, ?>) parsed;
+        assertEquals(7L, request.get("id"));
+        assertEquals(Arrays.asList("a", "b"), request.get("symbols"));
+        assertEquals(2.5, request.get("beam"));
+        assertEquals(text, Json.write(parsed));
+    }
+
+    @Test
+    void deepNestingIsRejected() {
+        StringBuilder atLimit = new StringBuilder();
+        for (int i = 0; i < Json.MAX_DEPTH; ++i) {
+            atLimit.append('[');
+        }
+        for (int i = 0; i < Json.MAX_DEPTH; ++i) {
+            atLimit.append(']');
+        }
+        assertEquals(1, ((List<?>) Json.parse(atLimit.toString())).size());
+
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 20000; ++i) {
+            deep.append('[');
+        }
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(deep.toString()));
+    }
+}